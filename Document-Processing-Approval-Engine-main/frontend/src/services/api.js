@@ -50,6 +50,23 @@ api.interceptors.response.use(
   }
 )
 
+// Largest page the list endpoints serve
+const PAGE_LIMIT = 500
+
+// The list endpoints return one keyset page per request, with the cursor of the next
+// page in X-Next-Cursor; this follows it to the last page and returns every row
+const getAllPages = async (url) => {
+  const items = []
+  let cursor
+  let response
+  do {
+    response = await api.get(url, { params: { limit: PAGE_LIMIT, cursor } })
+    items.push(...response.data)
+    cursor = response.headers['x-next-cursor']
+  } while (cursor)
+  return { ...response, data: items }
+}
+
 // Auth API
 export const authAPI = {
   login: (credentials) => api.post('/auth/login', credentials),
@@ -60,7 +77,7 @@ export const authAPI = {
 // Documents API
 export const documentsAPI = {
   getMyDocuments: () => api.get('/documents/my'),
-  getAllDocuments: () => api.get('/documents/all'),
+  getAllDocuments: () => getAllPages('/documents/all'),
   getDocument: (id) => api.get(`/documents/${id}`),
   uploadDocument: (formData) => api.post('/documents/upload', formData, {
     headers: { 'Content-Type': 'multipart/form-data' }
@@ -73,16 +90,16 @@ export const documentsAPI = {
 
 // Workflows API
 export const workflowsAPI = {
-  getPendingWorkflows: () => api.get('/workflows/pending'),
+  getPendingWorkflows: () => getAllPages('/workflows/pending'),
   getDocumentWorkflows: (documentId) => api.get(`/workflows/document/${documentId}`),
   processWorkflowAction: (actionData) => api.post('/workflows/action', actionData),
 }
 
 // Users API
 export const usersAPI = {
-  getAllUsers: () => api.get('/users/all'),
+  getAllUsers: () => getAllPages('/users/all'),
   getUserProfile: () => api.get('/users/profile'),
-  getUsersByRole: (role) => api.get(`/users/role/${role}`),
+  getUsersByRole: (role) => getAllPages(`/users/role/${role}`),
   updateUserRole: (userId, role) => api.put(`/users/${userId}/role`, null, {
     params: { role }
   }),
@@ -91,7 +108,7 @@ export const usersAPI = {
 
 // Audit Logs API
 export const auditAPI = {
-  getAllAuditLogs: () => api.get('/audit/all'),
+  getAllAuditLogs: () => getAllPages('/audit/all'),
   getMyAuditLogs: () => api.get('/audit/my'),
   getUserAuditLogs: (userEmail) => api.get(`/audit/user/${userEmail}`),
   getDocumentAuditLogs: (documentId) => api.get(`/audit/document/${documentId}`),
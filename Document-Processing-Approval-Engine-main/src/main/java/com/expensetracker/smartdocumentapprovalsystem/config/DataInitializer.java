@@ -3,6 +3,7 @@ package com.expensetracker.smartdocumentapprovalsystem.config;
 import com.expensetracker.smartdocumentapprovalsystem.model.Role;
 import com.expensetracker.smartdocumentapprovalsystem.model.User;
 import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
+import com.expensetracker.smartdocumentapprovalsystem.utils.WorkflowDefinitionRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -17,12 +18,16 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private WorkflowDefinitionRegistry workflowDefinitionRegistry;
+
     @Override
     public void run(String... args) throws Exception {
         // Check if users already exist to avoid duplicates
         if (userRepository.count() == 0) {
             createSampleUsers();
         }
+        workflowDefinitionRegistry.ensureDefaultDefinition();
     }
 
     private void createSampleUsers() {
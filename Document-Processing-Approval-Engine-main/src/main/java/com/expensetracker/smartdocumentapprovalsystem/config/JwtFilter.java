@@ -1,6 +1,10 @@
 package com.expensetracker.smartdocumentapprovalsystem.config;
 
 
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import com.expensetracker.smartdocumentapprovalsystem.utils.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,6 +28,9 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -38,31 +45,58 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
         final String authHeader = request.getHeader("Authorization");
-        final String token;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        token = authHeader.substring(7);
-        username = jwtService.extractUsername(token);
+        // One verification covers signature, expiry and subject
+        final Claims claims;
+        try {
+            claims = jwtService.validateToken(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Invalid or expired token: continue unauthenticated and let security reject the request
+            filterChain.doFilter(request, response);
+            return;
+        }
 
+        String username = claims.getSubject();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            if (jwtService.isTokenValid(token, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            UserDetails userDetails = loadPrincipal(username, claims);
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities()
+                    );
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    // Builds the principal from the token's claims; the database is only consulted
+    // for tokens without claims or whose role may have changed since they were minted
+    private UserDetails loadPrincipal(String username, Claims claims) {
+        Integer userId = claims.get(JwtService.CLAIM_USER_ID, Integer.class);
+        String role = claims.get(JwtService.CLAIM_ROLE, String.class);
+        Long version = claims.get(JwtService.CLAIM_REVOCATION_VERSION, Long.class);
+        if (userId == null || role == null || version == null) {
+            return userDetailsService.loadUserByUsername(username);
+        }
+
+        Role currentRole = Role.valueOf(role);
+        TokenRevocationList.Revocation revocation = tokenRevocationList.check(userId, version);
+        if (revocation != null) {
+            if (revocation.role() != null) {
+                currentRole = revocation.role();
+            } else {
+                UserPrincipal stored = (UserPrincipal) userDetailsService.loadUserByUsername(username);
+                tokenRevocationList.roleConfirmed(stored.getId(), stored.getRole());
+                return stored;
+            }
+        }
+        return new UserPrincipal(userId, claims.get(JwtService.CLAIM_NAME, String.class), username, currentRole);
+    }
 }
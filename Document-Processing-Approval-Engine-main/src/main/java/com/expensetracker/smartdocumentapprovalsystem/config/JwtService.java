@@ -1,55 +1,130 @@
 package com.expensetracker.smartdocumentapprovalsystem.config;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.utils.TokenRevocationList;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class JwtService {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_NAME = "name";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_REVOCATION_VERSION = "rv";
+
     @Value("${jwt.secret}")
     private String SECRET_KEY;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
-    private Key getSignInKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    // Built once; both are immutable and thread-safe
+    private Key signingKey;
+    private JwtParser parser;
+
+    // Tokens that already passed signature verification, keyed by SHA-256 of the token
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
-    public String generateToken(String username) {
+    // Carries enough of the user for JwtFilter to authenticate without a database lookup
+    public String generateToken(UserDto user) {
         return Jwts.builder()
-                .setSubject(username)
+                .setSubject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_NAME, user.getName())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_REVOCATION_VERSION, tokenRevocationList.currentVersion())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the token once and returns all of its claims. Signature and
+     * expiry are checked together; repeat calls with the same token are served
+     * from a bounded cache until the token's {@code exp}.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims validateToken(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (System.currentTimeMillis() < cached.expiresAt()) {
+                return cached.claims();
+            }
+            verifiedTokens.remove(key, cached);
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        // Tokens without exp are verified every time rather than cached forever
+        if (claims.getExpiration() != null) {
+            cache(key, new VerifiedToken(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
     public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return validateToken(token).getSubject();
     }
 
     public boolean isTokenValid(String token, String username) {
-        return extractUsername(token).equals(username) && !isTokenExpired(token);
+        try {
+            return validateToken(token).getSubject().equals(username);
+        } catch (JwtException ex) {
+            return false;
+        }
+    }
+
+    private void cache(String key, VerifiedToken token) {
+        if (verifiedTokens.size() >= cacheMaxSize) {
+            long now = System.currentTimeMillis();
+            verifiedTokens.values().removeIf(entry -> entry.expiresAt() <= now);
+            if (verifiedTokens.size() >= cacheMaxSize) {
+                // Still full of live tokens: skip caching rather than grow past the bound
+                return;
+            }
+        }
+        verifiedTokens.put(key, token);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
     }
 
-    private boolean isTokenExpired(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration()
-                .before(new Date());
+    private record VerifiedToken(Claims claims, long expiresAt) {
     }
 }
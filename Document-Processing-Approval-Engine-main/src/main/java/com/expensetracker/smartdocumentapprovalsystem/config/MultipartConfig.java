@@ -0,0 +1,33 @@
+package com.expensetracker.smartdocumentapprovalsystem.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+
+@Configuration
+public class MultipartConfig {
+
+    // Parsed by the controller straight from the request body
+    public static final String STREAMING_UPLOAD_PATH = "/api/documents/upload/stream";
+
+    @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    public StandardServletMultipartResolver multipartResolver() {
+        return new StandardServletMultipartResolver() {
+            @Override
+            public boolean isMultipart(HttpServletRequest request) {
+                // Leave the body untouched so the container never spools it to a temp file
+                return !isStreamingUpload(request) && super.isMultipart(request);
+            }
+        };
+    }
+
+    // Compares the path inside the application, so it holds under any context path
+    static boolean isStreamingUpload(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        String path = contextPath != null && uri.startsWith(contextPath) ? uri.substring(contextPath.length()) : uri;
+        return STREAMING_UPLOAD_PATH.equals(path);
+    }
+}
@@ -0,0 +1,92 @@
+package com.expensetracker.smartdocumentapprovalsystem.config;
+
+import com.expensetracker.smartdocumentapprovalsystem.utils.ReadYourWritesWindow;
+import com.expensetracker.smartdocumentapprovalsystem.utils.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Only active when {@code datasource.replica.urls} lists at least one replica.
+ * The primary pool is built from the usual spring.datasource settings; each
+ * replica gets a pool of its own with the same settings and, unless
+ * {@code datasource.replica.username} / {@code password} are given, the same
+ * credentials. See {@link ReplicaRoutingDataSource} for which statements go where.
+ */
+@Configuration
+@ConditionalOnProperty("datasource.replica.urls")
+public class ReplicaDataSourceConfig {
+
+    @Value("${datasource.replica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${datasource.replica.username:}")
+    private String replicaUsername;
+
+    @Value("${datasource.replica.password:}")
+    private String replicaPassword;
+
+    @Value("${datasource.replica.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Value("${datasource.replica.lag-check-interval-ms:1000}")
+    private long lagCheckIntervalMs;
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                             ReadYourWritesWindow readYourWritesWindow) {
+        HikariDataSource primary = pool(properties, environment, "primary", properties.determineUrl(),
+                properties.determineUsername(), properties.determinePassword());
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            replicas.add(pool(properties, environment, "replica-" + replicas.size(), url.trim(),
+                    StringUtils.hasText(replicaUsername) ? replicaUsername : properties.determineUsername(),
+                    StringUtils.hasText(replicaUsername) ? replicaPassword : properties.determinePassword()));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, readYourWritesWindow, maxLagMs, lagCheckIntervalMs);
+    }
+
+    // Defers picking a pool to the first statement, by when the transaction is known to be read-only or not
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // replication_heartbeat exists once the migrations have run
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLagMonitor(ApplicationReadyEvent event) {
+        event.getApplicationContext().getBean(ReplicaRoutingDataSource.class).start();
+    }
+
+    private HikariDataSource pool(DataSourceProperties properties, Environment environment, String name,
+                                  String url, String username, String password) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        return pool;
+    }
+}
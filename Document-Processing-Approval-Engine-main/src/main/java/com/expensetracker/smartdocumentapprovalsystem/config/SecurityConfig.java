@@ -1,5 +1,6 @@
 package com.expensetracker.smartdocumentapprovalsystem.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -38,13 +39,18 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorizeRequests ->
                     authorizeRequests
+                        // Completes a streamed response (the /export endpoints) whose request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/documents/upload").hasAnyRole("USER", "OFFICER", "MANAGER", "ADMIN")
+                        .requestMatchers("/api/documents/upload/stream").hasAnyRole("USER", "OFFICER", "MANAGER", "ADMIN")
                         .requestMatchers("/api/documents/my").hasAnyRole("USER", "OFFICER", "MANAGER", "ADMIN")
                         .requestMatchers("/api/documents/all").hasAnyRole("MANAGER", "ADMIN")
+                        .requestMatchers("/api/documents/export").hasAnyRole("MANAGER", "ADMIN")
                         .requestMatchers("/api/workflows/**").hasAnyRole("OFFICER", "MANAGER", "ADMIN")
                         .requestMatchers("/api/users/all").hasRole("ADMIN")
                         .requestMatchers("/api/users/role/**").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers("/api/email/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
@@ -1,5 +1,7 @@
 package com.expensetracker.smartdocumentapprovalsystem.config;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
 import com.expensetracker.smartdocumentapprovalsystem.model.User;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -14,6 +16,31 @@ public class UserPrincipal implements UserDetails {
         this.user = user;
     }
 
+    // Built from token claims; carries no password
+    public UserPrincipal(int id, String name, String email, Role role) {
+        this.user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        user.setRole(role);
+    }
+
+    public int getId() {
+        return user.getId();
+    }
+
+    public String getName() {
+        return user.getName();
+    }
+
+    public Role getRole() {
+        return user.getRole();
+    }
+
+    public UserDto toUserDto() {
+        return new UserDto(user.getId(), user.getName(), user.getEmail(), user.getRole());
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
@@ -1,12 +1,20 @@
 package com.expensetracker.smartdocumentapprovalsystem.controller;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.AuditChainReport;
+import com.expensetracker.smartdocumentapprovalsystem.dto.AuditCompactionResult;
+import com.expensetracker.smartdocumentapprovalsystem.dto.AuditStats;
+import com.expensetracker.smartdocumentapprovalsystem.dto.ExportFormat;
 import com.expensetracker.smartdocumentapprovalsystem.model.AuditLog;
 import com.expensetracker.smartdocumentapprovalsystem.service.AuditService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.AuditLogCompactor;
+import com.expensetracker.smartdocumentapprovalsystem.utils.AuditMetrics;
+import com.expensetracker.smartdocumentapprovalsystem.utils.AuditSegmentStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.security.Principal;
 import java.time.LocalDateTime;
@@ -19,12 +27,71 @@ public class AuditController {
     @Autowired
     private AuditService auditService;
 
-    // Get all audit logs (Admin only)
+    @Autowired
+    private AuditMetrics auditMetrics;
+
+    // Only present with audit.store=SEGMENTS
+    @Autowired(required = false)
+    private AuditSegmentStore auditSegmentStore;
+
+    // Only present with audit.store=DATABASE
+    @Autowired(required = false)
+    private AuditLogCompactor auditLogCompactor;
+
+    // Get all audit logs (Admin only), newest first, one keyset page at a time
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AuditLog>> getAllAuditLogs() {
-        List<AuditLog> auditLogs = auditService.getAllAuditLogs();
-        return ResponseEntity.ok(auditLogs);
+    public ResponseEntity<List<AuditLog>> getAllAuditLogs(
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String userEmail,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return auditService.getAuditLogPage(action, userEmail, entityType, from, to, cursor, limit).toResponseEntity();
+    }
+
+    // Every matching audit log (Admin only), oldest first, streamed as NDJSON or CSV while it is read
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String userEmail,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return format.toResponseEntity("audit-logs", gzip,
+                out -> auditService.exportAuditLogs(action, userEmail, entityType, from, to, format, out));
+    }
+
+    // Re-check the hash chain of the audit segment files (Admin only); 404 when audit logs are in the database
+    @GetMapping("/segments/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AuditChainReport> verifyAuditSegments() {
+        if (auditSegmentStore == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(auditSegmentStore.verify());
+    }
+
+    // Roll up and archive old audit logs now instead of waiting for the next scheduled run (Admin only)
+    @PostMapping("/compact")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AuditCompactionResult> compactAuditLogs() {
+        if (auditLogCompactor == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(auditLogCompactor.compact(LocalDateTime.now()));
+    }
+
+    // Counts and upload-to-decision times over the last hour, day and week, from memory (Admin only)
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AuditStats> getAuditStats() {
+        return ResponseEntity.ok(auditMetrics.getStats());
     }
 
     // Get audit logs for current user
@@ -1,30 +1,40 @@
 package com.expensetracker.smartdocumentapprovalsystem.controller;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.DocumentProgressReport;
 import com.expensetracker.smartdocumentapprovalsystem.dto.DocumentResponseDTO;
+import com.expensetracker.smartdocumentapprovalsystem.dto.ExportFormat;
 import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
 import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
 import com.expensetracker.smartdocumentapprovalsystem.model.Document;
-import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
 import com.expensetracker.smartdocumentapprovalsystem.service.DocumentService;
 import com.expensetracker.smartdocumentapprovalsystem.service.UserService;
-import com.expensetracker.smartdocumentapprovalsystem.service.WorkFlowService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.DocumentProgressReconciler;
+import com.expensetracker.smartdocumentapprovalsystem.utils.FileRangeWriter;
 import com.expensetracker.smartdocumentapprovalsystem.utils.FileStorageUtil;
+import com.expensetracker.smartdocumentapprovalsystem.utils.MultipartStreamParser;
+import com.expensetracker.smartdocumentapprovalsystem.utils.ResourceVersionTracker;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.net.MalformedURLException;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/documents")
@@ -37,10 +47,22 @@ public class DocumentController {
     private UserService userService;
 
     @Autowired
-    private WorkFlowService workFlowService;
+    private FileStorageUtil fileStorageUtil;
 
     @Autowired
-    private FileStorageUtil fileStorageUtil;
+    private FileRangeWriter fileRangeWriter;
+
+    @Autowired
+    private ResourceVersionTracker resourceVersionTracker;
+
+    @Autowired
+    private DocumentProgressReconciler documentProgressReconciler;
+
+    private static final int MAX_TITLE_BYTES = 1024;
+
+    // Same limit as the servlet multipart config, which the streaming upload bypasses
+    @Value("${spring.servlet.multipart.max-request-size:10MB}")
+    private DataSize maxRequestSize;
 
     // Upload Document
     @PostMapping("/upload")
@@ -51,7 +73,7 @@ public class DocumentController {
     ) {
         try {
             // Get current user
-            UserDto uploadedBy = userService.getUserByEmail(principal.getName());
+            UserDto uploadedBy = userService.resolveUser(principal);
 
             // Save document
             Document savedDocument = documentService.createDocument(file, title, uploadedBy.getId());
@@ -62,30 +84,102 @@ public class DocumentController {
         }
     }
 
-    // Get all documents uploaded by user
-    @GetMapping("/my")
-    public ResponseEntity<List<DocumentResponseDTO>> getMyDocuments(Principal principal) {
-        UserDto user = userService.getUserByEmail(principal.getName());
-        List<Document> documents = documentService.getDocumentsByUser((long) user.getId());
+    // Upload Document by streaming the multipart body straight into storage (no temp-file spooling)
+    @PostMapping(value = "/upload/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadDocumentStream(HttpServletRequest request, Principal principal) throws IOException {
+        UserDto uploadedBy = userService.resolveUser(principal);
 
-        List<DocumentResponseDTO> documentDTOs = documents.stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        String title = null;
+        String storedPath = null;
+        try {
+            long maxBytes = maxRequestSize.toBytes();
+            if (request.getContentLengthLong() > maxBytes) {
+                throw new MaxUploadSizeExceededException(maxBytes);
+            }
+            // Both limits in the same pass: the parser counts the body, storeStream the file part
+            MultipartStreamParser parser = new MultipartStreamParser(request.getInputStream(), request.getContentType(), maxBytes);
+            MultipartStreamParser.Part part;
+            while ((part = parser.nextPart()) != null) {
+                if ("title".equals(part.getName())) {
+                    title = part.readString(MAX_TITLE_BYTES);
+                } else if ("file".equals(part.getName()) && part.isFile() && storedPath == null) {
+                    storedPath = fileStorageUtil.storeStream(part.getInputStream(), part.getFilename());
+                }
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            fileStorageUtil.releaseFile(storedPath);
+            return ResponseEntity.badRequest().body("Error uploading document: " + e.getMessage());
+        } catch (RuntimeException e) {
+            fileStorageUtil.releaseFile(storedPath);
+            throw e;
+        }
+
+        if (storedPath == null || title == null || title.isBlank()) {
+            fileStorageUtil.releaseFile(storedPath);
+            return ResponseEntity.badRequest().body("Error uploading document: both 'file' and 'title' parts are required");
+        }
+
+        Document savedDocument = documentService.createDocumentFromStoredFile(storedPath, title.trim(), uploadedBy.getId());
+        return ResponseEntity.ok(savedDocument);
+    }
 
-        return ResponseEntity.ok(documentDTOs);
+    // Get all documents uploaded by user
+    @GetMapping("/my")
+    public ResponseEntity<List<DocumentResponseDTO>> getMyDocuments(Principal principal, WebRequest webRequest) {
+        // Answer unchanged polls with 304 before any query runs
+        if (webRequest.checkNotModified(resourceVersionTracker.myDocumentsTag(principal.getName()),
+                resourceVersionTracker.myDocumentsLastModified(principal.getName()))) {
+            return null;
+        }
+        UserDto user = userService.resolveUser(principal);
+        return ResponseEntity.ok(documentService.getDocumentSummariesByUser((long) user.getId()));
     }
 
-    // Get all documents (admin or manager)
+    // Get all documents (admin or manager), newest first, one keyset page at a time
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('OFFICER')")
-    public ResponseEntity<List<DocumentResponseDTO>> getAllDocuments() {
-        List<Document> documents = documentService.getAllDocuments();
+    public ResponseEntity<List<DocumentResponseDTO>> getAllDocuments(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Integer uploaderId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(resourceVersionTracker.allDocumentsTag(),
+                resourceVersionTracker.allDocumentsLastModified())) {
+            return null;
+        }
+        return resourceVersionTracker.readAllDocuments(
+                () -> documentService.getDocumentSummaryPage(status, uploaderId, from, to, cursor, limit)).toResponseEntity();
+    }
+
+    // Every matching document (admin or manager), oldest first, streamed as NDJSON or CSV while it is read
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('OFFICER')")
+    public ResponseEntity<StreamingResponseBody> exportDocuments(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Integer uploaderId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return format.toResponseEntity("documents", gzip,
+                out -> documentService.exportDocuments(status, uploaderId, from, to, format, out));
+    }
 
-        List<DocumentResponseDTO> documentDTOs = documents.stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+    // Compares every document's progress columns with its workflow steps (Admin only)
+    @GetMapping("/progress/check")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DocumentProgressReport> checkProgress() {
+        return ResponseEntity.ok(documentProgressReconciler.check());
+    }
 
-        return ResponseEntity.ok(documentDTOs);
+    // Same as the check, and rewrites the columns that disagree (Admin only)
+    @PostMapping("/progress/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DocumentProgressReport> reconcileProgress() {
+        return ResponseEntity.ok(documentProgressReconciler.reconcile());
     }
 
     // Get document by ID
@@ -96,47 +190,50 @@ public class DocumentController {
 
 
 
-    // Download document
+    // Download document (supports Range / If-Range for partial content)
     @GetMapping("/{id}/download")
-    public ResponseEntity<Resource> downloadDocument(@PathVariable Long id, Principal principal) {
+    public void downloadDocument(@PathVariable Long id, Principal principal,
+                                 HttpServletRequest request, HttpServletResponse response) {
         try {
             // Get document details
             Document document = documentService.getDocumentById(id);
 
             // Security check: Only allow download if user is uploader or has review permissions
-            UserDto currentUser = userService.getUserByEmail(principal.getName());
+            UserDto currentUser = userService.resolveUser(principal);
             boolean canDownload = document.getUploadedBy().getId() == currentUser.getId() ||
                                 currentUser.getRole().name().equals("ADMIN") ||
                                 currentUser.getRole().name().equals("MANAGER") ||
                                 currentUser.getRole().name().equals("OFFICER");
 
             if (!canDownload) {
-                return ResponseEntity.status(403).build();
+                response.setStatus(HttpStatus.FORBIDDEN.value());
+                return;
             }
 
-            // Load file as Resource
-            Path filePath = fileStorageUtil.loadFileAsResource(document.getUploadPath());
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                // Determine content type
-                String contentType = "application/octet-stream";
-                if (document.getTitle().toLowerCase().endsWith(".pdf")) {
-                    contentType = "application/pdf";
-                }
+            Path filePath;
+            try {
+                filePath = fileStorageUtil.loadFileAsResource(document.getUploadPath());
+            } catch (RuntimeException e) {
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+            if (!Files.isReadable(filePath)) {
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+                return;
+            }
 
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION,
-                               "attachment; filename=\"" + document.getTitle() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
+            // Determine content type
+            String contentType = "application/octet-stream";
+            if (document.getTitle().toLowerCase().endsWith(".pdf")) {
+                contentType = "application/pdf";
             }
-        } catch (MalformedURLException e) {
-            return ResponseEntity.badRequest().build();
+
+            fileRangeWriter.write(request, response, filePath, contentType, document.getTitle(),
+                    fileStorageUtil.entityTag(document.getUploadPath(), filePath));
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+            if (!response.isCommitted()) {
+                response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            }
         }
     }
 
@@ -144,7 +241,7 @@ public class DocumentController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteDocument(@PathVariable Long id, Principal principal) {
         try {
-            UserDto user = userService.getUserByEmail(principal.getName());
+            UserDto user = userService.resolveUser(principal);
             Document document = documentService.getDocumentById(id);
 
             // Check if user is the owner of the document
@@ -163,41 +260,4 @@ public class DocumentController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
-
-    private DocumentResponseDTO convertToDTO(Document doc) {
-        // Get workflows for this document to calculate progress
-        List<WorkFlow> workflows = workFlowService.getWorkflowByDocumentId(doc.getId());
-
-        int totalWorkflows = 3; // Officer, Manager, Admin
-        int completedWorkflows = (int) workflows.stream()
-            .filter(wf -> wf.getStatus() == Status.APPROVED || wf.getStatus() == Status.REJECTED)
-            .count();
-
-        int progressPercentage;
-        if (doc.getStatus() == Status.APPROVED) {
-            progressPercentage = 100;
-        } else if (doc.getStatus() == Status.REJECTED) {
-            progressPercentage = 100;
-        } else {
-            // Calculate based on completed workflows
-            progressPercentage = (completedWorkflows * 100) / totalWorkflows;
-            if (progressPercentage == 0 && doc.getStatus() == Status.PENDING) {
-                progressPercentage = 33; // At least show some progress for pending
-            }
-        }
-
-        return new DocumentResponseDTO(
-            doc.getId(),
-            doc.getTitle(),
-            doc.getStatus(),
-            doc.getCreatedAt(),
-            doc.getReviewedAt(),
-            doc.getComment(),
-            doc.getUploadPath(),
-            doc.getUploadedBy() != null ? doc.getUploadedBy().getName() : "Unknown",
-            progressPercentage,
-            completedWorkflows,
-            totalWorkflows
-        );
-    }
 }
@@ -0,0 +1,41 @@
+package com.expensetracker.smartdocumentapprovalsystem.controller;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.EmailDeadLetter;
+import com.expensetracker.smartdocumentapprovalsystem.dto.EmailDispatchStats;
+import com.expensetracker.smartdocumentapprovalsystem.utils.EmailDispatchQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/email")
+public class EmailController {
+
+    @Autowired
+    private EmailDispatchQueue emailDispatchQueue;
+
+    // Queue depth, in-flight and retry counters of the email dispatcher (Admin only)
+    @GetMapping("/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EmailDispatchStats> getDispatchMetrics() {
+        return ResponseEntity.ok(emailDispatchQueue.getStats());
+    }
+
+    // Emails that ran out of retries (Admin only)
+    @GetMapping("/dead-letters")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<EmailDeadLetter>> getDeadLetters() {
+        return ResponseEntity.ok(emailDispatchQueue.getDeadLetters());
+    }
+
+    // Re-queue all dead letters (Admin only)
+    @PostMapping("/dead-letters/retry")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> retryDeadLetters() {
+        int requeued = emailDispatchQueue.retryDeadLetters();
+        return ResponseEntity.ok("Re-queued " + requeued + " emails");
+    }
+}
@@ -1,10 +1,13 @@
 package com.expensetracker.smartdocumentapprovalsystem.controller;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDirectoryStats;
 import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
 import com.expensetracker.smartdocumentapprovalsystem.model.Role;
 import com.expensetracker.smartdocumentapprovalsystem.model.User;
 import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
 import com.expensetracker.smartdocumentapprovalsystem.service.UserService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.TokenRevocationList;
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryCache;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -13,7 +16,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
@@ -28,6 +30,12 @@ public class UserController {
     @Autowired
     private ModelMapper modelMapper;
 
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
+
     // Get current user profile
     @GetMapping("/profile")
     public ResponseEntity<UserDto> getCurrentUserProfile(Principal principal) {
@@ -35,32 +43,27 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
-    // Get all users (Admin only)
+    // Get all users (Admin only), one keyset page at a time
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        List<UserDto> userDtos = users.stream()
-                .map(user -> modelMapper.map(user, UserDto.class))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(userDtos);
+    public ResponseEntity<List<UserDto>> getAllUsers(
+            @RequestParam(required = false) Role role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return userService.getUserPage(role, cursor, limit).toResponseEntity();
     }
 
     // Get users by role (Admin/Manager only)
     @GetMapping("/role/{role}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
-    public ResponseEntity<List<UserDto>> getUsersByRole(@PathVariable String role) {
+    public ResponseEntity<List<UserDto>> getUsersByRole(
+            @PathVariable String role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
             Role userRole = Role.valueOf(role.toUpperCase());
-            List<User> users = userRepository.findAll().stream()
-                    .filter(user -> user.getRole() == userRole)
-                    .collect(Collectors.toList());
-
-            List<UserDto> userDtos = users.stream()
-                    .map(user -> modelMapper.map(user, UserDto.class))
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(userDtos);
+            // Role filter runs in the query instead of over findAll()
+            return userService.getUserPage(userRole, cursor, limit).toResponseEntity();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -77,6 +80,8 @@ public class UserController {
 
             user.setRole(newRole);
             userRepository.save(user);
+            // Tokens minted before this carry the old role claim
+            tokenRevocationList.roleChanged(user.getId(), newRole);
 
             return ResponseEntity.ok("User role updated successfully");
         } catch (IllegalArgumentException e) {
@@ -86,6 +91,13 @@ public class UserController {
         }
     }
 
+    // Hit/miss counters of the user directory cache (Admin only)
+    @GetMapping("/directory/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserDirectoryStats> getDirectoryStats() {
+        return ResponseEntity.ok(userDirectoryCache.getStats());
+    }
+
     // Get user by ID (Admin/Manager only)
     @GetMapping("/{userId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
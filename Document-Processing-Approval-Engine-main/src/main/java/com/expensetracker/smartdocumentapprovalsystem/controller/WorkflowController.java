@@ -2,16 +2,28 @@ package com.expensetracker.smartdocumentapprovalsystem.controller;
 
 import com.expensetracker.smartdocumentapprovalsystem.dto.ApprovalActionRequest;
 import com.expensetracker.smartdocumentapprovalsystem.dto.ApprovalWorkflowResponse;
+import com.expensetracker.smartdocumentapprovalsystem.dto.BatchActionRequest;
+import com.expensetracker.smartdocumentapprovalsystem.dto.BatchActionResponse;
 import com.expensetracker.smartdocumentapprovalsystem.dto.DocumentResponseDTO;
+import com.expensetracker.smartdocumentapprovalsystem.dto.InboxSort;
+import com.expensetracker.smartdocumentapprovalsystem.dto.OutboxStats;
+import com.expensetracker.smartdocumentapprovalsystem.dto.ReviewerLoad;
 import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowDefinitionSpec;
 import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
-import com.expensetracker.smartdocumentapprovalsystem.service.DocumentService;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkflowDefinition;
+import com.expensetracker.smartdocumentapprovalsystem.service.ReviewerAssignmentService;
+import com.expensetracker.smartdocumentapprovalsystem.service.SlaService;
 import com.expensetracker.smartdocumentapprovalsystem.service.UserService;
 import com.expensetracker.smartdocumentapprovalsystem.service.WorkFlowService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.OutboxRelay;
+import com.expensetracker.smartdocumentapprovalsystem.utils.ResourceVersionTracker;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.security.Principal;
 import java.util.List;
@@ -25,22 +37,34 @@ public class WorkflowController {
     private WorkFlowService workFlowService;
 
     @Autowired
-    private DocumentService documentService;
+    private UserService userService;
 
     @Autowired
-    private UserService userService;
+    private ResourceVersionTracker resourceVersionTracker;
 
-    // Get pending workflows for current user (reviewer)
-    @GetMapping("/pending")
-    public ResponseEntity<List<ApprovalWorkflowResponse>> getPendingWorkflows(Principal principal) {
-        UserDto currentUser = userService.getUserByEmail(principal.getName());
-        List<WorkFlow> pendingWorkflows = documentService.getPendingWorkflowsForReviewer((long) currentUser.getId());
+    @Autowired
+    private ReviewerAssignmentService reviewerAssignmentService;
 
-        List<ApprovalWorkflowResponse> responses = pendingWorkflows.stream()
-                .map(this::convertToWorkflowResponse)
-                .collect(Collectors.toList());
+    @Autowired
+    private OutboxRelay outboxRelay;
 
-        return ResponseEntity.ok(responses);
+    @Autowired
+    private SlaService slaService;
+
+    // Get pending workflows for current user (reviewer), one keyset page at a time, oldest or most urgent first
+    @GetMapping("/pending")
+    public ResponseEntity<List<ApprovalWorkflowResponse>> getPendingWorkflows(
+            @RequestParam(defaultValue = "AGE") InboxSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Principal principal, WebRequest webRequest) {
+        // Answer unchanged polls with 304 before any query runs
+        if (webRequest.checkNotModified(resourceVersionTracker.pendingWorkflowsTag(principal.getName()),
+                resourceVersionTracker.pendingWorkflowsLastModified(principal.getName()))) {
+            return null;
+        }
+        UserDto currentUser = userService.resolveUser(principal);
+        return workFlowService.getInbox(currentUser.getId(), sort, cursor, limit).toResponseEntity();
     }
 
     // Get workflow history for a specific document
@@ -60,7 +84,7 @@ public class WorkflowController {
     public ResponseEntity<String> processWorkflowAction(@Valid @RequestBody ApprovalActionRequest request, Principal principal) {
         try {
             // Get current user for validation
-            UserDto currentUser = userService.getUserByEmail(principal.getName());
+            UserDto currentUser = userService.resolveUser(principal);
 
             // TODO: Add validation to ensure current user is the assigned reviewer
             // This would require additional logic to check workflow assignment
@@ -78,6 +102,59 @@ public class WorkflowController {
         }
     }
 
+    // Apply one action to many workflow steps assigned to the caller; each step gets its own result
+    @PostMapping("/actions/batch")
+    public ResponseEntity<?> processWorkflowActions(@Valid @RequestBody BatchActionRequest request, Principal principal) {
+        try {
+            UserDto currentUser = userService.resolveUser(principal);
+            return ResponseEntity.ok(BatchActionResponse.of(workFlowService.updateWorkflowStatuses(
+                    currentUser.getId(), request.getWorkflowIds(), request.getStatus(), request.getComment())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error processing workflow actions: " + e.getMessage());
+        }
+    }
+
+    // List every workflow definition version, newest first per name (Admin only)
+    @GetMapping("/definitions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<WorkflowDefinition>> getWorkflowDefinitions() {
+        return ResponseEntity.ok(workFlowService.getWorkflowDefinitions());
+    }
+
+    // Publish a new version of a workflow definition (Admin only)
+    @PostMapping("/definitions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> publishWorkflowDefinition(@RequestBody WorkflowDefinitionSpec spec) {
+        try {
+            return ResponseEntity.ok(workFlowService.publishWorkflowDefinition(spec));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid workflow definition: " + e.getMessage());
+        }
+    }
+
+    // Open step count of every reviewer, as used for assignment (Admin only)
+    @GetMapping("/load")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ReviewerLoad>> getReviewerLoads() {
+        return ResponseEntity.ok(reviewerAssignmentService.getReviewerLoads());
+    }
+
+    // Open steps past their SLA deadline, longest overdue first (Admin only)
+    @GetMapping("/overdue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ApprovalWorkflowResponse>> getOverdueWorkflows() {
+        return ResponseEntity.ok(slaService.getOverdueSteps().stream()
+                .map(this::convertToWorkflowResponse)
+                .collect(Collectors.toList()));
+    }
+
+    // Outbox backlog and delivery counts of the workflow event relay (Admin only)
+    @GetMapping("/events/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<OutboxStats> getEventStats() {
+        return ResponseEntity.ok(outboxRelay.getStats());
+    }
+
     private ApprovalWorkflowResponse convertToWorkflowResponse(WorkFlow workflow) {
         ApprovalWorkflowResponse response = new ApprovalWorkflowResponse();
         response.setId((long) workflow.getId());
@@ -88,6 +165,8 @@ public class WorkflowController {
         response.setStatus(workflow.getStatus());
         response.setComment(workflow.getComment());
         response.setReviewedAt(workflow.getReviewedAt());
+        response.setStage(workflow.getStage());
+        response.setDueAt(workflow.getDueAt());
 
         // Add uploader information
         response.setUploaderName(workflow.getDocument().getUploadedBy() != null ?
@@ -21,4 +21,29 @@ public class ApprovalWorkflowResponse {
     private String uploaderName;
     private LocalDateTime createdAt;
     private DocumentResponseDTO document; // Include full document info for view functionality
+    private Integer stage; // Index of the workflow definition stage this step belongs to
+    private LocalDateTime dueAt; // SLA deadline while the step is open for review
+
+    // Used by the inbox queries in WorkFlowRepository, which project a step with its document in one row
+    public ApprovalWorkflowResponse(int id, Long documentId, String documentTitle, String uploadPath,
+                                    LocalDateTime createdAt, String uploaderName, String reviewerName,
+                                    String reviewerEmail, Status status, String comment, LocalDateTime reviewedAt,
+                                    Integer stage, LocalDateTime dueAt) {
+        this.id = (long) id;
+        this.documentId = documentId;
+        this.documentTitle = documentTitle;
+        this.reviewerName = reviewerName;
+        this.reviewerEmail = reviewerEmail;
+        this.status = status;
+        this.comment = comment;
+        this.reviewedAt = reviewedAt;
+        this.uploaderName = uploaderName != null ? uploaderName : "Unknown";
+        this.createdAt = createdAt;
+        this.stage = stage;
+        this.dueAt = dueAt;
+        this.document = new DocumentResponseDTO();
+        this.document.setId(documentId);
+        this.document.setTitle(documentTitle);
+        this.document.setUploadPath(uploadPath);
+    }
 }
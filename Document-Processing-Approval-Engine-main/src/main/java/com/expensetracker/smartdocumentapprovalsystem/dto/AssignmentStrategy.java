@@ -0,0 +1,8 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+// How a reviewer is picked among the users holding a stage role
+public enum AssignmentStrategy {
+    LEAST_LOADED,           // fewest open steps, lowest id on a tie
+    WEIGHTED_ROUND_ROBIN,   // rotate in proportion to workflow.assignment.weights
+    STICKY                  // same reviewer per uploader and role, least loaded the first time
+}
@@ -0,0 +1,17 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditChainReport {
+    private boolean valid;
+    private int segments;
+    private long records;
+    private long lastSequence;
+    private String headHash;    // hash of the last record, hex; keep a copy elsewhere to detect truncation
+    private String problem;     // the first break in the chain, null when valid
+}
@@ -0,0 +1,14 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditCompactionResult {
+    private long rolledUp;      // entries counted into per-day roll-ups
+    private long archived;      // entries moved to the archive, the rolled-up ones included
+    private int chunks;         // transactions it took
+}
@@ -0,0 +1,21 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditStats {
+    private LocalDateTime generatedAt;
+    private Map<String, RollingWindows<Long>> actions;                     // audit log entries by action
+    private Map<String, Map<String, RollingWindows<Long>>> stepsByRole;    // reviewer role, then step outcome
+    private Map<String, Map<String, RollingWindows<Long>>> stepsByReviewer; // reviewer email, then step outcome
+    private Map<String, RollingWindows<LatencySummary>> uploadToDecisionByRole;     // upload until a step is approved or rejected
+    private Map<String, RollingWindows<LatencySummary>> uploadToDecisionByReviewer;
+    private Map<String, RollingWindows<LatencySummary>> uploadToCompletion;         // by final status
+}
@@ -0,0 +1,24 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchActionRequest {
+    @NotEmpty(message = "Workflow IDs are required")
+    @Size(max = 1000, message = "At most 1000 workflows per batch")
+    private List<@NotNull Long> workflowIds;
+
+    @NotNull(message = "Status is required")
+    private Status status; // APPROVED, REJECTED or UNDER_REVIEW, applied to every workflow
+
+    private String comment;
+}
@@ -0,0 +1,21 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchActionResponse {
+    private int succeeded;
+    private int failed;
+    private List<BatchActionResult> results;   // in request order
+
+    public static BatchActionResponse of(List<BatchActionResult> results) {
+        int succeeded = (int) results.stream().filter(BatchActionResult::isSuccess).count();
+        return new BatchActionResponse(succeeded, results.size() - succeeded, results);
+    }
+}
@@ -0,0 +1,22 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchActionResult {
+    private Long workflowId;
+    private boolean success;
+    private String error;   // why the action was not applied; null on success
+
+    public static BatchActionResult applied(Long workflowId) {
+        return new BatchActionResult(workflowId, true, null);
+    }
+
+    public static BatchActionResult failed(Long workflowId, String error) {
+        return new BatchActionResult(workflowId, false, error);
+    }
+}
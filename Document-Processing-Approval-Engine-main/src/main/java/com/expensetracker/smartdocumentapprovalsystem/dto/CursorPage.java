@@ -0,0 +1,67 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import com.expensetracker.smartdocumentapprovalsystem.utils.PageCursor;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. The body stays a plain JSON array;
+ * the cursor for the next page travels in the {@code X-Next-Cursor} header
+ * and is absent on the last page. Lists that can count their rows cheaply
+ * send the count in {@code X-Total-Count}.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final Long totalCount;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this(items, nextCursor, null);
+    }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}; the extra row only
+     * signals that another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, PageCursor> keyOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, keyOf.apply(items.get(limit - 1)).encode());
+    }
+
+    public CursorPage<T> withTotalCount(long totalCount) {
+        return new CursorPage<>(items, nextCursor, totalCount);
+    }
+
+    public ResponseEntity<List<T>> toResponseEntity() {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (nextCursor != null) {
+            builder.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        if (totalCount != null) {
+            builder.header(TOTAL_COUNT_HEADER, String.valueOf(totalCount));
+        }
+        return builder.body(items);
+    }
+}
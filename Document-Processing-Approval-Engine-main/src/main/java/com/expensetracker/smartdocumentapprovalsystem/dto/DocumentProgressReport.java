@@ -0,0 +1,17 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DocumentProgressReport {
+    private long checked;
+    private long mismatched;            // progress columns that disagreed with the workflow steps
+    private long repaired;              // a document that changed while being repaired is left for the next run
+    private List<Long> mismatchedIds;   // the first few, for looking into
+}
@@ -21,4 +21,34 @@ public class DocumentResponseDTO {
     private int progressPercentage; // Progress based on completed workflows
     private int completedWorkflows; // Number of completed workflows
     private int totalWorkflows; // Total number of workflows (usually 3)
+    private Integer currentStage;
+    private Integer currentReviewerId; // Null once the document is approved or rejected
+
+    // Used by the JPQL constructor expressions in DocumentRepository, which read progress off the document row
+    public DocumentResponseDTO(Long id, String title, Status status, LocalDateTime createdAt,
+                               LocalDateTime reviewedAt, String comment, String uploadPath,
+                               String uploadedBy, Integer completedWorkflows, Integer totalWorkflows,
+                               Integer currentStage, Integer currentReviewerId) {
+        this.id = id;
+        this.title = title;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.reviewedAt = reviewedAt;
+        this.comment = comment;
+        this.uploadPath = uploadPath;
+        this.uploadedBy = uploadedBy != null ? uploadedBy : "Unknown";
+        // Null until the row has been backfilled
+        this.completedWorkflows = completedWorkflows != null ? completedWorkflows : 0;
+        this.totalWorkflows = totalWorkflows != null ? totalWorkflows : 0;
+        this.currentStage = currentStage;
+        this.currentReviewerId = currentReviewerId;
+        this.progressPercentage = progressOf(status, this.completedWorkflows, this.totalWorkflows);
+    }
+
+    private static int progressOf(Status status, int completed, int total) {
+        if (status == Status.APPROVED || status == Status.REJECTED) {
+            return 100;
+        }
+        return total > 0 ? (completed * 100) / total : 0;
+    }
 }
@@ -0,0 +1,18 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmailDeadLetter {
+    private String recipient;
+    private String subject;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime failedAt;
+}
@@ -0,0 +1,18 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmailDispatchStats {
+    private int queueDepth;        // emails waiting for a worker
+    private int inFlight;          // emails being sent right now
+    private int awaitingRetry;     // failed attempts scheduled for another try
+    private int deadLetters;       // emails that gave up, kept for inspection
+    private long sent;
+    private long retries;
+    private long rejected;         // turned away because the queue was full
+}
@@ -0,0 +1,44 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.zip.GZIPOutputStream;
+
+// Row format of the /export endpoints
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),   // one JSON object per line, shaped like the list endpoints
+    CSV("text/csv", "csv");                     // header line, then one RFC 4180 record per row
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Download of {@code name.<extension>}, written while the rows are read.
+     * With gzip the file itself is compressed ({@code .gz}, application/gzip),
+     * so it stays compressed once saved.
+     */
+    public ResponseEntity<StreamingResponseBody> toResponseEntity(String name, boolean gzip, StreamingResponseBody rows) {
+        String fileName = name + "." + extension + (gzip ? ".gz" : "");
+        StreamingResponseBody body = rows;
+        if (gzip) {
+            body = out -> {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                rows.writeTo(compressed);
+                compressed.finish();
+            };
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : contentType + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
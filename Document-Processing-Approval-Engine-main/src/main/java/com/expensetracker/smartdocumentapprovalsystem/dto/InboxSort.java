@@ -0,0 +1,7 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+// Order of a reviewer's inbox
+public enum InboxSort {
+    AGE,       // oldest first: steps are created with their document, so in step id order
+    PRIORITY   // earliest SLA deadline first, overdue steps on top; steps without a deadline last
+}
@@ -0,0 +1,18 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Durations in milliseconds; percentiles are accurate to within 1/8 of their value
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LatencySummary {
+    private long count;
+    private long meanMs;
+    private long p50Ms;
+    private long p90Ms;
+    private long p99Ms;
+    private long maxMs;
+}
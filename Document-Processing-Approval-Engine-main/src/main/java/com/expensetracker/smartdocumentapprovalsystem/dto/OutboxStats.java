@@ -0,0 +1,19 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxStats {
+    private long pending;                  // outbox rows not yet delivered to every subscriber
+    private long deadLetters;              // gave up after outbox.relay.max-attempts, kept in the table
+    private long delivered;
+    private long failedDeliveries;         // attempts where a subscriber threw; the event is retried
+    private long maxLagMs;                 // longest time from commit to delivery so far
+    private Map<WorkflowEventType, Long> deliveredByType;
+}
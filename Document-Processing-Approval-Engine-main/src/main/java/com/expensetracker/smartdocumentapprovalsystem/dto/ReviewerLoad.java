@@ -0,0 +1,17 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReviewerLoad {
+    private int reviewerId;
+    private String name;
+    private String email;
+    private Role role;
+    private int openSteps;   // assigned steps not yet approved, rejected or skipped
+}
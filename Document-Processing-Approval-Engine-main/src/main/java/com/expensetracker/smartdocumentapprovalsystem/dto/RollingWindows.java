@@ -0,0 +1,15 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One statistic over the last hour, 24 hours and 7 days
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollingWindows<T> {
+    private T lastHour;
+    private T lastDay;
+    private T lastWeek;
+}
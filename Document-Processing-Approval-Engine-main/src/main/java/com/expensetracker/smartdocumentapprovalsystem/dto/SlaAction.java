@@ -0,0 +1,8 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+// What happens when an open workflow step passes its deadline
+public enum SlaAction {
+    REMIND,     // email the reviewer
+    ESCALATE,   // email the users of workflow.sla.escalation-role
+    REASSIGN    // hand the step to another reviewer of the same role
+}
@@ -0,0 +1,7 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+// How many reviewers of a workflow stage must approve before it completes
+public enum StageMode {
+    ALL,
+    ANY
+}
@@ -1,8 +1,20 @@
 package com.expensetracker.smartdocumentapprovalsystem.dto;
 
+import java.util.List;
+
 public enum Status {
     PENDING,
     UNDER_REVIEW,
     APPROVED,
-    REJECTED
+    REJECTED,
+    // Workflow steps only; appended because WorkFlow stores the ordinal
+    WAITING,   // belongs to a later stage that has not started
+    SKIPPED;   // no longer needed: another reviewer settled the stage, or the document was rejected
+
+    // Step statuses that still expect the reviewer to act
+    public static final List<Status> OPEN_STEP_STATUSES = List.of(PENDING, UNDER_REVIEW, WAITING);
+
+    public boolean isOpenStep() {
+        return this == PENDING || this == UNDER_REVIEW || this == WAITING;
+    }
 }
@@ -0,0 +1,19 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserDirectoryStats {
+    private long emailEntries;
+    private long emailHits;
+    private long emailMisses;
+    private long emailEvictions;   // dropped for size or TTL, not invalidations
+    private long roleEntries;
+    private long roleHits;
+    private long roleMisses;
+    private long roleEvictions;
+}
@@ -0,0 +1,50 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON shape of a workflow definition. Stages run one after another; within a
+ * stage each listed role gets one reviewer, and the stage completes when all
+ * of them approve (ALL) or the first one does (ANY). A stage with a condition
+ * is only part of a document's workflow when the condition holds.
+ *
+ * <pre>
+ * {"name": "default", "stages": [
+ *   {"name": "Officer review", "roles": ["OFFICER"]},
+ *   {"name": "Management", "mode": "ANY", "roles": ["MANAGER", "ADMIN"],
+ *    "condition": {"attribute": "extension", "operator": "EQUALS", "value": "pdf"}}
+ * ]}
+ * </pre>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WorkflowDefinitionSpec {
+    private String name;
+    private List<StageSpec> stages = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class StageSpec {
+        private String name;
+        private StageMode mode = StageMode.ALL;
+        private List<Role> roles = new ArrayList<>();
+        private ConditionSpec condition;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ConditionSpec {
+        private String attribute;   // title, extension or uploaderRole
+        private String operator;    // EQUALS, NOT_EQUALS, CONTAINS or ENDS_WITH, case-insensitive
+        private String value;
+    }
+}
@@ -0,0 +1,48 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Something that happened to a document, as stored in the outbox and handed
+ * to every {@link com.expensetracker.smartdocumentapprovalsystem.utils.WorkflowEventSubscriber}.
+ * Carries plain values only, so subscribers never touch the persistence context.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WorkflowEvent {
+    private WorkflowEventType type;
+    private Long documentId;
+    private String documentTitle;
+    private String uploaderEmail;
+    private String uploaderName;
+    private String actorEmail;      // reviewer who acted, or the uploader
+    private String actorName;
+    private String actorRole;       // role of the reviewer who acted
+    private String comment;
+    private Status status;          // final status of DOCUMENT_COMPLETED
+    private List<String> recipients = new ArrayList<>();
+    private LocalDateTime occurredAt;
+    private LocalDateTime uploadedAt;
+
+    public static WorkflowEvent of(WorkflowEventType type, Document document) {
+        WorkflowEvent event = new WorkflowEvent();
+        event.setType(type);
+        event.setDocumentId(document.getId());
+        event.setDocumentTitle(document.getTitle());
+        if (document.getUploadedBy() != null) {
+            event.setUploaderEmail(document.getUploadedBy().getEmail());
+            event.setUploaderName(document.getUploadedBy().getName());
+        }
+        event.setOccurredAt(LocalDateTime.now());
+        event.setUploadedAt(document.getCreatedAt());
+        return event;
+    }
+}
@@ -0,0 +1,14 @@
+package com.expensetracker.smartdocumentapprovalsystem.dto;
+
+public enum WorkflowEventType {
+    DOCUMENT_UPLOADED,
+    STAGE_OPENED,        // reviewers of a stage may act now; recipients lists them
+    STEP_UNDER_REVIEW,
+    STEP_APPROVED,
+    STEP_REJECTED,
+    DOCUMENT_COMPLETED,  // final status reached; status says which
+    // SLA actions on a step past its deadline; actor is the step's reviewer at the time
+    SLA_REMINDER,        // recipients is the reviewer
+    SLA_ESCALATED,       // recipients are the users of the escalation role
+    STEP_REASSIGNED      // recipients is the new reviewer
+}
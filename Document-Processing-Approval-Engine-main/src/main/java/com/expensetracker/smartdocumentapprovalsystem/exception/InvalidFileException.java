@@ -0,0 +1,11 @@
+package com.expensetracker.smartdocumentapprovalsystem.exception;
+
+public class InvalidFileException extends RuntimeException {
+    public InvalidFileException(String message) {
+        super(message);
+    }
+
+    public InvalidFileException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
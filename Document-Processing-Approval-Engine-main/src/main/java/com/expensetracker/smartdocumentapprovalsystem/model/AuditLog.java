@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+        // Keyset pagination order for the audit log list
+        @Index(name = "idx_audit_logs_timestamp_id", columnList = "timestamp, id")
+})
 public class AuditLog {
 
     @Id
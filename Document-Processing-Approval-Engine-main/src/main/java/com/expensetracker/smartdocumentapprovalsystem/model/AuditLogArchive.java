@@ -0,0 +1,47 @@
+package com.expensetracker.smartdocumentapprovalsystem.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One chunk of audit log entries moved out of audit_logs by the compaction
+ * job, kept as gzip-compressed NDJSON (one AuditLog per line, oldest first).
+ * It is written in the transaction that deletes the entries, so every entry
+ * is in exactly one of the two places.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "audit_log_archives", indexes = {
+        @Index(name = "idx_audit_log_archives_last_timestamp", columnList = "last_timestamp")
+})
+public class AuditLogArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "first_timestamp", nullable = false)
+    private LocalDateTime firstTimestamp;
+
+    @Column(name = "last_timestamp", nullable = false)
+    private LocalDateTime lastTimestamp;
+
+    @Column(name = "entry_count", nullable = false)
+    private int entryCount;
+
+    // Whether the entries were also counted into audit_log_rollups
+    @Column(name = "rolled_up", nullable = false)
+    private boolean rolledUp;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Column(nullable = false, length = 64 * 1024 * 1024)
+    private byte[] data;
+}
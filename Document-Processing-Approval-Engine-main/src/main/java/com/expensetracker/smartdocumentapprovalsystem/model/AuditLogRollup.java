@@ -0,0 +1,70 @@
+package com.expensetracker.smartdocumentapprovalsystem.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * All audit log entries of one action by one user on one day, folded into a
+ * count by the compaction job once they are older than
+ * {@code audit.retention.rollup-after}. The raw entries go to the archive.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "audit_log_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_audit_log_rollups_day_action_user", columnNames = {"rollup_day", "action", "user_email"})
+}, indexes = {
+        // Same read paths as audit_logs, on the time of the last entry rolled in
+        @Index(name = "idx_audit_log_rollups_last_timestamp_id", columnList = "last_timestamp, id"),
+        @Index(name = "idx_audit_log_rollups_user_email_last_timestamp", columnList = "user_email, last_timestamp")
+})
+public class AuditLogRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // "day" is a keyword in H2
+    @Column(name = "rollup_day", nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private String action;
+
+    @Column(name = "entity_type", nullable = false)
+    private String entityType;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(name = "user_name", nullable = false)
+    private String userName;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    @Column(name = "first_timestamp", nullable = false)
+    private LocalDateTime firstTimestamp;
+
+    @Column(name = "last_timestamp", nullable = false)
+    private LocalDateTime lastTimestamp;
+
+    /**
+     * The roll-up as an entry of the audit trail, for lists that mix the two.
+     * Its id is the negated roll-up id, so it can never be taken for a raw
+     * entry's and sorts after raw entries of the same instant.
+     */
+    public AuditLog toAuditLog() {
+        AuditLog log = new AuditLog(action, entityType, null, userEmail, userName,
+                eventCount + " x " + action + " on " + day + " (rolled up)");
+        log.setId(-id);
+        log.setTimestamp(lastTimestamp);
+        return log;
+    }
+}
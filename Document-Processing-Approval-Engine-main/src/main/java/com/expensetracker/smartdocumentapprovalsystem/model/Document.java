@@ -1,11 +1,13 @@
 package com.expensetracker.smartdocumentapprovalsystem.model;
 
 import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,7 +16,10 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+        // Keyset pagination order for the document list; the uploader's own list is indexed in db/migration
+        @Index(name = "idx_documents_created_at_id", columnList = "created_at, id")
+})
 public class Document {
 
     @Id
@@ -36,7 +41,9 @@ public class Document {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // Not loaded once the transaction is over; steps are served by /api/workflows/document/{id}
     @OneToMany(mappedBy = "document", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
     private List<WorkFlow> workFlow;
 
     @Enumerated(EnumType.STRING)
@@ -48,5 +55,41 @@ public class Document {
 
     private LocalDateTime reviewedAt;
 
+    // Workflow definition version the document started on; null for documents from before definitions
+    @Column(name = "workflow_definition_id")
+    private Long workflowDefinitionId;
+
+    @Column(name = "current_stage")
+    private Integer currentStage;
+
+    // Progress kept up to date by every workflow transition, so lists never count steps.
+    // Null on rows from before these columns existed, until DocumentProgressReconciler fills them in.
+    @Column(name = "completed_steps")
+    private Integer completedSteps;
+
+    @Column(name = "total_steps")
+    private Integer totalSteps;
+
+    // Reviewer of the first step still awaiting review; null once the document is settled
+    @Column(name = "current_reviewer_id")
+    private Integer currentReviewerId;
+
+    // Approvals received in the current stage
+    @Column(name = "stage_approvals")
+    @JsonIgnore
+    private Integer stageApprovals;
+
+    // Bit mask of the definition's stages that apply to this document
+    @Column(name = "stage_plan")
+    @JsonIgnore
+    private Long stagePlan;
+
+    // Bumped by every workflow transition, so reviewers acting at once cannot overwrite each other
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonIgnore
+    private long version;
+
 }
 
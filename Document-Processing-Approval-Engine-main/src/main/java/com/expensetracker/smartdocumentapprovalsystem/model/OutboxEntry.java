@@ -0,0 +1,47 @@
+package com.expensetracker.smartdocumentapprovalsystem.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Workflow events of one transaction, written in that transaction so they
+ * exist exactly when the state change does. The relay deletes the row once
+ * every subscriber has taken its events.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "outbox_entries", indexes = {
+        // Relay reads the oldest undelivered rows first
+        @Index(name = "idx_outbox_entries_attempts_id", columnList = "attempts, id")
+})
+public class OutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // JSON array of WorkflowEvent, in the order they happened; a batch action chunk holds hundreds
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Failed deliveries so far
+    @Column(nullable = false)
+    private int attempts;
+
+    // Subscribers that already took the events, comma separated, so a retry skips them
+    @Column(name = "delivered_to", columnDefinition = "text")
+    private String deliveredTo;
+
+    // Not relayed before this time: leased to a relay, or backing off after a failure; null when new
+    @Column(name = "available_at")
+    private LocalDateTime availableAt;
+}
@@ -0,0 +1,34 @@
+package com.expensetracker.smartdocumentapprovalsystem.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "stored_blobs")
+public class StoredBlob {
+
+    // Hex encoded SHA-256 of the file content
+    @Id
+    @Column(length = 64)
+    private String digest;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private long refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Null until first persisted, so save() always inserts instead of merging over a live ref count
+    @Version
+    private Long version;
+}
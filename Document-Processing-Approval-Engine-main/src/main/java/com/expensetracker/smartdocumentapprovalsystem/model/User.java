@@ -1,5 +1,6 @@
 package com.expensetracker.smartdocumentapprovalsystem.model;
 
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -12,7 +13,10 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "users")
+@EntityListeners(UserDirectoryListener.class)
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_role_id", columnList = "role, id")
+})
 public class User {
 
     @Id
@@ -3,6 +3,7 @@ package com.expensetracker.smartdocumentapprovalsystem.model;
 import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,6 +13,16 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+        // Per-document and per-stage step lookups, and the progress counts in the document list
+        @Index(name = "idx_work_flow_document_id_stage", columnList = "document_id, stage"),
+        // Rebuilding the SLA timers at startup and listing overdue steps
+        @Index(name = "idx_work_flow_status_due_at", columnList = "status, due_at"),
+        // Reviewer inbox in age order, and its total count without touching the table
+        @Index(name = "idx_work_flow_reviewer_status_id", columnList = "reviewer_id, status, id"),
+        // Reviewer inbox in deadline order
+        @Index(name = "idx_work_flow_reviewer_status_due_at", columnList = "reviewer_id, status, due_at, id")
+})
 public class WorkFlow {
 
     @Id
@@ -31,4 +42,19 @@ public class WorkFlow {
     private String comment;
     private LocalDateTime reviewedAt;
 
+    // Index of the stage in the document's workflow definition
+    private Integer stage;
+
+    // When the next SLA action is taken if the reviewer has not acted; null while the step is not open for review
+    private LocalDateTime dueAt;
+
+    // SLA actions already taken on this step for its current reviewer
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int escalations;
+
+    public WorkFlow(int id, Document document, User reviewer, Status status, String comment,
+                    LocalDateTime reviewedAt, Integer stage) {
+        this(id, document, reviewer, status, comment, reviewedAt, stage, null, 0);
+    }
 }
@@ -0,0 +1,44 @@
+package com.expensetracker.smartdocumentapprovalsystem.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One version of an approval workflow, stored as a JSON
+ * {@link com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowDefinitionSpec}.
+ * Rows are never edited: publishing a change adds the next version, and
+ * documents keep pointing at the version they started with.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "workflow_definitions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_workflow_definitions_name_version", columnNames = {"name", "version"})
+})
+public class WorkflowDefinition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private int version;
+
+    // New documents start on the active version of a name
+    @Column(nullable = false)
+    private boolean active;
+
+    @Column(nullable = false, length = 10000)
+    private String spec;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
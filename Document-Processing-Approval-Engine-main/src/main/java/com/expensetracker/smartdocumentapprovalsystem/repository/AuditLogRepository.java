@@ -1,11 +1,18 @@
 package com.expensetracker.smartdocumentapprovalsystem.repository;
 
 import com.expensetracker.smartdocumentapprovalsystem.model.AuditLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
@@ -17,4 +24,46 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     List<AuditLog> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end);
     
     List<AuditLog> findByActionOrderByTimestampDesc(String action);
+
+    // Filters of the list and export; null filters are ignored
+    String FILTER = "where (:action is null or a.action = :action) " +
+            "and (:userEmail is null or a.userEmail = :userEmail) " +
+            "and (:entityType is null or a.entityType = :entityType) " +
+            "and (:from is null or a.timestamp >= :from) " +
+            "and (:to is null or a.timestamp < :to) ";
+
+    // First keyset page on (timestamp, id), newest first
+    @Query("select a from AuditLog a " + FILTER + "order by a.timestamp desc, a.id desc")
+    List<AuditLog> findPage(@Param("action") String action,
+                            @Param("userEmail") String userEmail,
+                            @Param("entityType") String entityType,
+                            @Param("from") LocalDateTime from,
+                            @Param("to") LocalDateTime to,
+                            Limit limit);
+
+    // The page after a cursor, as a row-value comparison on the (timestamp, id) index
+    @Query("select a from AuditLog a " + FILTER +
+            "and (a.timestamp, a.id) < (:afterTimestamp, :afterId) " +
+            "order by a.timestamp desc, a.id desc")
+    List<AuditLog> findPageAfter(@Param("action") String action,
+                                 @Param("userEmail") String userEmail,
+                                 @Param("entityType") String entityType,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to,
+                                 @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                                 @Param("afterId") Long afterId,
+                                 Limit limit);
+
+    // Export, oldest first, read through a cursor; needs an open transaction. Callers detach each
+    // row once written, so the persistence context does not grow with the export.
+    @Query("select a from AuditLog a " + FILTER + "order by a.timestamp, a.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = DocumentRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<AuditLog> streamForExport(@Param("action") String action,
+                                     @Param("userEmail") String userEmail,
+                                     @Param("entityType") String entityType,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
 }
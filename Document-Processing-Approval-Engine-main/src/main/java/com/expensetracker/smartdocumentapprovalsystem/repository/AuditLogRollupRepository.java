@@ -0,0 +1,50 @@
+package com.expensetracker.smartdocumentapprovalsystem.repository;
+
+import com.expensetracker.smartdocumentapprovalsystem.model.AuditLogRollup;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AuditLogRollupRepository extends JpaRepository<AuditLogRollup, Long> {
+
+    List<AuditLogRollup> findByUserEmailOrderByLastTimestampDesc(String userEmail);
+
+    List<AuditLogRollup> findByLastTimestampBetweenOrderByLastTimestampDesc(LocalDateTime start, LocalDateTime end);
+
+    String FILTER = "where (:action is null or r.action = :action) " +
+            "and (:userEmail is null or r.userEmail = :userEmail) " +
+            "and (:entityType is null or r.entityType = :entityType) " +
+            "and (:from is null or r.lastTimestamp >= :from) " +
+            "and (:to is null or r.lastTimestamp < :to) ";
+
+    // First keyset page in the order of AuditLogRepository.findPage
+    @Query("select r from AuditLogRollup r " + FILTER + "order by r.lastTimestamp desc, r.id")
+    List<AuditLogRollup> findPage(@Param("action") String action,
+                                  @Param("userEmail") String userEmail,
+                                  @Param("entityType") String entityType,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to,
+                                  Limit limit);
+
+    // The page after a cursor. Roll-ups stand in as entries with negated ids, so "entry id below afterId" is
+    // "roll-up id above -afterId" and the roll-up ids ascend. The two keys sort in opposite directions, which
+    // a row-value comparison cannot express; the bare bound on lastTimestamp still enters the index there.
+    @Query("select r from AuditLogRollup r " + FILTER +
+            "and r.lastTimestamp <= :afterTimestamp " +
+            "and (r.lastTimestamp < :afterTimestamp or r.id > :afterRollupId) " +
+            "order by r.lastTimestamp desc, r.id")
+    List<AuditLogRollup> findPageAfter(@Param("action") String action,
+                                       @Param("userEmail") String userEmail,
+                                       @Param("entityType") String entityType,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                                       @Param("afterRollupId") Long afterRollupId,
+                                       Limit limit);
+}
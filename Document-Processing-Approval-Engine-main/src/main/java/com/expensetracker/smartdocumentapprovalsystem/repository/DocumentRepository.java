@@ -1,13 +1,77 @@
 package com.expensetracker.smartdocumentapprovalsystem.repository;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.DocumentResponseDTO;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
 import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface DocumentRepository extends JpaRepository<Document, Integer> {
-    List<Document> findByUploadedById(Long userId);
+    // Filters on the foreign key column itself, see WorkFlowRepository.findByDocumentId
+    @Query("select d from Document d where d.uploadedBy.id = :userId")
+    List<Document> findByUploadedById(@Param("userId") Long userId);
+
+    // With its uploader, for callers that use the document after the transaction
+    @Query("select d from Document d left join fetch d.uploadedBy where d.id = :id")
+    Optional<Document> findWithUploaderById(@Param("id") Integer id);
+
+    // List views: uploader name and workflow progress in a single statement. Progress is read
+    // off the document row, which the workflow transitions keep up to date.
+    String SUMMARY_SELECT = "select new com.expensetracker.smartdocumentapprovalsystem.dto.DocumentResponseDTO(" +
+            "d.id, d.title, d.status, d.createdAt, d.reviewedAt, d.comment, d.uploadPath, u.name, " +
+            "d.completedSteps, d.totalSteps, d.currentStage, d.currentReviewerId) " +
+            "from Document d left join d.uploadedBy u ";
+    String SUMMARY_ORDER = " order by d.createdAt desc, d.id desc";
+
+    @Query(SUMMARY_SELECT + "where u.id = :userId" + SUMMARY_ORDER)
+    List<DocumentResponseDTO> findSummariesByUploadedById(@Param("userId") Long userId);
+
+    // Filters of the list and export; null filters are ignored
+    String SUMMARY_FILTER = "where (:status is null or d.status = :status) " +
+            "and (:uploaderId is null or u.id = :uploaderId) " +
+            "and (:from is null or d.createdAt >= :from) " +
+            "and (:to is null or d.createdAt < :to) ";
+
+    // First keyset page on (createdAt, id), newest first
+    @Query(SUMMARY_SELECT + SUMMARY_FILTER + SUMMARY_ORDER)
+    List<DocumentResponseDTO> findSummaryPage(@Param("status") Status status,
+                                              @Param("uploaderId") Integer uploaderId,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              Limit limit);
+
+    // The page after a cursor. A row-value comparison, so the (created_at, id) index is entered at the cursor
+    @Query(SUMMARY_SELECT + SUMMARY_FILTER +
+            "and (d.createdAt, d.id) < (:afterCreatedAt, :afterId)" + SUMMARY_ORDER)
+    List<DocumentResponseDTO> findSummaryPageAfter(@Param("status") Status status,
+                                                   @Param("uploaderId") Integer uploaderId,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to,
+                                                   @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                   @Param("afterId") Long afterId,
+                                                   Limit limit);
+
+    // Rows per round trip of the export cursors
+    String EXPORT_FETCH_SIZE = "1000";
+
+    // Export, oldest first, read through a cursor; needs an open transaction. Rows are
+    // DTOs, so the persistence context does not grow with the export.
+    @Query(SUMMARY_SELECT + SUMMARY_FILTER + "order by d.createdAt, d.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<DocumentResponseDTO> streamSummariesForExport(@Param("status") Status status,
+                                                         @Param("uploaderId") Integer uploaderId,
+                                                         @Param("from") LocalDateTime from,
+                                                         @Param("to") LocalDateTime to);
 
     public interface DocumentService {
         Document uploadDocument(Document document);
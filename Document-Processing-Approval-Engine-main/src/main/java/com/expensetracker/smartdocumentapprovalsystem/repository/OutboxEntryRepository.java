@@ -0,0 +1,11 @@
+package com.expensetracker.smartdocumentapprovalsystem.repository;
+
+import com.expensetracker.smartdocumentapprovalsystem.model.OutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OutboxEntryRepository extends JpaRepository<OutboxEntry, Long> {
+
+    long countByAttemptsLessThan(int attempts);
+
+    long countByAttemptsGreaterThanEqual(int attempts);
+}
@@ -0,0 +1,29 @@
+package com.expensetracker.smartdocumentapprovalsystem.repository;
+
+import com.expensetracker.smartdocumentapprovalsystem.model.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update StoredBlob b set b.refCount = b.refCount + 1 where b.digest = :digest")
+    int incrementRefCount(@Param("digest") String digest);
+
+    @Transactional
+    @Modifying
+    @Query("update StoredBlob b set b.refCount = b.refCount - 1 where b.digest = :digest and b.refCount > 0")
+    int decrementRefCount(@Param("digest") String digest);
+
+    // Removes the row only if nobody re-referenced the blob in the meantime
+    @Transactional
+    @Modifying
+    @Query("delete from StoredBlob b where b.digest = :digest and b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("digest") String digest);
+}
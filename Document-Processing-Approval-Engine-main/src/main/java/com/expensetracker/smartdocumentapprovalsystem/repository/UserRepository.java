@@ -1,10 +1,15 @@
 package com.expensetracker.smartdocumentapprovalsystem.repository;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
 import com.expensetracker.smartdocumentapprovalsystem.model.Role;
 import com.expensetracker.smartdocumentapprovalsystem.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +18,18 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByName(String name);
     Optional<User> findFirstByRole(Role role);
     Optional<User> findById(Integer id);
+
+    @Query("select new com.expensetracker.smartdocumentapprovalsystem.dto.UserDto(u.id, u.name, u.email, u.role) " +
+            "from User u where u.email = :email")
+    Optional<UserDto> findDtoByEmail(@Param("email") String email);
+
+    // Users have no creation timestamp, so pages are keyed on id alone
+    String PAGE_SELECT = "select new com.expensetracker.smartdocumentapprovalsystem.dto.UserDto(u.id, u.name, u.email, u.role) " +
+            "from User u where (:role is null or u.role = :role) ";
+
+    @Query(PAGE_SELECT + "order by u.id")
+    List<UserDto> findPage(@Param("role") Role role, Limit limit);
+
+    @Query(PAGE_SELECT + "and u.id > :afterId order by u.id")
+    List<UserDto> findPageAfter(@Param("role") Role role, @Param("afterId") Integer afterId, Limit limit);
 }
@@ -1,17 +1,104 @@
 package com.expensetracker.smartdocumentapprovalsystem.repository;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.ApprovalWorkflowResponse;
 import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
 import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface WorkFlowRepository extends JpaRepository<WorkFlow, Integer> {
 
-    List<WorkFlow> findByReviewerIdAndStatus(Long reviewerId, Status status);
+    // Written out rather than derived: a derived query joins the referenced table and filters on its
+    // id, which keeps the database from using the index on the foreign key column
+    @Query("select w from WorkFlow w where w.reviewer.id = :reviewerId and w.status = :status")
+    List<WorkFlow> findByReviewerIdAndStatus(@Param("reviewerId") Long reviewerId, @Param("status") Status status);
 
-    List<WorkFlow> findByDocumentId(Long documentId);
+    @Query("select w from WorkFlow w where w.document.id = :documentId")
+    List<WorkFlow> findByDocumentId(@Param("documentId") Long documentId);
 
     Optional<WorkFlow> findById(Long workflowId);
+
+    // The steps of one document with the document, its uploader and the reviewers, for use after the transaction
+    @Query("select w from WorkFlow w join fetch w.document d left join fetch d.uploadedBy left join fetch w.reviewer " +
+            "where d.id = :documentId")
+    List<WorkFlow> findStepsByDocumentId(@Param("documentId") Long documentId);
+
+    // Every step of the document the given step belongs to, with the document, its uploader and the reviewers
+    @Query("select w from WorkFlow w join fetch w.document d left join fetch d.uploadedBy left join fetch w.reviewer " +
+            "where d.id = (select s.document.id from WorkFlow s where s.id = :workflowId)")
+    List<WorkFlow> findDocumentStepsByStepId(@Param("workflowId") int workflowId);
+
+    // Same for many steps at once: every step of every document touched by the given steps. Joined from the
+    // given steps rather than filtered by a subquery, so the plan starts from their ids; distinct since two of
+    // them may share a document.
+    @Query("select distinct w from WorkFlow s join WorkFlow w on w.document.id = s.document.id " +
+            "join fetch w.document d left join fetch d.uploadedBy left join fetch w.reviewer " +
+            "where s.id in :workflowIds")
+    List<WorkFlow> findDocumentStepsByStepIds(@Param("workflowIds") Collection<Integer> workflowIds);
+
+    // Steps in the given statuses whose deadline is before the given time, longest overdue first
+    @Query("select w from WorkFlow w join fetch w.document d left join fetch d.uploadedBy left join fetch w.reviewer " +
+            "where w.status in :statuses and w.dueAt < :time order by w.dueAt")
+    List<WorkFlow> findDueBefore(@Param("statuses") Collection<Status> statuses, @Param("time") LocalDateTime time);
+
+    // Rows of (reviewer id, step count), one per reviewer with steps in the given statuses. Run without
+    // flushing: called in the middle of a transition, it must neither see nor write that transition's changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("select w.reviewer.id, count(w) from WorkFlow w where w.status in :statuses group by w.reviewer.id")
+    List<Object[]> countByReviewerInStatus(@Param("statuses") Collection<Status> statuses);
+
+    // Reviewer inbox: each step projected with its document, uploader and reviewer in one row, so a
+    // page is a single statement however long the queue. Keyset pages on the sort key, then id.
+    String INBOX_SELECT = "select new com.expensetracker.smartdocumentapprovalsystem.dto.ApprovalWorkflowResponse(" +
+            "w.id, d.id, d.title, d.uploadPath, d.createdAt, u.name, r.name, r.email, " +
+            "w.status, w.comment, w.reviewedAt, w.stage, w.dueAt) " +
+            "from WorkFlow w join w.document d left join d.uploadedBy u join w.reviewer r " +
+            "where r.id = :reviewerId and w.status in :statuses ";
+
+    @Query(INBOX_SELECT + "order by w.id")
+    List<ApprovalWorkflowResponse> findInboxByAge(@Param("reviewerId") int reviewerId,
+                                                  @Param("statuses") Collection<Status> statuses,
+                                                  Limit limit);
+
+    @Query(INBOX_SELECT + "and w.id > :afterId order by w.id")
+    List<ApprovalWorkflowResponse> findInboxByAgeAfter(@Param("reviewerId") int reviewerId,
+                                                       @Param("statuses") Collection<Status> statuses,
+                                                       @Param("afterId") Integer afterId,
+                                                       Limit limit);
+
+    String PRIORITY_ORDER = "order by w.dueAt asc nulls last, w.id";
+
+    @Query(INBOX_SELECT + PRIORITY_ORDER)
+    List<ApprovalWorkflowResponse> findInboxByPriority(@Param("reviewerId") int reviewerId,
+                                                       @Param("statuses") Collection<Status> statuses,
+                                                       Limit limit);
+
+    // After a cursor on a step with a deadline: the later deadlines, then the steps without one
+    @Query(INBOX_SELECT + "and ((w.dueAt, w.id) > (:afterDueAt, :afterId) or w.dueAt is null) " + PRIORITY_ORDER)
+    List<ApprovalWorkflowResponse> findInboxByPriorityAfter(@Param("reviewerId") int reviewerId,
+                                                            @Param("statuses") Collection<Status> statuses,
+                                                            @Param("afterDueAt") LocalDateTime afterDueAt,
+                                                            @Param("afterId") Integer afterId,
+                                                            Limit limit);
+
+    // After a cursor into the trailing steps without a deadline
+    @Query(INBOX_SELECT + "and w.dueAt is null and w.id > :afterId " + PRIORITY_ORDER)
+    List<ApprovalWorkflowResponse> findInboxByPriorityAfterUndated(@Param("reviewerId") int reviewerId,
+                                                                   @Param("statuses") Collection<Status> statuses,
+                                                                   @Param("afterId") Integer afterId,
+                                                                   Limit limit);
+
+    // Answered from idx_work_flow_reviewer_status_id alone
+    @Query("select count(w) from WorkFlow w where w.reviewer.id = :reviewerId and w.status in :statuses")
+    long countInbox(@Param("reviewerId") int reviewerId, @Param("statuses") Collection<Status> statuses);
 }
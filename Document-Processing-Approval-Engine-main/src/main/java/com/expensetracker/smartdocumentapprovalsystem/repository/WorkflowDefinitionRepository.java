@@ -0,0 +1,18 @@
+package com.expensetracker.smartdocumentapprovalsystem.repository;
+
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkflowDefinition;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface WorkflowDefinitionRepository extends JpaRepository<WorkflowDefinition, Long> {
+
+    Optional<WorkflowDefinition> findByNameAndActiveTrue(String name);
+
+    Optional<WorkflowDefinition> findByNameAndVersion(String name, int version);
+
+    Optional<WorkflowDefinition> findTopByNameOrderByVersionDesc(String name);
+
+    List<WorkflowDefinition> findAllByOrderByNameAscVersionDesc();
+}
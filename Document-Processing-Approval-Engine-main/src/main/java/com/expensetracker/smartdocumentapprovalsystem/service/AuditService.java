@@ -1,7 +1,11 @@
 package com.expensetracker.smartdocumentapprovalsystem.service;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
+import com.expensetracker.smartdocumentapprovalsystem.dto.ExportFormat;
 import com.expensetracker.smartdocumentapprovalsystem.model.AuditLog;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -16,6 +20,9 @@ public interface AuditService {
     void logUserLogin(String userEmail, String userName);
     
     void logUserRegistration(String userEmail, String userName);
+
+    // Runs the log calls and returns once their entries are stored; throws if they could not be
+    void logSynchronously(Runnable logging);
     
     List<AuditLog> getAuditLogsByUser(String userEmail);
     
@@ -24,4 +31,10 @@ public interface AuditService {
     List<AuditLog> getAuditLogsByDateRange(LocalDateTime start, LocalDateTime end);
     
     List<AuditLog> getAllAuditLogs();
+
+    CursorPage<AuditLog> getAuditLogPage(String action, String userEmail, String entityType,
+                                         LocalDateTime from, LocalDateTime to, String cursor, Integer limit);
+
+    void exportAuditLogs(String action, String userEmail, String entityType, LocalDateTime from, LocalDateTime to,
+                         ExportFormat format, OutputStream out) throws IOException;
 }
@@ -1,19 +1,31 @@
 package com.expensetracker.smartdocumentapprovalsystem.service;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
+import com.expensetracker.smartdocumentapprovalsystem.dto.DocumentResponseDTO;
+import com.expensetracker.smartdocumentapprovalsystem.dto.ExportFormat;
 import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
 import com.expensetracker.smartdocumentapprovalsystem.model.Document;
 import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface DocumentService {
     Document createDocument(MultipartFile file, String title, int uploaderId);
     Document createDocument(Document document, int uploaderId);
+    Document createDocumentFromStoredFile(String uploadPath, String title, int uploaderId);
     List<Document> getDocumentsByUser(Long userId);
+    List<DocumentResponseDTO> getDocumentSummariesByUser(Long userId);
     List<WorkFlow> getPendingWorkflowsForReviewer(Long reviewerId);
     void reviewDocument(Long workflowId, Status status, String comment);
     List<Document> getAllDocuments();
+    CursorPage<DocumentResponseDTO> getDocumentSummaryPage(Status status, Integer uploaderId, LocalDateTime from,
+                                                          LocalDateTime to, String cursor, Integer limit);
+    void exportDocuments(Status status, Integer uploaderId, LocalDateTime from, LocalDateTime to,
+                         ExportFormat format, OutputStream out) throws IOException;
     Document getDocumentById(Long documentId);
     void deleteDocument(Long documentId);
 }
@@ -2,8 +2,14 @@ package com.expensetracker.smartdocumentapprovalsystem.service;
 
 import com.expensetracker.smartdocumentapprovalsystem.dto.EmailDetailsDto;
 
+import java.util.List;
+
 public interface EmailService {
     void sendEmail(EmailDetailsDto emailDetails);
     void sendDocumentUploadNotification(String reviewerEmail, String documentTitle, String uploaderName);
     void sendDocumentApprovalNotification(String uploaderEmail, String documentTitle, String status);
+    void sendReviewReminder(String reviewerEmail, String documentTitle);
+    void sendEscalationNotification(String recipientEmail, String documentTitle, String reviewerName);
+    // One email listing several document updates for the same person
+    void sendDigestNotification(String recipientEmail, List<String> updates);
 }
@@ -0,0 +1,17 @@
+package com.expensetracker.smartdocumentapprovalsystem.service;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.ReviewerLoad;
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+
+import java.util.List;
+import java.util.Set;
+
+public interface ReviewerAssignmentService {
+    // Picks a reviewer holding the role, other than the excluded ids, and counts the new step against them
+    UserDto assign(Role role, Document document, Set<Integer> excludedReviewerIds);
+    // A step of this reviewer was approved, rejected, skipped or deleted
+    void stepClosed(int reviewerId);
+    List<ReviewerLoad> getReviewerLoads();
+}
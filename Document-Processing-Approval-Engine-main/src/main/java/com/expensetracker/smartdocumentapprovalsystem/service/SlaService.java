@@ -0,0 +1,16 @@
+package com.expensetracker.smartdocumentapprovalsystem.service;
+
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+
+import java.util.List;
+
+public interface SlaService {
+    // Gives a step that just opened for review its deadline; the timer starts once the transaction commits
+    void stepOpened(WorkFlow step);
+    // Clears the deadline of a step that no longer expects its reviewer
+    void stepClosed(WorkFlow step);
+    // Takes the next configured SLA action on a step whose deadline passed
+    void deadlinePassed(int workflowId);
+    // Open steps past their deadline, longest overdue first
+    List<WorkFlow> getOverdueSteps();
+}
@@ -1,9 +1,13 @@
 package com.expensetracker.smartdocumentapprovalsystem.service;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
 import com.expensetracker.smartdocumentapprovalsystem.dto.RegisterRequest;
 import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
 import com.expensetracker.smartdocumentapprovalsystem.model.User;
 
+import java.security.Principal;
+
 public interface UserService {
 
     UserDto register(RegisterRequest registerRequest);
@@ -11,4 +15,9 @@ public interface UserService {
     UserDto getUserByEmail(String email);
 
     User getUserEntityByEmail(String email);
+
+    // The authenticated user, taken from the JWT principal when available
+    UserDto resolveUser(Principal principal);
+
+    CursorPage<UserDto> getUserPage(Role role, String cursor, Integer limit);
 }
@@ -1,14 +1,28 @@
 package com.expensetracker.smartdocumentapprovalsystem.service;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.ApprovalWorkflowResponse;
+import com.expensetracker.smartdocumentapprovalsystem.dto.BatchActionResult;
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
+import com.expensetracker.smartdocumentapprovalsystem.dto.InboxSort;
 import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowDefinitionSpec;
 import com.expensetracker.smartdocumentapprovalsystem.model.Document;
 import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkflowDefinition;
 
 import java.util.List;
 
 public interface WorkFlowService {
-    void createDefaultWorkflow(Document document);
+    // Creates the steps of the active workflow definition; returns the reviewers of the first stage
+    List<UserDto> startWorkflow(Document document);
     List<WorkFlow> getWorkflowByDocumentId(Long documentId);
     WorkFlow updateWorkflowStatus(Long workflowId, Status status, String comment);
+    // Applies one action to many steps; a step that cannot take it is reported, not fatal
+    List<BatchActionResult> updateWorkflowStatuses(int reviewerId, List<Long> workflowIds, Status status, String comment);
+    // Steps awaiting the reviewer, one keyset page at a time, with the total across all pages
+    CursorPage<ApprovalWorkflowResponse> getInbox(int reviewerId, InboxSort sort, String cursor, Integer limit);
+    List<WorkflowDefinition> getWorkflowDefinitions();
+    WorkflowDefinition publishWorkflowDefinition(WorkflowDefinitionSpec spec);
 
 }
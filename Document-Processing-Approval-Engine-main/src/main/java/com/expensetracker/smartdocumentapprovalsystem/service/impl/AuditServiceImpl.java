@@ -1,25 +1,80 @@
 package com.expensetracker.smartdocumentapprovalsystem.service.impl;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
+import com.expensetracker.smartdocumentapprovalsystem.dto.ExportFormat;
 import com.expensetracker.smartdocumentapprovalsystem.model.AuditLog;
+import com.expensetracker.smartdocumentapprovalsystem.model.AuditLogRollup;
 import com.expensetracker.smartdocumentapprovalsystem.repository.AuditLogRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.AuditLogRollupRepository;
 import com.expensetracker.smartdocumentapprovalsystem.service.AuditService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.AuditLogBatchWriter;
+import com.expensetracker.smartdocumentapprovalsystem.utils.AuditMetrics;
+import com.expensetracker.smartdocumentapprovalsystem.utils.PageCursor;
+import com.expensetracker.smartdocumentapprovalsystem.utils.RowExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * Audit trail in the audit_logs table. Entries the compaction job has rolled
+ * up into per-day counts (see AuditLogCompactor) come back from the queries
+ * as one entry per roll-up, merged in by timestamp.
+ */
 @Service
+@ConditionalOnProperty(name = "audit.store", havingValue = "DATABASE", matchIfMissing = true)
 public class AuditServiceImpl implements AuditService {
 
+    static final List<RowExportWriter.Column<AuditLog>> EXPORT_COLUMNS = List.of(
+            new RowExportWriter.Column<>("id", AuditLog::getId),
+            new RowExportWriter.Column<>("timestamp", AuditLog::getTimestamp),
+            new RowExportWriter.Column<>("action", AuditLog::getAction),
+            new RowExportWriter.Column<>("entityType", AuditLog::getEntityType),
+            new RowExportWriter.Column<>("entityId", AuditLog::getEntityId),
+            new RowExportWriter.Column<>("userEmail", AuditLog::getUserEmail),
+            new RowExportWriter.Column<>("userName", AuditLog::getUserName),
+            new RowExportWriter.Column<>("details", AuditLog::getDetails));
+
+    // Newest first; a raw entry before a roll-up of the same instant, as in the keyset queries
+    private static final Comparator<AuditLog> NEWEST_FIRST = Comparator.comparing(AuditLog::getTimestamp)
+            .thenComparing(AuditLog::getId).reversed();
+
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private AuditLogRollupRepository auditLogRollupRepository;
+
+    @Autowired
+    private AuditLogBatchWriter auditLogBatchWriter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuditMetrics auditMetrics;
+
     @Override
     public void logAction(String action, String entityType, Long entityId, String userEmail, String userName, String details) {
         try {
-            AuditLog auditLog = new AuditLog(action, entityType, entityId, userEmail, userName, details);
-            auditLogRepository.save(auditLog);
+            // Only an enqueue on the caller's thread; rows are inserted in batches in the background
+            auditLogBatchWriter.enqueue(new AuditLog(action, entityType, entityId, userEmail, userName, details));
+            auditMetrics.actionLogged(action);
         } catch (Exception e) {
             // Log error but don't fail the main operation
             System.err.println("Failed to save audit log: " + e.getMessage());
@@ -50,22 +105,80 @@ public class AuditServiceImpl implements AuditService {
     }
 
     @Override
+    public void logSynchronously(Runnable logging) {
+        auditLogBatchWriter.writeThrough(logging);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<AuditLog> getAuditLogsByUser(String userEmail) {
-        return auditLogRepository.findByUserEmailOrderByTimestampDesc(userEmail);
+        return merge(auditLogRepository.findByUserEmailOrderByTimestampDesc(userEmail),
+                auditLogRollupRepository.findByUserEmailOrderByLastTimestampDesc(userEmail), Integer.MAX_VALUE);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AuditLog> getAuditLogsByEntity(String entityType, Long entityId) {
         return auditLogRepository.findByEntityTypeAndEntityIdOrderByTimestampDesc(entityType, entityId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AuditLog> getAuditLogsByDateRange(LocalDateTime start, LocalDateTime end) {
-        return auditLogRepository.findByTimestampBetweenOrderByTimestampDesc(start, end);
+        return merge(auditLogRepository.findByTimestampBetweenOrderByTimestampDesc(start, end),
+                auditLogRollupRepository.findByLastTimestampBetweenOrderByLastTimestampDesc(start, end), Integer.MAX_VALUE);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AuditLog> getAllAuditLogs() {
-        return auditLogRepository.findAll();
+        List<AuditLog> logs = new ArrayList<>(auditLogRepository.findAll());
+        auditLogRollupRepository.findAll().forEach(rollup -> logs.add(rollup.toAuditLog()));
+        return logs;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<AuditLog> getAuditLogPage(String action, String userEmail, String entityType,
+                                                LocalDateTime from, LocalDateTime to, String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPage.clampLimit(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<AuditLog> rows = after.timestamp() == null
+                ? merge(auditLogRepository.findPage(action, userEmail, entityType, from, to, fetch),
+                        auditLogRollupRepository.findPage(action, userEmail, entityType, from, to, fetch),
+                        pageSize + 1)
+                : merge(auditLogRepository.findPageAfter(action, userEmail, entityType, from, to,
+                                after.timestamp(), after.id(), fetch),
+                        auditLogRollupRepository.findPageAfter(action, userEmail, entityType, from, to,
+                                after.timestamp(), -after.id(), fetch),
+                        pageSize + 1);
+        return CursorPage.of(rows, pageSize, log -> new PageCursor(log.getTimestamp(), log.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAuditLogs(String action, String userEmail, String entityType, LocalDateTime from,
+                                LocalDateTime to, ExportFormat format, OutputStream out) throws IOException {
+        RowExportWriter<AuditLog> writer = new RowExportWriter<>(format, out, objectMapper, EXPORT_COLUMNS);
+        try (Stream<AuditLog> logs = auditLogRepository.streamForExport(action, userEmail, entityType, from, to)) {
+            for (Iterator<AuditLog> it = logs.iterator(); it.hasNext(); ) {
+                AuditLog log = it.next();
+                writer.write(log);
+                entityManager.detach(log);
+            }
+        }
+        writer.finish();
+    }
+
+    // Both lists newest first; keeps the first limit entries of the two together
+    private static List<AuditLog> merge(List<AuditLog> logs, List<AuditLogRollup> rollups, int limit) {
+        if (rollups.isEmpty()) {
+            return logs;
+        }
+        List<AuditLog> merged = new ArrayList<>(logs);
+        rollups.forEach(rollup -> merged.add(rollup.toAuditLog()));
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
     }
 }
@@ -10,6 +10,7 @@ import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
 import com.expensetracker.smartdocumentapprovalsystem.service.AuditService;
 import com.expensetracker.smartdocumentapprovalsystem.service.AuthService;
 import com.expensetracker.smartdocumentapprovalsystem.service.UserService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryCache;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -35,11 +36,13 @@ public class AuthServiceImpl implements AuthService {
     private ModelMapper modelMapper;
     @Autowired
     private AuditService auditService;
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
 
     @Override
     public AuthResponse register(RegisterRequest registerRequest) {
         UserDto user = userService.register(registerRequest);
-        String token = jwtService.generateToken(user.getEmail());
+        String token = jwtService.generateToken(user);
 
         // Log audit trail
         auditService.logUserRegistration(user.getEmail(), user.getName());
@@ -56,10 +59,10 @@ public class AuthServiceImpl implements AuthService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        String token = jwtService.generateToken(user.getEmail());
-
         UserDto userDto = modelMapper.map(user, UserDto.class);
 
+        String token = jwtService.generateToken(userDto);
+
         // Log audit trail
         auditService.logUserLogin(user.getEmail(), user.getName());
 
@@ -71,8 +74,7 @@ public class AuthServiceImpl implements AuthService {
     public UserDto getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
+        return userDirectoryCache.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
-        return modelMapper.map(user, UserDto.class);
     }
 }
@@ -1,72 +1,105 @@
 package com.expensetracker.smartdocumentapprovalsystem.service.impl;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
+import com.expensetracker.smartdocumentapprovalsystem.dto.DocumentResponseDTO;
+import com.expensetracker.smartdocumentapprovalsystem.dto.ExportFormat;
 import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEvent;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEventType;
 import com.expensetracker.smartdocumentapprovalsystem.exception.DocumentNotFoundException;
 import com.expensetracker.smartdocumentapprovalsystem.model.Document;
-import com.expensetracker.smartdocumentapprovalsystem.model.Role;
 import com.expensetracker.smartdocumentapprovalsystem.model.User;
 import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
 import com.expensetracker.smartdocumentapprovalsystem.repository.DocumentRepository;
 import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
 import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
-import com.expensetracker.smartdocumentapprovalsystem.service.AuditService;
 import com.expensetracker.smartdocumentapprovalsystem.service.DocumentService;
-import com.expensetracker.smartdocumentapprovalsystem.service.EmailService;
+import com.expensetracker.smartdocumentapprovalsystem.service.ReviewerAssignmentService;
+import com.expensetracker.smartdocumentapprovalsystem.service.SlaService;
+import com.expensetracker.smartdocumentapprovalsystem.service.WorkFlowService;
 import com.expensetracker.smartdocumentapprovalsystem.utils.FileStorageUtil;
+import com.expensetracker.smartdocumentapprovalsystem.utils.PageCursor;
+import com.expensetracker.smartdocumentapprovalsystem.utils.ResourceVersionTracker;
+import com.expensetracker.smartdocumentapprovalsystem.utils.RowExportWriter;
+import com.expensetracker.smartdocumentapprovalsystem.utils.TransactionCallbacks;
+import com.expensetracker.smartdocumentapprovalsystem.utils.WorkflowEventOutbox;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class DocumentServiceImpl implements DocumentService {
 
+    private static final List<RowExportWriter.Column<DocumentResponseDTO>> EXPORT_COLUMNS = List.of(
+            new RowExportWriter.Column<>("id", DocumentResponseDTO::getId),
+            new RowExportWriter.Column<>("title", DocumentResponseDTO::getTitle),
+            new RowExportWriter.Column<>("status", DocumentResponseDTO::getStatus),
+            new RowExportWriter.Column<>("uploadedBy", DocumentResponseDTO::getUploadedBy),
+            new RowExportWriter.Column<>("createdAt", DocumentResponseDTO::getCreatedAt),
+            new RowExportWriter.Column<>("reviewedAt", DocumentResponseDTO::getReviewedAt),
+            new RowExportWriter.Column<>("comment", DocumentResponseDTO::getComment),
+            new RowExportWriter.Column<>("progressPercentage", DocumentResponseDTO::getProgressPercentage),
+            new RowExportWriter.Column<>("completedWorkflows", DocumentResponseDTO::getCompletedWorkflows),
+            new RowExportWriter.Column<>("totalWorkflows", DocumentResponseDTO::getTotalWorkflows),
+            new RowExportWriter.Column<>("currentStage", DocumentResponseDTO::getCurrentStage),
+            new RowExportWriter.Column<>("currentReviewerId", DocumentResponseDTO::getCurrentReviewerId));
+
     private final DocumentRepository documentRepository;
     private final UserRepository userRepository;
     private final WorkFlowRepository workFlowRepository;
     private final FileStorageUtil fileStorageUtil;
-    private final EmailService emailService;
-    private final AuditService auditService;
+    private final ResourceVersionTracker resourceVersionTracker;
+    private final WorkFlowService workFlowService;
+    private final ReviewerAssignmentService reviewerAssignmentService;
+    private final SlaService slaService;
+    private final WorkflowEventOutbox workflowEventOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
 
     @Override
     public Document createDocument(MultipartFile file, String title, int uploaderId) {
-        User uploader = userRepository.findById(uploaderId)
-                .orElseThrow(() -> new RuntimeException("Uploader not found"));
-
-        // Store the file and get the path
+        // Store the file and get its content digest
         String filePath = fileStorageUtil.storeFile(file);
+        return createDocumentFromStoredFile(filePath, title, uploaderId);
+    }
 
-        Document document = new Document();
-        document.setTitle(title);
-        document.setUploadPath(filePath);
-        document.setUploadedBy(uploader);
-        document.setCreatedAt(LocalDateTime.now());
-        document.setStatus(Status.PENDING);
-
-        Document savedDoc = documentRepository.save(document);
-        createDefaultWorkflow(savedDoc);
-
-        // Log audit trail
-        auditService.logDocumentUpload(savedDoc.getId(), uploader.getEmail(), uploader.getName(), title);
-
-        // Send email notification to the first reviewer (Officer)
-        User officer = userRepository.findFirstByRole(Role.OFFICER).orElse(null);
-        if (officer != null) {
-            emailService.sendDocumentUploadNotification(
-                officer.getEmail(),
-                savedDoc.getTitle(),
-                uploader.getName()
-            );
+    @Override
+    public Document createDocumentFromStoredFile(String uploadPath, String title, int uploaderId) {
+        try {
+            return transactionTemplate.execute(tx -> {
+                Document document = new Document();
+                document.setTitle(title);
+                document.setUploadPath(uploadPath);
+                return create(document, uploaderId);
+            });
+        } catch (RuntimeException e) {
+            // Give back the blob reference taken by the caller so the file does not leak
+            fileStorageUtil.releaseFile(uploadPath);
+            throw e;
         }
-
-        return savedDoc;
     }
 
     @Override
     public Document createDocument(Document document, int uploaderId) {
+        return transactionTemplate.execute(tx -> create(document, uploaderId));
+    }
+
+    // Saves the document and starts its workflow; the upload event commits with them
+    private Document create(Document document, int uploaderId) {
         User uploader = userRepository.findById(uploaderId)
                 .orElseThrow(() -> new RuntimeException("Uploader not found"));
 
@@ -75,62 +108,110 @@ public class DocumentServiceImpl implements DocumentService {
         document.setStatus(Status.PENDING);
         Document savedDoc = documentRepository.save(document);
 
-        createDefaultWorkflow(savedDoc);
+        WorkflowEvent uploaded = WorkflowEvent.of(WorkflowEventType.DOCUMENT_UPLOADED, savedDoc);
+        uploaded.setActorEmail(uploader.getEmail());
+        uploaded.setActorName(uploader.getName());
+        workflowEventOutbox.record(List.of(uploaded));
+
+        List<UserDto> reviewers = workFlowService.startWorkflow(savedDoc);
+        // Bumped after commit so a poll never pairs the new tag with old data
+        TransactionCallbacks.afterCommit(() -> listsChanged(uploader.getEmail(), emails(reviewers)));
         return savedDoc;
     }
 
-    private void createDefaultWorkflow(Document document) {
-        User officer = userRepository.findFirstByRole(Role.OFFICER)
-                .orElseThrow(() -> new RuntimeException("No OFFICER found"));
-        User manager = userRepository.findFirstByRole(Role.MANAGER)
-                .orElseThrow(() -> new RuntimeException("No MANAGER found"));
-        User admin = userRepository.findFirstByRole(Role.ADMIN)
-                .orElseThrow(() -> new RuntimeException("No ADMIN found"));
-
-        WorkFlow step1 = new WorkFlow(0, document, officer, Status.PENDING, null, null);
-        WorkFlow step2 = new WorkFlow(0, document, manager, Status.PENDING, null, null);
-        WorkFlow step3 = new WorkFlow(0, document, admin, Status.PENDING, null, null);
+    private static List<String> emails(List<UserDto> users) {
+        return users.stream().map(UserDto::getEmail).toList();
+    }
 
-        workFlowRepository.saveAll(List.of(step1, step2, step3));
+    // Invalidates the ETags of every list that shows this document
+    private void listsChanged(String uploaderEmail, List<String> reviewerEmails) {
+        if (uploaderEmail != null) {
+            resourceVersionTracker.documentsChanged(uploaderEmail);
+        }
+        reviewerEmails.forEach(resourceVersionTracker::pendingWorkflowsChanged);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Document> getDocumentsByUser(Long userId) {
         return documentRepository.findByUploadedById(userId);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<DocumentResponseDTO> getDocumentSummariesByUser(Long userId) {
+        return documentRepository.findSummariesByUploadedById(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<WorkFlow> getPendingWorkflowsForReviewer(Long reviewerId) {
         return workFlowRepository.findByReviewerIdAndStatus(reviewerId, Status.PENDING);
     }
 
     @Override
     public void reviewDocument(Long workflowId, Status status, String comment) {
-        WorkFlow wf = workFlowRepository.findById(workflowId)
-                .orElseThrow(() -> new RuntimeException("Workflow not found"));
-
-        wf.setStatus(status);
-        wf.setComment(comment);
-        wf.setReviewedAt(LocalDateTime.now());
-
-        workFlowRepository.save(wf);
+        workFlowService.updateWorkflowStatus(workflowId, status, comment);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Document> getAllDocuments() {
         return documentRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<DocumentResponseDTO> getDocumentSummaryPage(Status status, Integer uploaderId, LocalDateTime from,
+                                                                 LocalDateTime to, String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPage.clampLimit(limit);
+        List<DocumentResponseDTO> rows = after.timestamp() == null
+                ? documentRepository.findSummaryPage(status, uploaderId, from, to, Limit.of(pageSize + 1))
+                : documentRepository.findSummaryPageAfter(status, uploaderId, from, to,
+                        after.timestamp(), after.id(), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, row -> new PageCursor(row.getCreatedAt(), row.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportDocuments(Status status, Integer uploaderId, LocalDateTime from, LocalDateTime to,
+                                ExportFormat format, OutputStream out) throws IOException {
+        RowExportWriter<DocumentResponseDTO> writer = new RowExportWriter<>(format, out, objectMapper, EXPORT_COLUMNS);
+        try (Stream<DocumentResponseDTO> rows = documentRepository.streamSummariesForExport(status, uploaderId, from, to)) {
+            for (Iterator<DocumentResponseDTO> it = rows.iterator(); it.hasNext(); ) {
+                writer.write(it.next());
+            }
+        }
+        writer.finish();
+    }
+
     @Override
     public Document getDocumentById(Long documentId) {
-        return documentRepository.findById(Math.toIntExact(documentId))
+        return documentRepository.findWithUploaderById(Math.toIntExact(documentId))
                 .orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + documentId));
     }
 
     @Override
     public void deleteDocument(Long documentId) {
         Document document = getDocumentById(documentId);
-        // TODO: Add file deletion logic here if needed
+        List<WorkFlow> steps = workFlowRepository.findStepsByDocumentId(documentId);
         documentRepository.delete(document);
+        for (WorkFlow step : steps) {
+            if (step.getStatus().isOpenStep()) {
+                slaService.stepClosed(step);
+                if (step.getReviewer() != null) {
+                    reviewerAssignmentService.stepClosed(step.getReviewer().getId());
+                }
+            }
+        }
+        listsChanged(document.getUploadedBy() != null ? document.getUploadedBy().getEmail() : null,
+                steps.stream()
+                        .map(WorkFlow::getReviewer)
+                        .filter(Objects::nonNull)
+                        .map(User::getEmail)
+                        .toList());
+        // Shared blobs are only removed from disk when the last reference goes away
+        fileStorageUtil.releaseFile(document.getUploadPath());
     }
 }
@@ -2,35 +2,22 @@ package com.expensetracker.smartdocumentapprovalsystem.service.impl;
 
 import com.expensetracker.smartdocumentapprovalsystem.dto.EmailDetailsDto;
 import com.expensetracker.smartdocumentapprovalsystem.service.EmailService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.EmailDispatchQueue;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class EmailServiceImpl implements EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
-
-    @Value("${spring.mail.username:noreply@documentapproval.com}")
-    private String fromEmail;
+    private EmailDispatchQueue emailDispatchQueue;
 
+    // Queues the email; sending, retries and dead-lettering happen on the dispatch workers
     @Override
     public void sendEmail(EmailDetailsDto emailDetails) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(emailDetails.getRecipient());
-            message.setSubject(emailDetails.getSubject());
-            message.setText(emailDetails.getBody());
-
-            mailSender.send(message);
-        } catch (Exception e) {
-            // Log error but don't fail the main operation
-            System.err.println("Failed to send email: " + e.getMessage());
-        }
+        emailDispatchQueue.enqueue(emailDetails);
     }
 
     @Override
@@ -64,4 +51,53 @@ public class EmailServiceImpl implements EmailService {
 
         sendEmail(emailDetails);
     }
+
+    @Override
+    public void sendReviewReminder(String reviewerEmail, String documentTitle) {
+        EmailDetailsDto emailDetails = new EmailDetailsDto();
+        emailDetails.setRecipient(reviewerEmail);
+        emailDetails.setSubject("Reminder: Review Overdue for " + documentTitle);
+        emailDetails.setBody(
+            "Dear Reviewer,\n\n" +
+            "The document titled '" + documentTitle + "' is past its review deadline and still awaits your decision.\n\n" +
+            "Please log in to the Document Approval System to review this document.\n\n" +
+            "Best regards,\n" +
+            "Document Approval System"
+        );
+
+        sendEmail(emailDetails);
+    }
+
+    @Override
+    public void sendEscalationNotification(String recipientEmail, String documentTitle, String reviewerName) {
+        EmailDetailsDto emailDetails = new EmailDetailsDto();
+        emailDetails.setRecipient(recipientEmail);
+        emailDetails.setSubject("Escalation: Review Overdue for " + documentTitle);
+        emailDetails.setBody(
+            "Dear User,\n\n" +
+            "The review of the document titled '" + documentTitle + "' by " + reviewerName + " is overdue.\n\n" +
+            "Please log in to the Document Approval System to follow up or reassign the review.\n\n" +
+            "Best regards,\n" +
+            "Document Approval System"
+        );
+
+        sendEmail(emailDetails);
+    }
+
+    @Override
+    public void sendDigestNotification(String recipientEmail, List<String> updates) {
+        EmailDetailsDto emailDetails = new EmailDetailsDto();
+        emailDetails.setRecipient(recipientEmail);
+        emailDetails.setSubject(updates.size() + " document updates");
+        StringBuilder body = new StringBuilder("Dear User,\n\n");
+        for (String update : updates) {
+            body.append("- ").append(update).append("\n");
+        }
+        body.append("\nPlease log in to the Document Approval System to view the details.\n\n")
+            .append("Best regards,\n")
+            .append("Document Approval System");
+        emailDetails.setBody(body.toString());
+
+        sendEmail(emailDetails);
+    }
 }
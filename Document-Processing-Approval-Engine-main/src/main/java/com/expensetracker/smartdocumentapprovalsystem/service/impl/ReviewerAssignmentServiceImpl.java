@@ -0,0 +1,212 @@
+package com.expensetracker.smartdocumentapprovalsystem.service.impl;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.AssignmentStrategy;
+import com.expensetracker.smartdocumentapprovalsystem.dto.ReviewerLoad;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.ReviewerAssignmentService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads workflow steps over every user holding a role. Each reviewer's
+ * open step count lives in memory: it is seeded from the workflow table on
+ * first use and then moved by assignments and closed steps. Rolled-back
+ * transactions undo their changes to the counts and to the round-robin and
+ * sticky state. Candidates come from the cached user
+ * directory, so an assignment runs no query.
+ */
+@Service
+public class ReviewerAssignmentServiceImpl implements ReviewerAssignmentService {
+
+    @Value("${workflow.assignment.strategy:LEAST_LOADED}")
+    private AssignmentStrategy strategy;
+
+    // email:weight pairs, comma separated; reviewers not listed weigh 1
+    @Value("${workflow.assignment.weights:}")
+    private String weightsProperty;
+
+    @Value("${workflow.assignment.sticky-max-size:10000}")
+    private long stickyMaxSize;
+
+    @Autowired
+    private WorkFlowRepository workFlowRepository;
+
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
+
+    private final Map<Integer, AtomicInteger> openSteps = new ConcurrentHashMap<>();
+    private volatile boolean seeded;
+
+    private final Map<String, Integer> weights = new HashMap<>();
+    // Smooth weighted round-robin state: reviewer id to current weight
+    private final Map<Integer, Integer> currentWeights = new HashMap<>();
+    // "uploaderId:ROLE" to the reviewer who got that uploader's last document
+    private Cache<String, Integer> stickyReviewers;
+
+    @PostConstruct
+    public void init() {
+        for (String pair : weightsProperty.split(",")) {
+            int colon = pair.lastIndexOf(':');
+            if (colon > 0) {
+                weights.put(pair.substring(0, colon).trim(), Integer.parseInt(pair.substring(colon + 1).trim()));
+            }
+        }
+        stickyReviewers = Caffeine.newBuilder().maximumSize(stickyMaxSize).build();
+    }
+
+    @Override
+    public synchronized UserDto assign(Role role, Document document, Set<Integer> excludedReviewerIds) {
+        List<UserDto> candidates = userDirectoryCache.findByRole(role).stream()
+                .filter(reviewer -> !excludedReviewerIds.contains(reviewer.getId()))
+                .toList();
+        if (candidates.isEmpty()) {
+            throw new RuntimeException(excludedReviewerIds.isEmpty() ? "No " + role + " found"
+                    : "Not enough " + role + " reviewers");
+        }
+
+        UserDto reviewer = switch (strategy) {
+            case LEAST_LOADED -> leastLoaded(candidates);
+            case WEIGHTED_ROUND_ROBIN -> weightedRoundRobin(candidates);
+            case STICKY -> sticky(role, document, candidates);
+        };
+        adjust(reviewer.getId(), 1);
+        return reviewer;
+    }
+
+    @Override
+    public void stepClosed(int reviewerId) {
+        adjust(reviewerId, -1);
+    }
+
+    @Override
+    public List<ReviewerLoad> getReviewerLoads() {
+        List<ReviewerLoad> loads = new ArrayList<>();
+        for (Role role : List.of(Role.OFFICER, Role.MANAGER, Role.ADMIN)) {
+            for (UserDto reviewer : userDirectoryCache.findByRole(role)) {
+                loads.add(new ReviewerLoad(reviewer.getId(), reviewer.getName(), reviewer.getEmail(), role,
+                        load(reviewer.getId())));
+            }
+        }
+        return loads;
+    }
+
+    private UserDto leastLoaded(List<UserDto> candidates) {
+        // Candidates are sorted by id, and min keeps the first of equal loads
+        return candidates.stream()
+                .min(Comparator.comparingInt(reviewer -> load(reviewer.getId())))
+                .orElseThrow();
+    }
+
+    // Every pick adds each candidate's weight to its counter, takes the highest
+    // and charges it the total, so picks interleave in proportion to the weights
+    private UserDto weightedRoundRobin(List<UserDto> candidates) {
+        Map<Integer, Integer> added = new HashMap<>();
+        UserDto best = null;
+        int bestWeight = Integer.MIN_VALUE;
+        int total = 0;
+        for (UserDto candidate : candidates) {
+            int weight = weights.getOrDefault(candidate.getEmail(), 1);
+            int current = currentWeights.merge(candidate.getId(), weight, Integer::sum);
+            added.put(candidate.getId(), weight);
+            total += weight;
+            if (current > bestWeight) {
+                best = candidate;
+                bestWeight = current;
+            }
+        }
+        currentWeights.merge(best.getId(), -total, Integer::sum);
+        added.merge(best.getId(), -total, Integer::sum);
+        onRollback(() -> {
+            synchronized (this) {
+                // A weight back at 0 is the same as none
+                added.forEach((id, delta) -> currentWeights.merge(id, -delta,
+                        (current, undo) -> current + undo == 0 ? null : current + undo));
+            }
+        });
+        return best;
+    }
+
+    private UserDto sticky(Role role, Document document, List<UserDto> candidates) {
+        if (document.getUploadedBy() == null) {
+            return leastLoaded(candidates);
+        }
+        String key = document.getUploadedBy().getId() + ":" + role;
+        Integer previous = stickyReviewers.getIfPresent(key);
+        // The previous reviewer may have lost the role or be taken by another step of the stage
+        UserDto reviewer = candidates.stream()
+                .filter(candidate -> previous != null && candidate.getId() == previous)
+                .findFirst()
+                .orElseGet(() -> leastLoaded(candidates));
+        stickyReviewers.put(key, reviewer.getId());
+        // Unless a later assignment has replaced it since
+        onRollback(() -> {
+            if (previous == null) {
+                stickyReviewers.asMap().remove(key, reviewer.getId());
+            } else {
+                stickyReviewers.asMap().replace(key, reviewer.getId(), previous);
+            }
+        });
+        return reviewer;
+    }
+
+    private int load(int reviewerId) {
+        seed();
+        AtomicInteger count = openSteps.get(reviewerId);
+        return count != null ? count.get() : 0;
+    }
+
+    private void adjust(int reviewerId, int delta) {
+        seed();
+        openSteps.computeIfAbsent(reviewerId, id -> new AtomicInteger()).addAndGet(delta);
+        onRollback(() -> openSteps.get(reviewerId).addAndGet(-delta));
+    }
+
+    private void onRollback(Runnable undo) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        undo.run();
+                    }
+                }
+            });
+        }
+    }
+
+    private void seed() {
+        if (seeded) {
+            return;
+        }
+        synchronized (openSteps) {
+            if (seeded) {
+                return;
+            }
+            for (Object[] row : workFlowRepository.countByReviewerInStatus(Status.OPEN_STEP_STATUSES)) {
+                openSteps.computeIfAbsent((Integer) row[0], id -> new AtomicInteger())
+                        .addAndGet(((Long) row[1]).intValue());
+            }
+            seeded = true;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.expensetracker.smartdocumentapprovalsystem.service.impl;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
+import com.expensetracker.smartdocumentapprovalsystem.dto.ExportFormat;
+import com.expensetracker.smartdocumentapprovalsystem.model.AuditLog;
+import com.expensetracker.smartdocumentapprovalsystem.service.AuditService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.AuditSegmentStore;
+import com.expensetracker.smartdocumentapprovalsystem.utils.AuditMetrics;
+import com.expensetracker.smartdocumentapprovalsystem.utils.PageCursor;
+import com.expensetracker.smartdocumentapprovalsystem.utils.RowExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Audit trail kept in the hash-chained segment files of {@link AuditSegmentStore}
+ * instead of the audit_logs table ({@code audit.store=SEGMENTS}). Entries are
+ * appended on the caller's thread, which is a copy into mapped memory, and get
+ * the store's sequence number as their id.
+ */
+@Service
+@ConditionalOnProperty(name = "audit.store", havingValue = "SEGMENTS")
+public class SegmentAuditServiceImpl implements AuditService {
+
+    @Autowired
+    private AuditSegmentStore auditSegmentStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuditMetrics auditMetrics;
+
+    @Override
+    public void logAction(String action, String entityType, Long entityId, String userEmail, String userName, String details) {
+        try {
+            auditSegmentStore.append(new AuditLog(action, entityType, entityId, userEmail, userName, details));
+            auditMetrics.actionLogged(action);
+        } catch (Exception e) {
+            // Log error but don't fail the main operation
+            System.err.println("Failed to save audit log: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void logDocumentUpload(Long documentId, String userEmail, String userName, String documentTitle) {
+        String details = "Document uploaded: " + documentTitle;
+        logAction("DOCUMENT_UPLOAD", "Document", documentId, userEmail, userName, details);
+    }
+
+    @Override
+    public void logDocumentReview(Long documentId, String userEmail, String userName, String status, String comment) {
+        String details = "Document reviewed with status: " + status +
+                        (comment != null && !comment.isEmpty() ? ". Comment: " + comment : "");
+        logAction("DOCUMENT_REVIEW", "Document", documentId, userEmail, userName, details);
+    }
+
+    @Override
+    public void logUserLogin(String userEmail, String userName) {
+        logAction("USER_LOGIN", "User", null, userEmail, userName, "User logged in");
+    }
+
+    @Override
+    public void logUserRegistration(String userEmail, String userName) {
+        logAction("USER_REGISTRATION", "User", null, userEmail, userName, "User registered");
+    }
+
+    // Appends already happen on the caller's thread
+    @Override
+    public void logSynchronously(Runnable logging) {
+        logging.run();
+    }
+
+    @Override
+    public List<AuditLog> getAuditLogsByUser(String userEmail) {
+        return auditSegmentStore.find(new AuditSegmentStore.Filter(null, userEmail, null, null, null, null, null),
+                Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<AuditLog> getAuditLogsByEntity(String entityType, Long entityId) {
+        return auditSegmentStore.find(new AuditSegmentStore.Filter(null, null, entityType, entityId, null, null, null),
+                Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<AuditLog> getAuditLogsByDateRange(LocalDateTime start, LocalDateTime end) {
+        // Both ends inclusive, as with the table's between
+        return auditSegmentStore.find(new AuditSegmentStore.Filter(null, null, null, null, start, end.plusNanos(1), null),
+                Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<AuditLog> getAllAuditLogs() {
+        List<AuditLog> logs = new ArrayList<>();
+        try {
+            auditSegmentStore.scan(AuditSegmentStore.Filter.all(), false, logs::add);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return logs;
+    }
+
+    @Override
+    public CursorPage<AuditLog> getAuditLogPage(String action, String userEmail, String entityType,
+                                                LocalDateTime from, LocalDateTime to, String cursor, Integer limit) {
+        // Ids follow timestamps in the store, so the id alone carries the keyset position
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPage.clampLimit(limit);
+        List<AuditLog> rows = auditSegmentStore.find(
+                new AuditSegmentStore.Filter(action, userEmail, entityType, null, from, to, after.id()), pageSize + 1);
+        return CursorPage.of(rows, pageSize, log -> new PageCursor(log.getTimestamp(), log.getId()));
+    }
+
+    @Override
+    public void exportAuditLogs(String action, String userEmail, String entityType, LocalDateTime from,
+                                LocalDateTime to, ExportFormat format, OutputStream out) throws IOException {
+        RowExportWriter<AuditLog> writer = new RowExportWriter<>(format, out, objectMapper, AuditServiceImpl.EXPORT_COLUMNS);
+        auditSegmentStore.scan(new AuditSegmentStore.Filter(action, userEmail, entityType, null, from, to, null), false,
+                log -> {
+                    writer.write(log);
+                    return true;
+                });
+        writer.finish();
+    }
+}
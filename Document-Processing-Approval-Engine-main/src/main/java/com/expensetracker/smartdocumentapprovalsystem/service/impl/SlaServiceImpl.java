@@ -0,0 +1,206 @@
+package com.expensetracker.smartdocumentapprovalsystem.service.impl;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.SlaAction;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEvent;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEventType;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import com.expensetracker.smartdocumentapprovalsystem.model.User;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.ReviewerAssignmentService;
+import com.expensetracker.smartdocumentapprovalsystem.service.SlaService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.DocumentProgress;
+import com.expensetracker.smartdocumentapprovalsystem.utils.ResourceVersionTracker;
+import com.expensetracker.smartdocumentapprovalsystem.utils.SlaTimer;
+import com.expensetracker.smartdocumentapprovalsystem.utils.TransactionCallbacks;
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryCache;
+import com.expensetracker.smartdocumentapprovalsystem.utils.WorkflowEventOutbox;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Deadlines of workflow steps. A step that opens for review is due
+ * {@code workflow.sla.due-after} later; each time it passes its deadline the
+ * next of {@code workflow.sla.actions} is taken and the step is due again
+ * {@code workflow.sla.repeat-after} later, until the actions run out. A
+ * reassigned step starts over with its new reviewer. The timers themselves
+ * live in {@link SlaTimer}.
+ */
+@Service
+public class SlaServiceImpl implements SlaService {
+
+    @Value("${workflow.sla.due-after:24h}")
+    private Duration dueAfter;
+
+    @Value("${workflow.sla.repeat-after:8h}")
+    private Duration repeatAfter;
+
+    @Value("${workflow.sla.actions:REMIND,ESCALATE,REASSIGN}")
+    private List<SlaAction> actions;
+
+    @Value("${workflow.sla.escalation-role:ADMIN}")
+    private Role escalationRole;
+
+    @Autowired
+    private SlaTimer slaTimer;
+
+    @Autowired
+    private WorkFlowRepository workFlowRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewerAssignmentService reviewerAssignmentService;
+
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
+
+    @Autowired
+    private WorkflowEventOutbox workflowEventOutbox;
+
+    @Autowired
+    private ResourceVersionTracker resourceVersionTracker;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startTimers() {
+        slaTimer.start(this::deadlinePassed);
+    }
+
+    @Override
+    public void stepOpened(WorkFlow step) {
+        step.setDueAt(LocalDateTime.now().plus(dueAfter));
+        step.setEscalations(0);
+        // The id of a new step is only known once it has been inserted
+        TransactionCallbacks.afterCommit(() -> slaTimer.schedule(step.getId(), step.getDueAt()));
+    }
+
+    @Override
+    public void stepClosed(WorkFlow step) {
+        step.setDueAt(null);
+        TransactionCallbacks.afterCommit(() -> slaTimer.cancel(step.getId()));
+    }
+
+    @Override
+    public void deadlinePassed(int workflowId) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> takeAction(workflowId));
+        } catch (ConcurrencyFailureException ex) {
+            // A reviewer acted on the document at the same time; the step may well be closed now
+            slaTimer.schedule(workflowId, LocalDateTime.now().plus(SlaTimer.CONFLICT_RETRY));
+        } catch (RuntimeException ex) {
+            // Without a new timer the step would never be looked at again until a restart
+            System.err.println("SLA action failed for workflow step " + workflowId + ": " + ex.getMessage());
+            slaTimer.schedule(workflowId, LocalDateTime.now().plus(SlaTimer.CONFLICT_RETRY));
+        }
+    }
+
+    @Override
+    public List<WorkFlow> getOverdueSteps() {
+        return workFlowRepository.findDueBefore(List.of(Status.PENDING, Status.UNDER_REVIEW), LocalDateTime.now());
+    }
+
+    private void takeAction(int workflowId) {
+        List<WorkFlow> steps = workFlowRepository.findDocumentStepsByStepId(workflowId);
+        WorkFlow step = steps.stream()
+                .filter(candidate -> candidate.getId() == workflowId)
+                .findFirst()
+                .orElse(null);
+        // Closed or deleted since the timer was set
+        if (step == null || step.getDueAt() == null
+                || (step.getStatus() != Status.PENDING && step.getStatus() != Status.UNDER_REVIEW)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (step.getDueAt().isAfter(now)) {
+            TransactionCallbacks.afterCommit(() -> slaTimer.schedule(workflowId, step.getDueAt()));
+            return;
+        }
+        if (step.getEscalations() >= actions.size()) {
+            return;
+        }
+
+        // Moves the document version, so a reviewer action committing meanwhile makes one of the two retry
+        entityManager.lock(step.getDocument(), LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        SlaAction action = actions.get(step.getEscalations());
+        User reviewer = step.getReviewer();
+        if (action == SlaAction.REASSIGN && reassign(step, steps)) {
+            return;
+        }
+        if (action == SlaAction.REMIND) {
+            record(step, reviewer, WorkflowEventType.SLA_REMINDER, List.of(reviewer.getEmail()));
+        } else {
+            // Also where a reassignment ends up when nobody else holds the role
+            record(step, reviewer, WorkflowEventType.SLA_ESCALATED, userDirectoryCache.findByRole(escalationRole)
+                    .stream()
+                    .map(UserDto::getEmail)
+                    .toList());
+        }
+
+        step.setEscalations(step.getEscalations() + 1);
+        if (step.getEscalations() < actions.size()) {
+            step.setDueAt(now.plus(repeatAfter));
+            TransactionCallbacks.afterCommit(() -> slaTimer.schedule(workflowId, step.getDueAt()));
+        }
+        // Otherwise the passed deadline stays, and the step stays listed as overdue
+        String reviewerEmail = reviewer.getEmail();
+        TransactionCallbacks.afterCommit(() -> resourceVersionTracker.pendingWorkflowsChanged(reviewerEmail));
+    }
+
+    // Hands the step to the least busy other holder of the reviewer's role; false when there is none
+    private boolean reassign(WorkFlow step, List<WorkFlow> steps) {
+        User previous = step.getReviewer();
+        // Nobody who already has a step on this document
+        Set<Integer> taken = steps.stream()
+                .map(WorkFlow::getReviewer)
+                .filter(Objects::nonNull)
+                .map(User::getId)
+                .collect(Collectors.toSet());
+        if (userDirectoryCache.findByRole(previous.getRole()).stream().allMatch(user -> taken.contains(user.getId()))) {
+            return false;
+        }
+        UserDto replacement = reviewerAssignmentService.assign(previous.getRole(), step.getDocument(), taken);
+        reviewerAssignmentService.stepClosed(previous.getId());
+
+        step.setReviewer(userRepository.getReferenceById(replacement.getId()));
+        step.getDocument().setCurrentReviewerId(DocumentProgress.currentReviewerId(steps));
+        stepOpened(step);
+        record(step, previous, WorkflowEventType.STEP_REASSIGNED, List.of(replacement.getEmail()));
+        TransactionCallbacks.afterCommit(() -> {
+            resourceVersionTracker.pendingWorkflowsChanged(previous.getEmail());
+            resourceVersionTracker.pendingWorkflowsChanged(replacement.getEmail());
+        });
+        return true;
+    }
+
+    private void record(WorkFlow step, User reviewer, WorkflowEventType type, List<String> recipients) {
+        WorkflowEvent event = WorkflowEvent.of(type, step.getDocument());
+        event.setActorEmail(reviewer.getEmail());
+        event.setActorName(reviewer.getName());
+        event.setRecipients(recipients);
+        workflowEventOutbox.record(List.of(event));
+    }
+}
@@ -1,15 +1,25 @@
 package com.expensetracker.smartdocumentapprovalsystem.service.impl;
 
+import com.expensetracker.smartdocumentapprovalsystem.config.UserPrincipal;
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
 import com.expensetracker.smartdocumentapprovalsystem.dto.RegisterRequest;
 import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
 import com.expensetracker.smartdocumentapprovalsystem.model.Role;
 import com.expensetracker.smartdocumentapprovalsystem.model.User;
 import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
 import com.expensetracker.smartdocumentapprovalsystem.service.UserService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.PageCursor;
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryCache;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.Principal;
+import java.util.List;
 
 @Service
 public class UserServiceimpl implements UserService {
@@ -20,6 +30,8 @@ public class UserServiceimpl implements UserService {
     private ModelMapper modelMapper;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
 
     @Override
     public UserDto register(RegisterRequest registerRequest) {
@@ -38,13 +50,34 @@ public class UserServiceimpl implements UserService {
 
     @Override
     public UserDto getUserByEmail(String email) {
-        User user = userRepository.findByEmail(email)
+        return userDirectoryCache.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
-        return modelMapper.map(user, UserDto.class);
     }
 
     public User getUserEntityByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
     }
+
+    @Override
+    public UserDto resolveUser(Principal principal) {
+        // JwtFilter already built the user from token claims; no need to query again
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.toUserDto();
+        }
+        return getUserByEmail(principal.getName());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> getUserPage(Role role, String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPage.clampLimit(limit);
+        Integer afterId = after.id() != null ? Math.toIntExact(after.id()) : null;
+        List<UserDto> rows = afterId == null
+                ? userRepository.findPage(role, Limit.of(pageSize + 1))
+                : userRepository.findPageAfter(role, afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, user -> new PageCursor(null, (long) user.getId()));
+    }
 }
@@ -1,25 +1,64 @@
 package com.expensetracker.smartdocumentapprovalsystem.service.impl;
 
+import com.expensetracker.smartdocumentapprovalsystem.dto.ApprovalWorkflowResponse;
+import com.expensetracker.smartdocumentapprovalsystem.dto.BatchActionResult;
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
+import com.expensetracker.smartdocumentapprovalsystem.dto.InboxSort;
 import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.dto.StageMode;
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowDefinitionSpec;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEvent;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEventType;
 import com.expensetracker.smartdocumentapprovalsystem.model.Document;
 import com.expensetracker.smartdocumentapprovalsystem.model.Role;
-import com.expensetracker.smartdocumentapprovalsystem.model.User;
 import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkflowDefinition;
 import com.expensetracker.smartdocumentapprovalsystem.repository.DocumentRepository;
 import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
 import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
-import com.expensetracker.smartdocumentapprovalsystem.service.AuditService;
-import com.expensetracker.smartdocumentapprovalsystem.service.EmailService;
+import com.expensetracker.smartdocumentapprovalsystem.service.ReviewerAssignmentService;
+import com.expensetracker.smartdocumentapprovalsystem.service.SlaService;
 import com.expensetracker.smartdocumentapprovalsystem.service.WorkFlowService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.CompiledWorkflow;
+import com.expensetracker.smartdocumentapprovalsystem.utils.DocumentProgress;
+import com.expensetracker.smartdocumentapprovalsystem.utils.PageCursor;
+import com.expensetracker.smartdocumentapprovalsystem.utils.ResourceVersionTracker;
+import com.expensetracker.smartdocumentapprovalsystem.utils.TransactionCallbacks;
+import com.expensetracker.smartdocumentapprovalsystem.utils.WorkflowDefinitionRegistry;
+import com.expensetracker.smartdocumentapprovalsystem.utils.WorkflowEventOutbox;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class WorkFlowServiceImpl implements WorkFlowService {
 
+    private static final Map<Status, WorkflowEventType> STEP_EVENTS = Map.of(
+            Status.UNDER_REVIEW, WorkflowEventType.STEP_UNDER_REVIEW,
+            Status.APPROVED, WorkflowEventType.STEP_APPROVED,
+            Status.REJECTED, WorkflowEventType.STEP_REJECTED);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -30,144 +69,428 @@ public class WorkFlowServiceImpl implements WorkFlowService {
     private DocumentRepository documentRepository;
 
     @Autowired
-    private EmailService emailService;
+    private WorkflowEventOutbox workflowEventOutbox;
+
+    @Autowired
+    private ResourceVersionTracker resourceVersionTracker;
+
+    @Autowired
+    private ReviewerAssignmentService reviewerAssignmentService;
+
+    @Autowired
+    private WorkflowDefinitionRegistry workflowDefinitionRegistry;
+
+    @Autowired
+    private SlaService slaService;
 
     @Autowired
-    private AuditService auditService;
+    private TransactionTemplate transactionTemplate;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${workflow.transition.max-attempts:5}")
+    private int maxAttempts;
 
-    public void createDefaultWorkflow(Document document) {
-        User officer = userRepository.findFirstByRole(Role.OFFICER)
-                .orElseThrow(() -> new RuntimeException("No OFFICER found"));
-        User manager = userRepository.findFirstByRole(Role.MANAGER)
-                .orElseThrow(() -> new RuntimeException("No MANAGER found"));
-        User admin   = userRepository.findFirstByRole(Role.ADMIN)
-                .orElseThrow(() -> new RuntimeException("No ADMIN found"));
+    @Value("${workflow.transition.retry-backoff-ms:20}")
+    private long retryBackoffMs;
 
-        WorkFlow step1 = new WorkFlow(0, document, officer, Status.PENDING, null, null);
-        WorkFlow step2 = new WorkFlow(0, document, manager, Status.PENDING, null, null);
-        WorkFlow step3 = new WorkFlow(0, document, admin, Status.PENDING, null, null);
+    @Value("${workflow.batch.chunk-size:100}")
+    private int batchChunkSize;
 
-        workFlowRepository.saveAll(List.of(step1, step2, step3));
+    @Override
+    @Transactional
+    public List<UserDto> startWorkflow(Document document) {
+        CompiledWorkflow workflow = workflowDefinitionRegistry.active();
+        long plan = workflow.plan(document);
+        int first = CompiledWorkflow.firstStage(plan);
+
+        document.setWorkflowDefinitionId(workflow.getDefinitionId());
+        document.setStagePlan(plan);
+        document.setStageApprovals(0);
+        if (first < 0) {
+            // No stage applies to this document, so there is nobody to ask
+            document.setStatus(Status.APPROVED);
+            document.setReviewedAt(LocalDateTime.now());
+            DocumentProgress.recount(document, List.of());
+            documentRepository.save(document);
+            workflowEventOutbox.record(List.of(completed(document)));
+            return List.of();
+        }
+        document.setCurrentStage(first);
+
+        // Every stage gets its steps up front; only the first one is open for review
+        List<WorkFlow> steps = new ArrayList<>();
+        List<UserDto> firstStageReviewers = new ArrayList<>();
+        for (int stage = first; stage >= 0; stage = CompiledWorkflow.nextStage(plan, stage)) {
+            Status status = stage == first ? Status.PENDING : Status.WAITING;
+            for (UserDto reviewer : reviewersFor(workflow.stage(stage), document)) {
+                // Only a reference, so assigning the reviewer does not query the users table
+                WorkFlow step = new WorkFlow(0, document, userRepository.getReferenceById(reviewer.getId()),
+                        status, null, null, stage);
+                steps.add(step);
+                if (stage == first) {
+                    slaService.stepOpened(step);
+                    firstStageReviewers.add(reviewer);
+                }
+            }
+        }
+        workFlowRepository.saveAll(steps);
+        DocumentProgress.recount(document, steps);
+        documentRepository.save(document);
+        workflowEventOutbox.record(List.of(stageOpened(document,
+                firstStageReviewers.stream().map(UserDto::getEmail).toList())));
+        return firstStageReviewers;
     }
 
+    // One reviewer per role listed in the stage; a role listed twice gets two different people
+    private List<UserDto> reviewersFor(CompiledWorkflow.Stage stage, Document document) {
+        Set<Integer> taken = new HashSet<>();
+        List<UserDto> reviewers = new ArrayList<>();
+        for (Role role : stage.roles()) {
+            UserDto reviewer = reviewerAssignmentService.assign(role, document, taken);
+            taken.add(reviewer.getId());
+            reviewers.add(reviewer);
+        }
+        return reviewers;
+    }
 
     @Override
     public List<WorkFlow> getWorkflowByDocumentId(Long documentId) {
-        return workFlowRepository.findByDocumentId(documentId);
+        return workFlowRepository.findStepsByDocumentId(documentId);
     }
 
+    /**
+     * Applies a reviewer's action in one transaction: one statement loads the
+     * document with all of its steps, the transition runs in memory, and the
+     * changes are written back on commit under the document's version. When
+     * another transition of the same document commits first, the whole
+     * transition is retried from a fresh read. Notifications, audit entries
+     * and list tags only go out once the transition has committed.
+     */
     @Override
     public WorkFlow updateWorkflowStatus(Long workflowId, Status status, String comment) {
-        WorkFlow wf = workFlowRepository.findById(workflowId)
-                .orElseThrow(() -> new RuntimeException("Workflow not found"));
+        checkAction(status);
+        return retrying(() -> {
+            List<WorkFlow> steps = workFlowRepository.findDocumentStepsByStepId(Math.toIntExact(workflowId));
+            WorkFlow wf = steps.stream()
+                    .filter(step -> step.getId() == workflowId)
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Workflow not found"));
+            Changes changes = new Changes();
+            transition(wf, steps, status, comment, changes);
+            changes.publish();
+            return wf;
+        });
+    }
+
+    /**
+     * Same as {@link #updateWorkflowStatus} for many steps, all of which must
+     * be assigned to the given reviewer. They are taken in chunks of
+     * {@code workflow.batch.chunk-size}, each one transaction that loads all
+     * steps of the chunk's documents in one query and writes the changes back
+     * in JDBC batches. A step that is not the reviewer's or cannot take the
+     * action is reported in its result and leaves the rest of the chunk alone;
+     * a chunk that collides with another transition is retried as a whole.
+     * A chunk that still fails is rolled back and each of its steps reported
+     * as failed, while the chunks before it stay committed and the ones after
+     * it still run. All events of a chunk share one outbox entry, so
+     * notifications are coalesced per recipient.
+     */
+    @Override
+    public List<BatchActionResult> updateWorkflowStatuses(int reviewerId, List<Long> workflowIds, Status status, String comment) {
+        checkAction(status);
+        List<BatchActionResult> results = new ArrayList<>(workflowIds.size());
+        for (int from = 0; from < workflowIds.size(); from += batchChunkSize) {
+            List<Long> chunk = workflowIds.subList(from, Math.min(from + batchChunkSize, workflowIds.size()));
+            try {
+                results.addAll(retrying(() -> transitionChunk(reviewerId, chunk, status, comment)));
+            } catch (RuntimeException ex) {
+                System.err.println("Batch workflow action failed for " + chunk.size() + " steps: " + ex.getMessage());
+                for (Long workflowId : chunk) {
+                    results.add(BatchActionResult.failed(workflowId, "Not applied: " + ex.getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<BatchActionResult> transitionChunk(int reviewerId, List<Long> workflowIds, Status status, String comment) {
+        List<WorkFlow> loaded = workFlowRepository.findDocumentStepsByStepIds(
+                workflowIds.stream().map(Math::toIntExact).collect(Collectors.toSet()));
+        Map<Integer, WorkFlow> byId = new HashMap<>();
+        Map<Long, List<WorkFlow>> stepsByDocument = new HashMap<>();
+        for (WorkFlow step : loaded) {
+            byId.put(step.getId(), step);
+            stepsByDocument.computeIfAbsent(step.getDocument().getId(), id -> new ArrayList<>()).add(step);
+        }
+
+        Changes changes = new Changes();
+        List<BatchActionResult> results = new ArrayList<>(workflowIds.size());
+        for (Long workflowId : workflowIds) {
+            WorkFlow wf = byId.get(Math.toIntExact(workflowId));
+            if (wf == null) {
+                results.add(BatchActionResult.failed(workflowId, "Workflow not found"));
+                continue;
+            }
+            if (wf.getReviewer() == null || wf.getReviewer().getId() != reviewerId) {
+                results.add(BatchActionResult.failed(workflowId, "Not your step"));
+                continue;
+            }
+            try {
+                transition(wf, stepsByDocument.get(wf.getDocument().getId()), status, comment, changes);
+                results.add(BatchActionResult.applied(workflowId));
+            } catch (IllegalStateException ex) {
+                results.add(BatchActionResult.failed(workflowId, ex.getMessage()));
+            }
+        }
+        changes.publish();
+        return results;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ApprovalWorkflowResponse> getInbox(int reviewerId, InboxSort sort, String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        Integer afterId = after.id() != null ? Math.toIntExact(after.id()) : null;
+        int pageSize = CursorPage.clampLimit(limit);
+        List<Status> statuses = DocumentProgress.REVIEWABLE_STEP_STATUSES;
+        Limit fetch = Limit.of(pageSize + 1);
+        CursorPage<ApprovalWorkflowResponse> page;
+        if (sort == InboxSort.PRIORITY) {
+            List<ApprovalWorkflowResponse> rows;
+            if (afterId == null) {
+                rows = workFlowRepository.findInboxByPriority(reviewerId, statuses, fetch);
+            } else if (after.timestamp() != null) {
+                rows = workFlowRepository.findInboxByPriorityAfter(reviewerId, statuses, after.timestamp(), afterId, fetch);
+            } else {
+                // A cursor with an id but no deadline points into the trailing steps without one
+                rows = workFlowRepository.findInboxByPriorityAfterUndated(reviewerId, statuses, afterId, fetch);
+            }
+            page = CursorPage.of(rows, pageSize, row -> new PageCursor(row.getDueAt(), row.getId()));
+        } else {
+            List<ApprovalWorkflowResponse> rows = afterId == null
+                    ? workFlowRepository.findInboxByAge(reviewerId, statuses, fetch)
+                    : workFlowRepository.findInboxByAgeAfter(reviewerId, statuses, afterId, fetch);
+            page = CursorPage.of(rows, pageSize, row -> new PageCursor(null, row.getId()));
+        }
+        return page.withTotalCount(workFlowRepository.countInbox(reviewerId, statuses));
+    }
+
+    private static void checkAction(Status status) {
+        if (status != Status.APPROVED && status != Status.REJECTED && status != Status.UNDER_REVIEW) {
+            throw new IllegalArgumentException("Unsupported workflow action: " + status);
+        }
+    }
+
+    // Runs the work in its own transaction, starting over when a concurrent transition committed first
+    private <T> T retrying(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Part of the caller's transaction, which a retry could not start over
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(tx -> work.get());
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    throw ex;
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    // Applies the action to one step, given every step of its document
+    private void transition(WorkFlow wf, List<WorkFlow> steps, Status status, String comment, Changes changes) {
+        Document document = wf.getDocument();
+        CompiledWorkflow workflow = workflowOf(document, steps);
+
+        if (wf.getStatus() != Status.PENDING && wf.getStatus() != Status.UNDER_REVIEW) {
+            throw new IllegalStateException("Workflow step is " + wf.getStatus() + ", not awaiting review");
+        }
+        if (document.getCompletedSteps() == null) {
+            // Not backfilled yet; counted once here and kept up to date from now on
+            DocumentProgress.recount(document, steps);
+        }
 
         wf.setStatus(status);
         wf.setComment(comment);
         wf.setReviewedAt(LocalDateTime.now());
-
-        WorkFlow savedWorkflow = workFlowRepository.save(wf);
-
-        // Log audit trail
-        Document document = savedWorkflow.getDocument();
-        if (document != null && savedWorkflow.getReviewer() != null) {
-            auditService.logDocumentReview(
-                document.getId(),
-                savedWorkflow.getReviewer().getEmail(),
-                savedWorkflow.getReviewer().getName(),
-                status.name(),
-                comment
-            );
+        if (!status.isOpenStep()) {
+            DocumentProgress.stepClosed(document);
+            slaService.stepClosed(wf);
+            if (wf.getReviewer() != null) {
+                reviewerAssignmentService.stepClosed(wf.getReviewer().getId());
+            }
         }
 
-        // Send email notification to document uploader about the status change
-        if (document != null && document.getUploadedBy() != null) {
-            emailService.sendDocumentApprovalNotification(
-                document.getUploadedBy().getEmail(),
-                document.getTitle(),
-                status.name()
-            );
+        if (document.getUploadedBy() != null) {
+            changes.uploaders.add(document.getUploadedBy().getEmail());
+        }
+        WorkflowEvent acted = WorkflowEvent.of(STEP_EVENTS.get(status), document);
+        if (wf.getReviewer() != null) {
+            acted.setActorEmail(wf.getReviewer().getEmail());
+            acted.setActorName(wf.getReviewer().getName());
+            acted.setActorRole(wf.getReviewer().getRole().name());
+            changes.reviewers.add(wf.getReviewer().getEmail());
         }
+        acted.setComment(comment);
+        changes.events.add(acted);
 
-        // If approved by current reviewer, notify next reviewer in the chain
         if (status == Status.APPROVED) {
-            notifyNextReviewer(document);
+            approveStep(document, workflow, wf, steps, changes.reviewers, changes.events);
         } else if (status == Status.REJECTED) {
-            // If rejected, immediately update document status to rejected
-            document.setStatus(Status.REJECTED);
-            document.setComment(comment); // Store rejection reason in document
-            document.setReviewedAt(LocalDateTime.now());
-            documentRepository.save(document);
+            rejectDocument(document, comment, steps, changes.reviewers);
+            changes.events.add(completed(document));
+        } else {
+            // Nothing else changes, but the document version must still move to order this against other actions
+            entityManager.lock(document, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
         }
+        document.setCurrentReviewerId(DocumentProgress.currentReviewerId(steps));
+    }
 
-        // Check if all workflows are complete and update document status
-        updateDocumentStatusIfComplete(document);
+    // What the transitions of one transaction leave to do once it commits
+    private class Changes {
+        final List<WorkflowEvent> events = new ArrayList<>();
+        final Set<String> reviewers = new LinkedHashSet<>();
+        final Set<String> uploaders = new LinkedHashSet<>();
 
-        return savedWorkflow;
+        void publish() {
+            if (events.isEmpty()) {
+                return;
+            }
+            // Audit entries and emails go out from the outbox once this commits
+            workflowEventOutbox.record(events);
+            // Bumped after commit so a poll never pairs the new tag with old data
+            TransactionCallbacks.afterCommit(() -> {
+                reviewers.forEach(resourceVersionTracker::pendingWorkflowsChanged);
+                uploaders.forEach(resourceVersionTracker::documentsChanged);
+            });
+        }
     }
 
-    private void notifyNextReviewer(Document document) {
-        // Find the next pending workflow for this document
-        List<WorkFlow> pendingWorkflows = workFlowRepository.findByDocumentId(document.getId())
-                .stream()
-                .filter(wf -> wf.getStatus() == Status.PENDING)
-                .toList();
+    // Counts the approval against the step's stage and moves to the next stage once it is settled
+    private void approveStep(Document document, CompiledWorkflow workflow, WorkFlow step, List<WorkFlow> steps,
+                             Set<String> changedReviewers, List<WorkflowEvent> events) {
+        CompiledWorkflow.Stage stage = workflow.stage(step.getStage());
+        int approvals = document.getStageApprovals() + 1;
+        if (!stage.completedBy(approvals)) {
+            document.setStageApprovals(approvals);
+            return;
+        }
+
+        if (stage.mode() == StageMode.ANY) {
+            // The other reviewers of an any-of stage no longer need to act
+            for (WorkFlow other : steps) {
+                if (other.getStage() == stage.index() && other.getStatus().isOpenStep()) {
+                    skip(other, changedReviewers);
+                }
+            }
+        }
 
-        if (!pendingWorkflows.isEmpty()) {
-            WorkFlow nextWorkflow = pendingWorkflows.get(0);
-            User nextReviewer = nextWorkflow.getReviewer();
+        int next = CompiledWorkflow.nextStage(document.getStagePlan(), stage.index());
+        if (next < 0) {
+            document.setStatus(Status.APPROVED);
+            document.setReviewedAt(LocalDateTime.now());
+            events.add(completed(document));
+            return;
+        }
 
-            emailService.sendDocumentUploadNotification(
-                nextReviewer.getEmail(),
-                document.getTitle(),
-                document.getUploadedBy().getName()
-            );
+        document.setCurrentStage(next);
+        document.setStageApprovals(0);
+        List<String> reviewers = new ArrayList<>();
+        for (WorkFlow nextStep : steps) {
+            if (nextStep.getStage() != next) {
+                continue;
+            }
+            nextStep.setStatus(Status.PENDING);
+            slaService.stepOpened(nextStep);
+            reviewers.add(nextStep.getReviewer().getEmail());
         }
+        changedReviewers.addAll(reviewers);
+        events.add(stageOpened(document, reviewers));
     }
 
-    private void updateDocumentStatusIfComplete(Document document) {
-        List<WorkFlow> allWorkflows = workFlowRepository.findByDocumentId(document.getId());
+    // Any rejection rejects the document; steps nobody acted on are closed
+    private void rejectDocument(Document document, String comment, List<WorkFlow> steps, Set<String> changedReviewers) {
+        document.setStatus(Status.REJECTED);
+        document.setComment(comment != null && !comment.trim().isEmpty() ? comment : "Document rejected");
+        document.setReviewedAt(LocalDateTime.now());
 
-        // Check if any workflow is rejected
-        boolean hasRejected = allWorkflows.stream()
-                .anyMatch(wf -> wf.getStatus() == Status.REJECTED);
+        for (WorkFlow open : steps) {
+            if (open.getStatus().isOpenStep()) {
+                skip(open, changedReviewers);
+            }
+        }
+    }
 
-        if (hasRejected) {
-            // If any workflow is rejected, mark document as rejected
-            // Find the rejection comment from the rejected workflow
-            String rejectionComment = allWorkflows.stream()
-                    .filter(wf -> wf.getStatus() == Status.REJECTED)
-                    .map(WorkFlow::getComment)
-                    .filter(comment -> comment != null && !comment.trim().isEmpty())
-                    .findFirst()
-                    .orElse("Document rejected");
+    private void skip(WorkFlow step, Set<String> changedReviewers) {
+        step.setStatus(Status.SKIPPED);
+        DocumentProgress.stepClosed(step.getDocument());
+        slaService.stepClosed(step);
+        changedReviewers.add(step.getReviewer().getEmail());
+        reviewerAssignmentService.stepClosed(step.getReviewer().getId());
+    }
 
-            document.setStatus(Status.REJECTED);
-            document.setComment(rejectionComment);
-            document.setReviewedAt(LocalDateTime.now());
-            documentRepository.save(document);
-            return;
+    private CompiledWorkflow workflowOf(Document document, List<WorkFlow> steps) {
+        if (document.getWorkflowDefinitionId() != null) {
+            return workflowDefinitionRegistry.byId(document.getWorkflowDefinitionId());
+        }
+
+        // Started before workflow definitions existed: its steps were created in
+        // OFFICER, MANAGER, ADMIN order, which is version 1 of the default workflow
+        CompiledWorkflow legacy = workflowDefinitionRegistry.legacy();
+        List<WorkFlow> ordered = steps.stream()
+                .sorted(Comparator.comparingInt(WorkFlow::getId))
+                .toList();
+        int current = -1;
+        for (int i = 0; i < ordered.size(); i++) {
+            WorkFlow step = ordered.get(i);
+            int stage = Math.min(i, legacy.getStageCount() - 1);
+            step.setStage(stage);
+            if (current < 0 && step.getStatus() != Status.APPROVED) {
+                current = stage;
+            } else if (current >= 0 && stage > current && step.getStatus() == Status.PENDING) {
+                step.setStatus(Status.WAITING);
+            }
         }
+        document.setWorkflowDefinitionId(legacy.getDefinitionId());
+        document.setStagePlan((1L << legacy.getStageCount()) - 1);
+        document.setCurrentStage(current >= 0 ? current : legacy.getStageCount() - 1);
+        document.setStageApprovals(0);
+        return legacy;
+    }
 
-        // Check if all workflows are approved
-        boolean allApproved = allWorkflows.stream()
-                .allMatch(wf -> wf.getStatus() == Status.APPROVED);
+    private static WorkflowEvent stageOpened(Document document, List<String> reviewerEmails) {
+        WorkflowEvent event = WorkflowEvent.of(WorkflowEventType.STAGE_OPENED, document);
+        event.setRecipients(new ArrayList<>(reviewerEmails));
+        return event;
+    }
 
-        if (allApproved) {
-            // If all workflows are approved, mark document as approved
-            document.setStatus(Status.APPROVED);
-            document.setReviewedAt(LocalDateTime.now());
-            documentRepository.save(document);
+    private static WorkflowEvent completed(Document document) {
+        WorkflowEvent event = WorkflowEvent.of(WorkflowEventType.DOCUMENT_COMPLETED, document);
+        event.setStatus(document.getStatus());
+        return event;
+    }
 
-            // Send final approval notification
-            if (document.getUploadedBy() != null) {
-                emailService.sendDocumentApprovalNotification(
-                    document.getUploadedBy().getEmail(),
-                    document.getTitle(),
-                    "APPROVED - All reviews completed successfully"
-                );
-            }
+    // Short randomized pause so the retrying transitions do not collide again in lockstep
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(retryBackoffMs * attempt + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying workflow transition", ex);
         }
     }
 
+    @Override
+    public List<WorkflowDefinition> getWorkflowDefinitions() {
+        return workflowDefinitionRegistry.findAll();
+    }
+
+    @Override
+    public WorkflowDefinition publishWorkflowDefinition(WorkflowDefinitionSpec spec) {
+        return workflowDefinitionRegistry.publish(spec);
+    }
 }
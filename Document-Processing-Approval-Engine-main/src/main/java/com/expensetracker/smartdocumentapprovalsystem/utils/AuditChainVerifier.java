@@ -0,0 +1,87 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.AuditChainReport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Re-walks the hash chain of an audit segment directory: every record's hash,
+ * the sequence numbers, and the links from each segment's header to the last
+ * record of the one before. Runs inside the application through
+ * {@code GET /api/audit/segments/verify}, or offline against a copy of the
+ * directory:
+ *
+ * <pre>
+ * java -cp app.jar -Dloader.main=com.expensetracker.smartdocumentapprovalsystem.utils.AuditChainVerifier \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher audit-segments
+ * </pre>
+ *
+ * The exit status is 0 for an intact chain and 1 otherwise.
+ */
+public class AuditChainVerifier {
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "audit-segments");
+        if (!Files.isDirectory(directory)) {
+            System.err.println("No such directory: " + directory);
+            System.exit(2);
+        }
+        AuditChainReport report = verify(directory);
+        System.out.println("segments:      " + report.getSegments());
+        System.out.println("records:       " + report.getRecords());
+        System.out.println("last sequence: " + report.getLastSequence());
+        System.out.println("head hash:     " + report.getHeadHash());
+        System.out.println(report.isValid() ? "chain intact" : "chain broken: " + report.getProblem());
+        System.exit(report.isValid() ? 0 : 1);
+    }
+
+    // Opens every segment read-only, so it is safe next to a running store
+    public static AuditChainReport verify(Path directory) throws IOException {
+        MessageDigest digest = AuditSegmentStore.sha256();
+        List<AuditSegment> segments = new ArrayList<>();
+        try {
+            for (Path file : AuditSegmentStore.segmentFiles(directory)) {
+                segments.add(AuditSegment.open(file, false, Integer.MAX_VALUE, digest));
+            }
+            return check(segments, digest);
+        } finally {
+            for (AuditSegment segment : segments) {
+                segment.close();
+            }
+        }
+    }
+
+    static AuditChainReport check(List<AuditSegment> segments, MessageDigest digest) {
+        long records = 0;
+        long lastSequence = 0;
+        byte[] lastHash = new byte[AuditSegment.HASH_BYTES];
+        String problem = null;
+        for (AuditSegment segment : segments) {
+            String name = segment.file.getFileName().toString();
+            if (segment.firstSequence != lastSequence + 1) {
+                problem = name + " starts at sequence " + segment.firstSequence + " after " + lastSequence;
+            } else if (!MessageDigest.isEqual(segment.previousHash, lastHash)) {
+                problem = name + " does not continue the chain of the segment before it";
+            }
+            AuditSegment.Walk walk = segment.verify(digest);
+            if (problem == null && walk.problem() != null) {
+                problem = name + ": " + walk.problem();
+            }
+            if (problem != null) {
+                break;
+            }
+            records += walk.records();
+            lastSequence = walk.lastSequence();
+            lastHash = walk.lastHash();
+        }
+        return new AuditChainReport(problem == null, segments.size(), records, lastSequence,
+                HexFormat.of().formatHex(lastHash), problem);
+    }
+}
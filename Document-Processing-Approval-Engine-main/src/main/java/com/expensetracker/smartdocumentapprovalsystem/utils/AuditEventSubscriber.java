@@ -0,0 +1,41 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEvent;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEventType;
+import com.expensetracker.smartdocumentapprovalsystem.service.AuditService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Audit trail of uploads and review actions, stored before the relay may delete the outbox entry
+@Component
+public class AuditEventSubscriber implements WorkflowEventSubscriber {
+
+    @Autowired
+    private AuditService auditService;
+
+    @Override
+    public void onEvent(WorkflowEvent event) {
+        switch (event.getType()) {
+            case DOCUMENT_UPLOADED -> auditService.logDocumentUpload(event.getDocumentId(), event.getActorEmail(),
+                    event.getActorName(), event.getDocumentTitle());
+            // The action is the step status the type is named after
+            case STEP_UNDER_REVIEW, STEP_APPROVED, STEP_REJECTED -> auditService.logDocumentReview(
+                    event.getDocumentId(), event.getActorEmail(), event.getActorName(),
+                    event.getType().name().substring("STEP_".length()), event.getComment());
+            case SLA_REMINDER, SLA_ESCALATED, STEP_REASSIGNED -> auditService.logAction(event.getType().name(),
+                    "Document", event.getDocumentId(), event.getActorEmail(), event.getActorName(),
+                    (event.getType() == WorkflowEventType.STEP_REASSIGNED ? "Review overdue; reassigned to "
+                            : "Review overdue; notified ") + String.join(", ", event.getRecipients()));
+            default -> {
+            }
+        }
+    }
+
+    // On the relay thread, so the rows are inserted there rather than queued; a failed insert means a retry
+    @Override
+    public void onEvents(List<WorkflowEvent> events) {
+        auditService.logSynchronously(() -> events.forEach(this::onEvent));
+    }
+}
@@ -0,0 +1,319 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.model.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Takes audit log writes off the request thread. Callers only enqueue into a
+ * {@link BoundedRingBuffer}; one background thread drains it and inserts the rows
+ * as JDBC batches, flushing once {@code audit.writer.batch-size} rows are waiting
+ * or {@code audit.writer.flush-interval-ms} has passed.
+ *
+ * When the buffer is full, {@code BLOCK} makes the caller wait for space and
+ * {@code SPILL} appends the entry to a JSON-lines file under
+ * {@code audit.writer.spill-dir}. Batches that fail because the database is
+ * unreachable are spilled too, and spill files are replayed when the writer is
+ * idle and on the next start. Rows still queued at shutdown are written before
+ * the context closes. {@link #writeThrough} skips the queue for callers that
+ * must know their rows are stored.
+ */
+@Component
+public class AuditLogBatchWriter {
+
+    public enum OverflowPolicy {
+        BLOCK,
+        SPILL
+    }
+
+    private static final String INSERT_SQL = "insert into audit_logs " +
+            "(action, entity_type, entity_id, user_email, user_name, details, timestamp, ip_address) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SPILL_FILE = "audit-spill.jsonl";
+    private static final String REPLAY_SUFFIX = ".replay";
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    @Value("${audit.writer.capacity:8192}")
+    private int capacity;
+
+    @Value("${audit.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${audit.writer.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${audit.writer.overflow:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${audit.writer.spill-dir:audit-spill}")
+    private String spillDir;
+
+    @Value("${audit.writer.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Object spillLock = new Object();
+    private final ThreadLocal<List<AuditLog>> writingThrough = new ThreadLocal<>();
+    private BoundedRingBuffer<AuditLog> buffer;
+    private Thread flusher;
+    private volatile boolean running;
+    private volatile boolean spillPending;
+
+    @PostConstruct
+    public void start() {
+        buffer = new BoundedRingBuffer<>(capacity);
+        // Pick up whatever a previous run left on disk
+        spillPending = true;
+        running = true;
+        flusher = new Thread(this::runFlusher, "audit-log-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues the entry for the next batch. Only blocks when the buffer is full
+     * and the overflow policy is {@code BLOCK}.
+     */
+    public void enqueue(AuditLog auditLog) {
+        List<AuditLog> through = writingThrough.get();
+        if (through != null) {
+            through.add(auditLog);
+            return;
+        }
+        if (!running) {
+            // The flusher is gone or going: write on the caller's thread instead of losing the entry
+            write(List.of(auditLog));
+            return;
+        }
+        if (buffer.offer(auditLog)) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(flusher);
+            }
+            return;
+        }
+
+        LockSupport.unpark(flusher);
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            spill(List.of(auditLog));
+            return;
+        }
+        while (!buffer.offer(auditLog)) {
+            if (!running) {
+                write(List.of(auditLog));
+                return;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Runs the logging and inserts the entries it enqueues before returning, in
+     * one transaction. A failed insert is thrown, not spilled.
+     */
+    public void writeThrough(Runnable logging) {
+        List<AuditLog> entries = new ArrayList<>();
+        writingThrough.set(entries);
+        try {
+            logging.run();
+        } finally {
+            writingThrough.remove();
+        }
+        if (!entries.isEmpty()) {
+            insert(entries);
+        }
+    }
+
+    public int pendingCount() {
+        return buffer.size();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(shutdownTimeoutMs);
+        if (flusher.isAlive()) {
+            System.err.println("Audit log writer did not drain within " + shutdownTimeoutMs + " ms; "
+                    + buffer.size() + " entries were not written");
+            return;
+        }
+        // Entries that slipped in while the flusher was finishing its last batch
+        List<AuditLog> remaining = new ArrayList<>();
+        buffer.drainTo(remaining, Integer.MAX_VALUE);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    private void runFlusher() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+        while (running || !buffer.isEmpty()) {
+            try {
+                buffer.drainTo(batch, batchSize - batch.size());
+                long elapsed = System.nanoTime() - lastFlush;
+                if (batch.size() >= batchSize || (!batch.isEmpty() && (elapsed >= intervalNanos || !running))) {
+                    write(batch);
+                    batch.clear();
+                    lastFlush = System.nanoTime();
+                } else if (batch.isEmpty() && spillPending && elapsed >= intervalNanos) {
+                    replaySpill();
+                    lastFlush = System.nanoTime();
+                } else if (running && buffer.isEmpty()) {
+                    // Woken early by enqueue once a full batch is waiting
+                    LockSupport.parkNanos(this, batch.isEmpty() ? intervalNanos : intervalNanos - elapsed);
+                }
+            } catch (RuntimeException ex) {
+                System.err.println("Audit log writer error: " + ex.getMessage());
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        try {
+            insert(batch);
+        } catch (DataIntegrityViolationException ex) {
+            // One bad row fails the whole batch; retry row by row so only that row is lost
+            for (AuditLog auditLog : batch) {
+                try {
+                    insert(List.of(auditLog));
+                } catch (DataIntegrityViolationException rowEx) {
+                    System.err.println("Failed to save audit log: " + rowEx.getMessage());
+                } catch (DataAccessException rowEx) {
+                    spill(List.of(auditLog));
+                }
+            }
+        } catch (DataAccessException ex) {
+            System.err.println("Failed to save " + batch.size() + " audit logs, spilling to disk: " + ex.getMessage());
+            spill(batch);
+        }
+    }
+
+    // One transaction per batch: a failed batch leaves no rows behind, so the row-by-row retry cannot duplicate
+    private void insert(List<AuditLog> batch) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, auditLog) -> {
+            ps.setString(1, auditLog.getAction());
+            ps.setString(2, auditLog.getEntityType());
+            ps.setObject(3, auditLog.getEntityId(), Types.BIGINT);
+            ps.setString(4, auditLog.getUserEmail());
+            ps.setString(5, auditLog.getUserName());
+            ps.setString(6, auditLog.getDetails());
+            ps.setObject(7, auditLog.getTimestamp());
+            ps.setString(8, auditLog.getIpAddress());
+        }));
+    }
+
+    private void spill(List<AuditLog> entries) {
+        synchronized (spillLock) {
+            try {
+                Path dir = Files.createDirectories(Paths.get(spillDir));
+                try (BufferedWriter writer = Files.newBufferedWriter(dir.resolve(SPILL_FILE), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (AuditLog entry : entries) {
+                        writer.write(objectMapper.writeValueAsString(entry));
+                        writer.newLine();
+                    }
+                }
+                spillPending = true;
+            } catch (IOException ex) {
+                System.err.println("Failed to spill " + entries.size() + " audit logs: " + ex.getMessage());
+            }
+        }
+    }
+
+    // At-least-once: a replay interrupted by a database failure is retried from the start of its file
+    private void replaySpill() {
+        spillPending = false;
+        Path dir = Paths.get(spillDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try {
+            synchronized (spillLock) {
+                Path spillFile = dir.resolve(SPILL_FILE);
+                if (Files.exists(spillFile)) {
+                    Files.move(spillFile, dir.resolve(SPILL_FILE + "." + System.currentTimeMillis() + REPLAY_SUFFIX));
+                }
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + REPLAY_SUFFIX)) {
+                for (Path file : files) {
+                    replayFile(file);
+                    Files.delete(file);
+                }
+            }
+        } catch (IOException | DataAccessException ex) {
+            System.err.println("Failed to replay spilled audit logs: " + ex.getMessage());
+            spillPending = true;
+        }
+    }
+
+    private void replayFile(Path file) throws IOException {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.add(objectMapper.readValue(line, AuditLog.class));
+                if (batch.size() >= batchSize) {
+                    replayBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            replayBatch(batch);
+        }
+    }
+
+    // Like write(), except a database outage aborts the replay instead of spilling again
+    private void replayBatch(List<AuditLog> batch) {
+        try {
+            insert(batch);
+        } catch (DataIntegrityViolationException ex) {
+            for (AuditLog auditLog : batch) {
+                try {
+                    insert(List.of(auditLog));
+                } catch (DataIntegrityViolationException rowEx) {
+                    System.err.println("Failed to save audit log: " + rowEx.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.AuditCompactionResult;
+import com.expensetracker.smartdocumentapprovalsystem.model.AuditLog;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps audit_logs to its recent entries. Every {@code audit.retention.check-interval-ms}
+ * it makes two passes over the oldest rows:
+ * <ul>
+ *   <li>entries of {@code audit.retention.rollup-actions} older than
+ *   {@code audit.retention.rollup-after} are counted into audit_log_rollups, one
+ *   row per day, action and user, and moved to the archive;</li>
+ *   <li>all other entries older than {@code audit.retention.archive-after} are
+ *   moved to the archive.</li>
+ * </ul>
+ * The archive is audit_log_archives, one gzip-compressed NDJSON row per chunk.
+ *
+ * Each chunk of at most {@code audit.retention.chunk-size} rows is read,
+ * rolled up, archived and deleted in one short transaction, followed by a
+ * pause of {@code audit.retention.chunk-pause-ms}. The job thus never holds
+ * locks on many rows or for long. The audit queries merge the roll-ups back
+ * in, so the admin lists still show that the events happened.
+ */
+@Component
+@ConditionalOnProperty(name = "audit.store", havingValue = "DATABASE", matchIfMissing = true)
+public class AuditLogCompactor {
+
+    private static final String SELECT_SQL = "select id, action, entity_type, entity_id, user_email, user_name, " +
+            "details, timestamp, ip_address from audit_logs where timestamp < ?%s order by timestamp, id limit ?";
+    private static final String UPDATE_ROLLUP_SQL = "update audit_log_rollups set event_count = event_count + ?, " +
+            "first_timestamp = least(first_timestamp, ?), last_timestamp = greatest(last_timestamp, ?), " +
+            "user_name = ? where rollup_day = ? and action = ? and user_email = ?";
+    private static final String INSERT_ROLLUP_SQL = "insert into audit_log_rollups (rollup_day, action, entity_type, " +
+            "user_email, user_name, event_count, first_timestamp, last_timestamp) values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ARCHIVE_SQL = "insert into audit_log_archives (first_timestamp, last_timestamp, " +
+            "entry_count, rolled_up, archived_at, data) values (?, ?, ?, ?, ?, ?)";
+    // The timestamp lets PostgreSQL go straight to the entry's monthly partition
+    private static final String DELETE_SQL = "delete from audit_logs where id = ? and timestamp = ?";
+
+    // Entries of one action by one user on one day
+    private record RollupKey(LocalDate day, String action, String userEmail) {
+    }
+
+    private static final class Rollup {
+        private String entityType;
+        private String userName;
+        private long count;
+        private LocalDateTime first;
+        private LocalDateTime last;
+    }
+
+    @Value("${audit.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.retention.rollup-actions:USER_LOGIN}")
+    private List<String> rollupActions;
+
+    @Value("${audit.retention.rollup-after:7d}")
+    private Duration rollupAfter;
+
+    @Value("${audit.retention.archive-after:90d}")
+    private Duration archiveAfter;
+
+    @Value("${audit.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${audit.retention.chunk-pause-ms:100}")
+    private long chunkPauseMs;
+
+    @Value("${audit.retention.check-interval-ms:3600000}")
+    private long checkIntervalMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Runs the migrations first, so the job never reads a table that is being rebuilt
+    @Autowired
+    private SchemaMigrations schemaMigrations;
+
+    private Thread compactor;
+    private volatile boolean stopped;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        compactor = new Thread(this::runCompactor, "audit-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        // A run in progress ends after its current chunk
+        stopped = true;
+        if (compactor != null) {
+            LockSupport.unpark(compactor);
+        }
+    }
+
+    private void runCompactor() {
+        while (!stopped) {
+            try {
+                AuditCompactionResult result = compact(LocalDateTime.now());
+                if (result.getArchived() > 0) {
+                    System.out.println("Audit compaction: " + result.getRolledUp() + " entries rolled up, "
+                            + result.getArchived() + " archived in " + result.getChunks() + " chunks");
+                }
+            } catch (RuntimeException ex) {
+                System.err.println("Audit compaction error: " + ex.getMessage());
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(checkIntervalMs));
+        }
+    }
+
+    /**
+     * Runs both passes with the ages counted back from {@code now}. One run
+     * at a time; a second caller waits for the first to finish.
+     */
+    public synchronized AuditCompactionResult compact(LocalDateTime now) {
+        AuditCompactionResult result = new AuditCompactionResult();
+        if (!rollupActions.isEmpty()) {
+            drain(now.minus(rollupAfter), true, result);
+        }
+        drain(now.minus(archiveAfter), false, result);
+        return result;
+    }
+
+    private void drain(LocalDateTime cutoff, boolean rollup, AuditCompactionResult result) {
+        String sql = String.format(SELECT_SQL,
+                rollup ? " and action in (" + String.join(", ", Collections.nCopies(rollupActions.size(), "?")) + ")" : "");
+        Object[] args = new Object[rollup ? rollupActions.size() + 2 : 2];
+        args[0] = Timestamp.valueOf(cutoff);
+        if (rollup) {
+            for (int i = 0; i < rollupActions.size(); i++) {
+                args[i + 1] = rollupActions.get(i);
+            }
+        }
+        args[args.length - 1] = chunkSize;
+
+        long pauseNanos = TimeUnit.MILLISECONDS.toNanos(chunkPauseMs);
+        while (!stopped) {
+            Integer moved = transactionTemplate.execute(status -> compactChunk(sql, args, rollup));
+            if (moved == null || moved == 0) {
+                return;
+            }
+            result.setArchived(result.getArchived() + moved);
+            if (rollup) {
+                result.setRolledUp(result.getRolledUp() + moved);
+            }
+            result.setChunks(result.getChunks() + 1);
+            if (moved < chunkSize) {
+                return;
+            }
+            LockSupport.parkNanos(this, pauseNanos);
+        }
+    }
+
+    // Returns how many entries left audit_logs
+    private int compactChunk(String sql, Object[] args, boolean rollup) {
+        List<AuditLog> entries = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            AuditLog log = new AuditLog(rs.getString("action"), rs.getString("entity_type"),
+                    rs.getObject("entity_id", Long.class), rs.getString("user_email"), rs.getString("user_name"),
+                    rs.getString("details"));
+            log.setId(rs.getLong("id"));
+            log.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+            log.setIpAddress(rs.getString("ip_address"));
+            return log;
+        }, args);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        if (rollup) {
+            rollUp(entries);
+        }
+        jdbcTemplate.update(INSERT_ARCHIVE_SQL, Timestamp.valueOf(entries.get(0).getTimestamp()),
+                Timestamp.valueOf(entries.get(entries.size() - 1).getTimestamp()), entries.size(), rollup,
+                Timestamp.valueOf(LocalDateTime.now()), compress(entries));
+        jdbcTemplate.batchUpdate(DELETE_SQL, entries, entries.size(), (ps, log) -> {
+            ps.setLong(1, log.getId());
+            ps.setTimestamp(2, Timestamp.valueOf(log.getTimestamp()));
+        });
+        return entries.size();
+    }
+
+    private void rollUp(List<AuditLog> entries) {
+        Map<RollupKey, Rollup> rollups = new LinkedHashMap<>();
+        for (AuditLog log : entries) {
+            Rollup rollup = rollups.computeIfAbsent(
+                    new RollupKey(log.getTimestamp().toLocalDate(), log.getAction(), log.getUserEmail()),
+                    k -> new Rollup());
+            // Entries come oldest first, so the last one names the user as they are now called
+            rollup.entityType = log.getEntityType();
+            rollup.userName = log.getUserName();
+            rollup.count++;
+            rollup.first = rollup.first == null ? log.getTimestamp() : rollup.first;
+            rollup.last = log.getTimestamp();
+        }
+        rollups.forEach((key, rollup) -> {
+            int updated = jdbcTemplate.update(UPDATE_ROLLUP_SQL, rollup.count, Timestamp.valueOf(rollup.first),
+                    Timestamp.valueOf(rollup.last), rollup.userName, key.day(), key.action(), key.userEmail());
+            if (updated == 0) {
+                jdbcTemplate.update(INSERT_ROLLUP_SQL, key.day(), key.action(), rollup.entityType, key.userEmail(),
+                        rollup.userName, rollup.count, Timestamp.valueOf(rollup.first), Timestamp.valueOf(rollup.last));
+            }
+        });
+    }
+
+    private byte[] compress(List<AuditLog> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+             JsonGenerator json = objectMapper.getFactory().createGenerator(gzip)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (AuditLog log : entries) {
+                json.writeObject(log);
+                json.writeRaw('\n');
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+}
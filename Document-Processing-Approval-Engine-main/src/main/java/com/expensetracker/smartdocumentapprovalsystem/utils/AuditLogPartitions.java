@@ -0,0 +1,91 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Keeps the monthly partitions of audit_logs ahead of the clock where the
+ * table is partitioned (PostgreSQL, see db/migration/postgresql): the current
+ * month and the next {@code audit.partitions.months-ahead}, checked at startup
+ * and then every {@code audit.partitions.check-interval-ms}.
+ *
+ * A month that has no partition of its own by the time its first row arrives
+ * stays in audit_logs_default, since PostgreSQL will not carve a partition out
+ * of rows the default already holds.
+ */
+@Component
+public class AuditLogPartitions {
+
+    private static final String PARTITIONED_SQL = "select count(*) from pg_partitioned_table p " +
+            "join pg_class c on c.oid = p.partrelid where c.relname = 'audit_logs'";
+    private static final String CREATE_SQL = "create table if not exists %s partition of audit_logs " +
+            "for values from ('%s') to ('%s')";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Value("${audit.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${audit.partitions.check-interval-ms:86400000}")
+    private long checkIntervalMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Runs the migrations first, and knows which database this is
+    @Autowired
+    private SchemaMigrations schemaMigrations;
+
+    private Thread maintainer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!"postgresql".equals(schemaMigrations.getVendor())
+                || jdbcTemplate.queryForObject(PARTITIONED_SQL, Long.class) == 0) {
+            return;
+        }
+        running = true;
+        maintainer = new Thread(this::runMaintainer, "audit-partitions");
+        maintainer.setDaemon(true);
+        maintainer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (maintainer != null) {
+            LockSupport.unpark(maintainer);
+        }
+    }
+
+    private void runMaintainer() {
+        while (running) {
+            createAhead(YearMonth.now());
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(checkIntervalMs));
+        }
+    }
+
+    void createAhead(YearMonth from) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = from.plusMonths(i);
+            LocalDate start = month.atDay(1);
+            try {
+                jdbcTemplate.execute(String.format(CREATE_SQL, "audit_logs_" + start.format(SUFFIX),
+                        start, start.plusMonths(1)));
+            } catch (DataAccessException ex) {
+                System.err.println("Could not create audit log partition for " + month + ": " + ex.getMessage());
+            }
+        }
+    }
+}
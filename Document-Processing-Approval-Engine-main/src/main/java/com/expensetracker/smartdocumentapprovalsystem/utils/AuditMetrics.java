@@ -0,0 +1,126 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.AuditStats;
+import com.expensetracker.smartdocumentapprovalsystem.dto.LatencySummary;
+import com.expensetracker.smartdocumentapprovalsystem.dto.RollingWindows;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEvent;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEventType;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory counters and latency histograms behind {@code /api/audit/stats},
+ * so questions like "approvals in the last hour" need no audit log query.
+ * Audit services count every entry they log by action. Workflow events count
+ * each reviewed step by reviewer role and by reviewer, with the time from
+ * upload to each approval or rejection, and the time from upload to the
+ * document's final status.
+ *
+ * Everything is kept in {@link RollingCounter} and {@link RollingHistogram}
+ * rings, so recording never blocks and a read costs the same whatever the
+ * traffic. Figures start from zero at every start and are per instance.
+ * Workflow events arrive after commit, at least once, so a relay that dies
+ * mid-batch can count a step twice.
+ */
+@Component
+public class AuditMetrics implements WorkflowEventSubscriber {
+
+    private final ConcurrentMap<String, RollingCounter> actions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, RollingCounter>> stepsByRole = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, RollingCounter>> stepsByReviewer = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RollingHistogram> decisionByRole = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RollingHistogram> decisionByReviewer = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RollingHistogram> completion = new ConcurrentHashMap<>();
+
+    public void actionLogged(String action) {
+        actions.computeIfAbsent(action, k -> new RollingCounter()).increment(System.currentTimeMillis());
+    }
+
+    @Override
+    public void onEvent(WorkflowEvent event) {
+        if (event.getType() == null || event.getOccurredAt() == null) {
+            return;
+        }
+        long at = epochMillis(event.getOccurredAt());
+        switch (event.getType()) {
+            case STEP_UNDER_REVIEW, STEP_APPROVED, STEP_REJECTED -> {
+                String outcome = event.getType().name().substring("STEP_".length());
+                boolean decided = event.getType() != WorkflowEventType.STEP_UNDER_REVIEW;
+                if (event.getActorRole() != null) {
+                    count(stepsByRole, event.getActorRole(), outcome, at);
+                    if (decided) {
+                        record(decisionByRole, event.getActorRole(), event, at);
+                    }
+                }
+                if (event.getActorEmail() != null) {
+                    count(stepsByReviewer, event.getActorEmail(), outcome, at);
+                    if (decided) {
+                        record(decisionByReviewer, event.getActorEmail(), event, at);
+                    }
+                }
+            }
+            case DOCUMENT_COMPLETED -> {
+                if (event.getStatus() != null) {
+                    record(completion, event.getStatus().name(), event, at);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    public AuditStats getStats() {
+        long now = System.currentTimeMillis();
+        return new AuditStats(LocalDateTime.now(), counts(actions, now), nestedCounts(stepsByRole, now),
+                nestedCounts(stepsByReviewer, now), latencies(decisionByRole, now), latencies(decisionByReviewer, now),
+                latencies(completion, now));
+    }
+
+    private static void count(ConcurrentMap<String, ConcurrentMap<String, RollingCounter>> series, String group,
+                              String outcome, long at) {
+        series.computeIfAbsent(group, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, k -> new RollingCounter())
+                .increment(at);
+    }
+
+    // Time since the document was uploaded, for events that know when that was
+    private static void record(ConcurrentMap<String, RollingHistogram> series, String group, WorkflowEvent event, long at) {
+        if (event.getUploadedAt() == null) {
+            return;
+        }
+        long elapsed = Duration.between(event.getUploadedAt(), event.getOccurredAt()).toMillis();
+        series.computeIfAbsent(group, k -> new RollingHistogram()).record(elapsed, at);
+    }
+
+    private static Map<String, RollingWindows<Long>> counts(Map<String, RollingCounter> series, long now) {
+        Map<String, RollingWindows<Long>> result = new TreeMap<>();
+        series.forEach((name, counter) -> result.put(name,
+                new RollingWindows<>(counter.lastHour(now), counter.lastDay(now), counter.lastWeek(now))));
+        return result;
+    }
+
+    private static Map<String, Map<String, RollingWindows<Long>>> nestedCounts(
+            Map<String, ConcurrentMap<String, RollingCounter>> series, long now) {
+        Map<String, Map<String, RollingWindows<Long>>> result = new TreeMap<>();
+        series.forEach((group, counters) -> result.put(group, counts(counters, now)));
+        return result;
+    }
+
+    private static Map<String, RollingWindows<LatencySummary>> latencies(Map<String, RollingHistogram> series, long now) {
+        Map<String, RollingWindows<LatencySummary>> result = new TreeMap<>();
+        series.forEach((name, histogram) -> result.put(name,
+                new RollingWindows<>(histogram.lastHour(now), histogram.lastDay(now), histogram.lastWeek(now))));
+        return result;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,419 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.model.AuditLog;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One file of the {@link AuditSegmentStore}: a fixed-size memory-mapped region
+ * holding a header and then records back to back, each
+ * {@code [int length][payload][SHA-256 of the previous record's hash and this payload]}.
+ * The header carries the segment's first sequence number and the hash of the
+ * record before it, so the chain runs on across files. A zero length marks the
+ * end of the data; it is written last, so a record is either complete or absent.
+ *
+ * Every {@code indexInterval} records start a block. The segment keeps the
+ * offset, first sequence number and first timestamp of each block, and for
+ * each user email and entity id the set of blocks holding one of its records.
+ * Lookups then decode only those blocks. The index lives in memory and is
+ * rebuilt from the file when it is opened.
+ */
+class AuditSegment {
+
+    static final int MAGIC = 0x41554431;   // "AUD1"
+    static final int HASH_BYTES = 32;
+    static final int HEADER_BYTES = 4 + 8 + HASH_BYTES;
+    static final int RECORD_OVERHEAD = 4 + HASH_BYTES;
+
+    // Outcome of walking the chain from the header up to some offset
+    record Walk(long records, long lastSequence, byte[] lastHash, int end, String problem) {
+    }
+
+    private interface RecordCallback {
+        void accept(int offset, AuditLog log);
+    }
+
+    final Path file;
+    final long firstSequence;
+    final byte[] previousHash;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int indexInterval;
+
+    // Guarded by this: the writer changes them on append, readers copy what they need
+    private int end;
+    private long lastSequence;
+    private byte[] lastHash;
+    private LocalDateTime lastTimestamp;
+    private int blocks;
+    private int[] blockOffsets = new int[16];
+    private long[] blockSequences = new long[16];
+    private LocalDateTime[] blockTimestamps = new LocalDateTime[16];
+    private final Map<String, BitSet> blocksByUser = new HashMap<>();
+    private final Map<Long, BitSet> blocksByEntity = new HashMap<>();
+    private String problem;
+
+    private AuditSegment(Path file, FileChannel channel, MappedByteBuffer buffer, int indexInterval) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.indexInterval = indexInterval;
+        this.firstSequence = buffer.getLong(4);
+        this.previousHash = new byte[HASH_BYTES];
+        buffer.get(12, previousHash);
+    }
+
+    static AuditSegment create(Path file, long firstSequence, byte[] previousHash, int size,
+                               int indexInterval) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(size);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.putInt(0, MAGIC);
+        buffer.putLong(4, firstSequence);
+        buffer.put(12, previousHash);
+        buffer.force();
+        AuditSegment segment = new AuditSegment(file, channel, buffer, indexInterval);
+        segment.end = HEADER_BYTES;
+        segment.lastSequence = firstSequence - 1;
+        segment.lastHash = previousHash;
+        return segment;
+    }
+
+    // Maps the file and walks its chain, indexing every intact record
+    static AuditSegment open(Path file, boolean writable, int indexInterval, MessageDigest digest) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Not an audit segment: " + file);
+        }
+        MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                0, size);
+        if (buffer.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException("Not an audit segment: " + file);
+        }
+        AuditSegment segment = new AuditSegment(file, channel, buffer, indexInterval);
+        Walk walk = segment.walk(buffer.capacity(), digest, segment::index);
+        segment.end = walk.end();
+        segment.lastSequence = walk.lastSequence();
+        segment.lastHash = walk.lastHash();
+        segment.problem = walk.problem();
+        return segment;
+    }
+
+    static byte[] encode(AuditLog log) {
+        ByteBuffer out = ByteBuffer.allocate(64 + 3 * (length(log.getAction()) + length(log.getEntityType())
+                + length(log.getUserEmail()) + length(log.getUserName()) + length(log.getDetails())
+                + length(log.getIpAddress())));
+        out.putLong(log.getId());
+        out.putLong(log.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        out.putInt(log.getTimestamp().getNano());
+        putString(out, log.getAction());
+        putString(out, log.getEntityType());
+        out.put((byte) (log.getEntityId() != null ? 1 : 0));
+        out.putLong(log.getEntityId() != null ? log.getEntityId() : 0);
+        putString(out, log.getUserEmail());
+        putString(out, log.getUserName());
+        putString(out, log.getDetails());
+        putString(out, log.getIpAddress());
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    /**
+     * Appends one encoded record, chained to the last one. Only ever called by
+     * the store's single writer; returns false when the segment is too full.
+     */
+    boolean append(AuditLog log, byte[] payload, MessageDigest digest) {
+        int offset;
+        byte[] previous;
+        synchronized (this) {
+            offset = end;
+            previous = lastHash;
+        }
+        if (buffer.capacity() - offset < RECORD_OVERHEAD + payload.length) {
+            return false;
+        }
+        byte[] hash = chain(digest, previous, payload);
+        buffer.put(offset + 4, payload);
+        buffer.put(offset + 4 + payload.length, hash);
+        buffer.putInt(offset, payload.length);
+        synchronized (this) {
+            index(offset, log);
+            lastHash = hash;
+            lastSequence = log.getId();
+            end = offset + RECORD_OVERHEAD + payload.length;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the records that can match the filter, block by block and in
+     * the given direction, handing them to the visitor until it returns false.
+     * Returns false if the visitor stopped the scan.
+     */
+    boolean scan(AuditSegmentStore.Filter filter, boolean newestFirst,
+                 AuditSegmentStore.Visitor visitor) throws IOException {
+        int limit;
+        int blockCount;
+        int[] offsets;
+        long[] sequences;
+        LocalDateTime[] timestamps;
+        BitSet candidates = null;
+        synchronized (this) {
+            limit = end;
+            blockCount = blocks;
+            offsets = blockOffsets;
+            sequences = blockSequences;
+            timestamps = blockTimestamps;
+            if (filter.userEmail() != null) {
+                candidates = copy(blocksByUser.get(filter.userEmail()));
+            }
+            if (filter.entityId() != null) {
+                BitSet entityBlocks = copy(blocksByEntity.get(filter.entityId()));
+                if (candidates == null) {
+                    candidates = entityBlocks;
+                } else {
+                    candidates.and(entityBlocks);
+                }
+            }
+        }
+
+        // Timestamps and sequence numbers only grow, so the first keys of the blocks bound the range
+        int from = 0;
+        int to = blockCount;
+        if (filter.from() != null) {
+            from = Math.max(0, countBefore(timestamps, blockCount, filter.from()) - 1);
+        }
+        if (filter.to() != null) {
+            to = Math.min(to, countBefore(timestamps, blockCount, filter.to()));
+        }
+        if (filter.beforeId() != null) {
+            to = Math.min(to, countBefore(sequences, blockCount, filter.beforeId()));
+        }
+
+        ByteBuffer view = buffer.duplicate();
+        for (int i = 0; i < to - from; i++) {
+            int block = newestFirst ? to - 1 - i : from + i;
+            if (candidates != null && !candidates.get(block)) {
+                continue;
+            }
+            int blockEnd = block + 1 < blockCount ? offsets[block + 1] : limit;
+            List<AuditLog> logs = new ArrayList<>(indexInterval);
+            for (int offset = offsets[block]; offset < blockEnd; ) {
+                int length = view.getInt(offset);
+                AuditLog log = decode(view.slice(offset + 4, length));
+                if (filter.matches(log)) {
+                    logs.add(log);
+                }
+                offset += RECORD_OVERHEAD + length;
+            }
+            for (int j = 0; j < logs.size(); j++) {
+                if (!visitor.visit(logs.get(newestFirst ? logs.size() - 1 - j : j))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Re-reads and re-hashes every record written so far
+    Walk verify(MessageDigest digest) {
+        int limit;
+        synchronized (this) {
+            limit = end;
+        }
+        Walk walk = walk(limit, digest, (offset, log) -> {
+        });
+        if (walk.problem() == null && problem != null) {
+            // Found when the file was opened; the writer went on in a new segment
+            return new Walk(walk.records(), walk.lastSequence(), walk.lastHash(), walk.end(), problem);
+        }
+        return walk;
+    }
+
+    synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    synchronized byte[] lastHash() {
+        return lastHash;
+    }
+
+    synchronized LocalDateTime lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    synchronized String problem() {
+        return problem;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    private Walk walk(int limit, MessageDigest digest, RecordCallback callback) {
+        ByteBuffer view = buffer.duplicate();
+        int offset = HEADER_BYTES;
+        long sequence = firstSequence;
+        byte[] hash = previousHash;
+        byte[] stored = new byte[HASH_BYTES];
+        String found = null;
+        while (limit - offset >= 4) {
+            int length = view.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || length > limit - offset - RECORD_OVERHEAD) {
+                found = "bad record length at offset " + offset;
+                break;
+            }
+            byte[] payload = new byte[length];
+            view.get(offset + 4, payload);
+            view.get(offset + 4 + length, stored);
+            byte[] expected = chain(digest, hash, payload);
+            if (!MessageDigest.isEqual(expected, stored)) {
+                found = "hash mismatch at sequence " + sequence + " (offset " + offset + ")";
+                break;
+            }
+            AuditLog log = decode(ByteBuffer.wrap(payload));
+            if (log.getId() != sequence) {
+                found = "sequence " + log.getId() + " where " + sequence + " was expected (offset " + offset + ")";
+                break;
+            }
+            callback.accept(offset, log);
+            hash = expected;
+            offset += RECORD_OVERHEAD + length;
+            sequence++;
+        }
+        return new Walk(sequence - firstSequence, sequence - 1, hash, offset, found);
+    }
+
+    private void index(int offset, AuditLog log) {
+        long position = log.getId() - firstSequence;
+        if (position % indexInterval == 0) {
+            if (blocks == blockOffsets.length) {
+                blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+                blockSequences = Arrays.copyOf(blockSequences, blocks * 2);
+                blockTimestamps = Arrays.copyOf(blockTimestamps, blocks * 2);
+            }
+            blockOffsets[blocks] = offset;
+            blockSequences[blocks] = log.getId();
+            blockTimestamps[blocks] = log.getTimestamp();
+            blocks++;
+        }
+        int block = blocks - 1;
+        lastTimestamp = log.getTimestamp();
+        if (log.getUserEmail() != null) {
+            blocksByUser.computeIfAbsent(log.getUserEmail(), k -> new BitSet()).set(block);
+        }
+        if (log.getEntityId() != null) {
+            blocksByEntity.computeIfAbsent(log.getEntityId(), k -> new BitSet()).set(block);
+        }
+    }
+
+    private static byte[] chain(MessageDigest digest, byte[] previous, byte[] payload) {
+        digest.reset();
+        digest.update(previous);
+        digest.update(payload);
+        return digest.digest();
+    }
+
+    private static AuditLog decode(ByteBuffer in) {
+        AuditLog log = new AuditLog();
+        log.setId(in.getLong());
+        log.setTimestamp(LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC));
+        log.setAction(getString(in));
+        log.setEntityType(getString(in));
+        boolean hasEntityId = in.get() == 1;
+        long entityId = in.getLong();
+        log.setEntityId(hasEntityId ? entityId : null);
+        log.setUserEmail(getString(in));
+        log.setUserName(getString(in));
+        log.setDetails(getString(in));
+        log.setIpAddress(getString(in));
+        return log;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() + 4 : 4;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static BitSet copy(BitSet blocks) {
+        return blocks != null ? (BitSet) blocks.clone() : new BitSet();
+    }
+
+    // Number of leading keys strictly below the bound
+    private static int countBefore(LocalDateTime[] keys, int count, LocalDateTime bound) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].isBefore(bound)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int countBefore(long[] keys, int count, long bound) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,231 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.AuditChainReport;
+import com.expensetracker.smartdocumentapprovalsystem.model.AuditLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Append-only audit log on memory-mapped segment files under
+ * {@code audit.segments.dir}, used instead of the audit_logs table when
+ * {@code audit.store=SEGMENTS}. Each segment is {@code audit.segments.segment-size}
+ * bytes; when the next record does not fit, the segment is flushed to disk
+ * and a new one started. Every record is chained to the one before by
+ * SHA-256, across segments too, so changing, removing or reordering a record
+ * breaks the chain from there on (see {@link AuditChainVerifier}).
+ *
+ * The store numbers records 1, 2, 3, ... as their id and never lets a
+ * timestamp go backwards: an entry older than the one before it is stamped
+ * with that one's time. Id order and timestamp order are therefore the same,
+ * which is what lets the per-segment block index answer date ranges and
+ * keyset pages.
+ *
+ * Appends take a short lock and copy into mapped memory; reads run
+ * alongside them. Written pages reach the disk when the OS writes them back
+ * and at the latest when their segment is sealed or the store closes. A
+ * process crash loses nothing; after a power loss the chain check on the
+ * next start shows whether a record was torn, and writing carries on in a
+ * new segment so the torn one stays as it was found.
+ */
+@Component
+@ConditionalOnProperty(name = "audit.store", havingValue = "SEGMENTS")
+public class AuditSegmentStore {
+
+    static final String SEGMENT_GLOB = "audit-*.seg";
+
+    /**
+     * What to read; null fields match anything. {@code from} is inclusive,
+     * {@code to} and {@code beforeId} are exclusive.
+     */
+    public record Filter(String action, String userEmail, String entityType, Long entityId,
+                         LocalDateTime from, LocalDateTime to, Long beforeId) {
+
+        public static Filter all() {
+            return new Filter(null, null, null, null, null, null, null);
+        }
+
+        boolean matches(AuditLog log) {
+            return (action == null || action.equals(log.getAction()))
+                    && (userEmail == null || userEmail.equals(log.getUserEmail()))
+                    && (entityType == null || entityType.equals(log.getEntityType()))
+                    && (entityId == null || entityId.equals(log.getEntityId()))
+                    && (from == null || !log.getTimestamp().isBefore(from))
+                    && (to == null || log.getTimestamp().isBefore(to))
+                    && (beforeId == null || log.getId() < beforeId);
+        }
+    }
+
+    // Receives records one at a time; returning false ends the scan
+    public interface Visitor {
+        boolean visit(AuditLog log) throws IOException;
+    }
+
+    @Value("${audit.segments.dir:audit-segments}")
+    private String dir;
+
+    @Value("${audit.segments.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${audit.segments.index-interval:64}")
+    private int indexInterval;
+
+    private final List<AuditSegment> segments = new CopyOnWriteArrayList<>();
+    // Guards the fields below and every append
+    private final Object appendLock = new Object();
+    private MessageDigest digest;
+    private long nextSequence;
+    private LocalDateTime lastTimestamp;
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path directory = Files.createDirectories(Paths.get(dir));
+        digest = sha256();
+        List<Path> files = segmentFiles(directory);
+        for (int i = 0; i < files.size(); i++) {
+            AuditSegment segment = AuditSegment.open(files.get(i), i == files.size() - 1, indexInterval, digest);
+            if (segment.problem() != null) {
+                System.err.println("Audit segment " + segment.file.getFileName() + " is damaged: " + segment.problem());
+            }
+            segments.add(segment);
+        }
+        if (segments.isEmpty()) {
+            segments.add(AuditSegment.create(segmentFile(1), 1, new byte[AuditSegment.HASH_BYTES],
+                    Math.toIntExact(segmentSize.toBytes()), indexInterval));
+        }
+        AuditSegment last = segments.get(segments.size() - 1);
+        nextSequence = last.lastSequence() + 1;
+        for (int i = segments.size() - 1; i >= 0 && lastTimestamp == null; i--) {
+            lastTimestamp = segments.get(i).lastTimestamp();
+        }
+        if (last.problem() != null) {
+            // Leave the damaged segment untouched for inspection
+            roll(last);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            for (AuditSegment segment : segments) {
+                segment.force();
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * Appends the entry and returns it with the id and timestamp it was
+     * stored under.
+     */
+    public AuditLog append(AuditLog entry) {
+        synchronized (appendLock) {
+            LocalDateTime timestamp = entry.getTimestamp() != null ? entry.getTimestamp() : LocalDateTime.now();
+            if (lastTimestamp != null && timestamp.isBefore(lastTimestamp)) {
+                timestamp = lastTimestamp;
+            }
+            entry.setId(nextSequence);
+            entry.setTimestamp(timestamp);
+            byte[] payload = AuditSegment.encode(entry);
+            AuditSegment current = segments.get(segments.size() - 1);
+            if (!current.append(entry, payload, digest)) {
+                if (AuditSegment.HEADER_BYTES + AuditSegment.RECORD_OVERHEAD + payload.length > segmentSize.toBytes()) {
+                    throw new IllegalArgumentException("Audit record of " + payload.length
+                            + " bytes does not fit in a segment");
+                }
+                try {
+                    current = roll(current);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Could not start a new audit segment", ex);
+                }
+                current.append(entry, payload, digest);
+            }
+            nextSequence++;
+            lastTimestamp = timestamp;
+            return entry;
+        }
+    }
+
+    // Matching records, newest first, at most limit of them
+    public List<AuditLog> find(Filter filter, int limit) {
+        List<AuditLog> found = new ArrayList<>();
+        try {
+            scan(filter, true, log -> {
+                found.add(log);
+                return found.size() < limit;
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return found;
+    }
+
+    public void scan(Filter filter, boolean newestFirst, Visitor visitor) throws IOException {
+        List<AuditSegment> snapshot = new ArrayList<>(segments);
+        for (int i = 0; i < snapshot.size(); i++) {
+            AuditSegment segment = snapshot.get(newestFirst ? snapshot.size() - 1 - i : i);
+            if (filter.beforeId() != null && segment.firstSequence >= filter.beforeId()) {
+                continue;
+            }
+            if (!segment.scan(filter, newestFirst, visitor)) {
+                return;
+            }
+        }
+    }
+
+    // Re-reads every record written so far and checks the chain end to end
+    public AuditChainReport verify() {
+        return AuditChainVerifier.check(new ArrayList<>(segments), sha256());
+    }
+
+    public String getDir() {
+        return dir;
+    }
+
+    // Called with appendLock held, or before the store is in use
+    private AuditSegment roll(AuditSegment current) throws IOException {
+        current.force();
+        AuditSegment next = AuditSegment.create(segmentFile(nextSequence), nextSequence, current.lastHash(),
+                Math.toIntExact(segmentSize.toBytes()), indexInterval);
+        segments.add(next);
+        return next;
+    }
+
+    private Path segmentFile(long firstSequence) {
+        return Paths.get(dir).resolve(String.format("audit-%020d.seg", firstSequence));
+    }
+
+    // Zero-padded first sequence numbers sort by name
+    static List<Path> segmentFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_GLOB)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
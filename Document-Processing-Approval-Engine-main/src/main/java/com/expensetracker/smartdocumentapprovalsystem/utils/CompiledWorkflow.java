@@ -0,0 +1,162 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.StageMode;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowDefinitionSpec;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Immutable state machine built once from a workflow definition version.
+ *
+ * When a document starts, its applicable stages (conditions evaluated against
+ * the document) are recorded as a bit mask, its plan. Every later transition
+ * is answered from the plan and the stage table without looking at the other
+ * steps: the next stage is the next set bit, and a stage is complete once its
+ * approval count reaches what its mode requires.
+ */
+public final class CompiledWorkflow {
+
+    // Plans are stored in a single BIGINT column
+    public static final int MAX_STAGES = 63;
+
+    private final long definitionId;
+    private final String name;
+    private final int version;
+    private final List<Stage> stages;
+
+    private CompiledWorkflow(long definitionId, String name, int version, List<Stage> stages) {
+        this.definitionId = definitionId;
+        this.name = name;
+        this.version = version;
+        this.stages = stages;
+    }
+
+    /**
+     * Validates the spec and builds the machine.
+     *
+     * @throws IllegalArgumentException if the spec is not a usable workflow
+     */
+    public static CompiledWorkflow compile(long definitionId, int version, WorkflowDefinitionSpec spec) {
+        if (spec.getName() == null || spec.getName().isBlank()) {
+            throw new IllegalArgumentException("Workflow definition needs a name");
+        }
+        List<WorkflowDefinitionSpec.StageSpec> stageSpecs = spec.getStages();
+        if (stageSpecs == null || stageSpecs.isEmpty()) {
+            throw new IllegalArgumentException("Workflow definition needs at least one stage");
+        }
+        if (stageSpecs.size() > MAX_STAGES) {
+            throw new IllegalArgumentException("Workflow definition has more than " + MAX_STAGES + " stages");
+        }
+
+        List<Stage> stages = new ArrayList<>();
+        for (int i = 0; i < stageSpecs.size(); i++) {
+            WorkflowDefinitionSpec.StageSpec stageSpec = stageSpecs.get(i);
+            if (stageSpec.getRoles() == null || stageSpec.getRoles().isEmpty()
+                    || stageSpec.getRoles().stream().anyMatch(Objects::isNull)) {
+                throw new IllegalArgumentException("Stage " + (i + 1) + " needs at least one reviewer role");
+            }
+            String stageName = stageSpec.getName() != null ? stageSpec.getName() : "Stage " + (i + 1);
+            StageMode mode = stageSpec.getMode() != null ? stageSpec.getMode() : StageMode.ALL;
+            stages.add(new Stage(i, stageName, mode, List.copyOf(stageSpec.getRoles()),
+                    compileCondition(stageSpec.getCondition())));
+        }
+        return new CompiledWorkflow(definitionId, spec.getName(), version, List.copyOf(stages));
+    }
+
+    public long getDefinitionId() {
+        return definitionId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getStageCount() {
+        return stages.size();
+    }
+
+    public Stage stage(int index) {
+        return stages.get(index);
+    }
+
+    // Bit i is set when stage i applies to the document
+    public long plan(Document document) {
+        long plan = 0;
+        for (Stage stage : stages) {
+            if (stage.condition().test(document)) {
+                plan |= 1L << stage.index();
+            }
+        }
+        return plan;
+    }
+
+    // First stage of the plan, or -1 if no stage applies
+    public static int firstStage(long plan) {
+        return plan == 0 ? -1 : Long.numberOfTrailingZeros(plan);
+    }
+
+    // Stage that follows the given one in the plan, or -1 when the workflow is finished
+    public static int nextStage(long plan, int current) {
+        long remaining = plan & (-1L << (current + 1));
+        return remaining == 0 ? -1 : Long.numberOfTrailingZeros(remaining);
+    }
+
+    public record Stage(int index, String name, StageMode mode, List<Role> roles,
+                        Predicate<Document> condition) {
+
+        public int requiredApprovals() {
+            return mode == StageMode.ANY ? 1 : roles.size();
+        }
+
+        public boolean completedBy(int approvals) {
+            return approvals >= requiredApprovals();
+        }
+    }
+
+    private static Predicate<Document> compileCondition(WorkflowDefinitionSpec.ConditionSpec condition) {
+        if (condition == null) {
+            return document -> true;
+        }
+        if (condition.getAttribute() == null || condition.getOperator() == null || condition.getValue() == null) {
+            throw new IllegalArgumentException("Stage condition needs attribute, operator and value");
+        }
+
+        Function<Document, String> attribute = switch (condition.getAttribute()) {
+            case "title" -> Document::getTitle;
+            case "extension" -> CompiledWorkflow::extensionOf;
+            case "uploaderRole" -> document -> document.getUploadedBy() != null
+                    && document.getUploadedBy().getRole() != null
+                    ? document.getUploadedBy().getRole().name() : null;
+            default -> throw new IllegalArgumentException("Unknown condition attribute: " + condition.getAttribute());
+        };
+        String expected = condition.getValue().toLowerCase(Locale.ROOT);
+        Predicate<String> test = switch (condition.getOperator().toUpperCase(Locale.ROOT)) {
+            case "EQUALS" -> actual -> actual.equals(expected);
+            case "NOT_EQUALS" -> actual -> !actual.equals(expected);
+            case "CONTAINS" -> actual -> actual.contains(expected);
+            case "ENDS_WITH" -> actual -> actual.endsWith(expected);
+            default -> throw new IllegalArgumentException("Unknown condition operator: " + condition.getOperator());
+        };
+        return document -> {
+            String actual = attribute.apply(document);
+            return test.test(actual != null ? actual.toLowerCase(Locale.ROOT) : "");
+        };
+    }
+
+    private static String extensionOf(Document document) {
+        String title = document.getTitle();
+        int dot = title != null ? title.lastIndexOf('.') : -1;
+        return dot >= 0 ? title.substring(dot + 1) : "";
+    }
+}
@@ -0,0 +1,52 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The progress columns of a document as its steps define them. Transitions
+ * count closed steps one at a time with {@link #stepClosed}; the rest is for
+ * when all of a document's steps are loaded anyway. {@link DocumentProgressReconciler}
+ * works the same definitions out in SQL and the two must agree.
+ */
+public final class DocumentProgress {
+
+    // Steps counted as completed: acted on, or no longer needed
+    public static final List<Status> CLOSED_STEP_STATUSES = List.of(Status.APPROVED, Status.REJECTED, Status.SKIPPED);
+
+    // Steps the current reviewer is expected to act on now; WAITING steps are not open for review yet
+    public static final List<Status> REVIEWABLE_STEP_STATUSES = List.of(Status.PENDING, Status.UNDER_REVIEW);
+
+    private static final Comparator<WorkFlow> REVIEW_ORDER = Comparator
+            .comparing(WorkFlow::getStage, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingInt(WorkFlow::getId);
+
+    private DocumentProgress() {
+    }
+
+    // Sets every progress column from the document's steps
+    public static void recount(Document document, List<WorkFlow> steps) {
+        document.setTotalSteps(steps.size());
+        document.setCompletedSteps((int) steps.stream()
+                .filter(step -> CLOSED_STEP_STATUSES.contains(step.getStatus()))
+                .count());
+        document.setCurrentReviewerId(currentReviewerId(steps));
+    }
+
+    public static void stepClosed(Document document) {
+        document.setCompletedSteps(document.getCompletedSteps() + 1);
+    }
+
+    public static Integer currentReviewerId(List<WorkFlow> steps) {
+        return steps.stream()
+                .filter(step -> REVIEWABLE_STEP_STATUSES.contains(step.getStatus()) && step.getReviewer() != null)
+                .min(REVIEW_ORDER)
+                // A reference's id is known without loading the user
+                .map(step -> step.getReviewer().getId())
+                .orElse(null);
+    }
+}
@@ -0,0 +1,162 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.DocumentProgressReport;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Recomputes the progress columns of documents from their workflow steps and
+ * compares them with what the transitions left there, a batch of
+ * {@code documents.progress.batch-size} documents per statement in id order.
+ *
+ * At startup it fills in rows written before the columns existed. {@link #check}
+ * only reports, so tests and monitoring can assert the columns are consistent;
+ * {@link #reconcile} also repairs. A repair bumps the document version and only
+ * applies if the version is still the one read, so it never overwrites a
+ * transition that committed in between.
+ */
+@Component
+public class DocumentProgressReconciler {
+
+    private static final int MAX_REPORTED_IDS = 100;
+
+    // Same definitions as DocumentProgress
+    private static final String CLOSED = ordinals(DocumentProgress.CLOSED_STEP_STATUSES);
+    private static final String REVIEWABLE = ordinals(DocumentProgress.REVIEWABLE_STEP_STATUSES);
+
+    private static final String SCAN_SQL = "select d.id, d.version, d.completed_steps, d.total_steps, " +
+            "d.current_stage, d.current_reviewer_id, u.email, " +
+            "(select count(*) from work_flow w where w.document_id = d.id and w.status in (" + CLOSED + ")) as counted_completed, " +
+            "(select count(*) from work_flow w where w.document_id = d.id) as counted_total, " +
+            "(select min(w.stage) from work_flow w where w.document_id = d.id and w.status in (" + REVIEWABLE + ")) as open_stage, " +
+            "(select w.reviewer_id from work_flow w where w.document_id = d.id and w.status in (" + REVIEWABLE + ") " +
+            "order by w.stage, w.id limit 1) as open_reviewer " +
+            "from documents d left join users u on u.id = d.uploaded_by " +
+            "where d.id > ? %s order by d.id limit ?";
+
+    private static final String REPAIR_SQL = "update documents set completed_steps = ?, total_steps = ?, " +
+            "current_stage = ?, current_reviewer_id = ?, version = version + 1 where id = ? and version = ?";
+
+    @Value("${documents.progress.batch-size:500}")
+    private int batchSize;
+
+    @Value("${documents.progress.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResourceVersionTracker resourceVersionTracker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        DocumentProgressReport report = scan(true, true);
+        if (report.getRepaired() > 0) {
+            System.out.println("Document progress backfilled for " + report.getRepaired() + " documents");
+        }
+    }
+
+    public DocumentProgressReport check() {
+        return scan(false, false);
+    }
+
+    public DocumentProgressReport reconcile() {
+        DocumentProgressReport report = scan(false, true);
+        if (report.getMismatched() > 0) {
+            System.err.println("Document progress repaired for " + report.getRepaired() + " of "
+                    + report.getMismatched() + " inconsistent documents, e.g. " + report.getMismatchedIds());
+        }
+        return report;
+    }
+
+    private DocumentProgressReport scan(boolean onlyMissing, boolean repair) {
+        String sql = String.format(SCAN_SQL, onlyMissing ? "and d.total_steps is null" : "");
+        DocumentProgressReport report = new DocumentProgressReport(0, 0, 0, new ArrayList<>());
+        long after = 0;
+        while (true) {
+            List<Row> rows = jdbcTemplate.query(sql, DocumentProgressReconciler::row, after, batchSize);
+            if (rows.isEmpty()) {
+                return report;
+            }
+            List<Row> mismatched = rows.stream().filter(Row::mismatched).toList();
+            report.setChecked(report.getChecked() + rows.size());
+            report.setMismatched(report.getMismatched() + mismatched.size());
+            for (Row row : mismatched) {
+                if (report.getMismatchedIds().size() < MAX_REPORTED_IDS) {
+                    report.getMismatchedIds().add(row.id());
+                }
+            }
+            if (repair && !mismatched.isEmpty()) {
+                report.setRepaired(report.getRepaired() + repair(mismatched));
+            }
+            after = rows.get(rows.size() - 1).id();
+        }
+    }
+
+    private int repair(List<Row> rows) {
+        int[] counts = jdbcTemplate.batchUpdate(REPAIR_SQL, rows, rows.size(), (statement, row) -> {
+            statement.setInt(1, row.countedCompleted());
+            statement.setInt(2, row.countedTotal());
+            statement.setObject(3, row.expectedStage());
+            statement.setObject(4, row.openReviewer());
+            statement.setLong(5, row.id());
+            statement.setLong(6, row.version());
+        })[0];
+        int repaired = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                repaired++;
+                if (rows.get(i).uploaderEmail() != null) {
+                    resourceVersionTracker.documentsChanged(rows.get(i).uploaderEmail());
+                }
+            }
+        }
+        return repaired;
+    }
+
+    private static Row row(ResultSet rs, int rowNum) throws SQLException {
+        return new Row(rs.getLong("id"), rs.getLong("version"),
+                rs.getObject("completed_steps", Integer.class), rs.getObject("total_steps", Integer.class),
+                rs.getObject("current_stage", Integer.class), rs.getObject("current_reviewer_id", Integer.class),
+                rs.getString("email"), rs.getInt("counted_completed"), rs.getInt("counted_total"),
+                rs.getObject("open_stage", Integer.class), rs.getObject("open_reviewer", Integer.class));
+    }
+
+    private static String ordinals(List<Status> statuses) {
+        return statuses.stream().map(status -> String.valueOf(status.ordinal())).collect(Collectors.joining(", "));
+    }
+
+    private record Row(long id, long version, Integer completedSteps, Integer totalSteps, Integer currentStage,
+                       Integer currentReviewerId, String uploaderEmail, int countedCompleted, int countedTotal,
+                       Integer openStage, Integer openReviewer) {
+
+        // A settled document keeps the stage it ended in
+        Integer expectedStage() {
+            return openStage != null ? openStage : currentStage;
+        }
+
+        boolean mismatched() {
+            return !Objects.equals(completedSteps, countedCompleted)
+                    || !Objects.equals(totalSteps, countedTotal)
+                    || !Objects.equals(currentStage, expectedStage())
+                    || !Objects.equals(currentReviewerId, openReviewer);
+        }
+    }
+}
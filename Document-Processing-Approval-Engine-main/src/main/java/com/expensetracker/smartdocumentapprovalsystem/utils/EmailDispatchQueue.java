@@ -0,0 +1,220 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.EmailDeadLetter;
+import com.expensetracker.smartdocumentapprovalsystem.dto.EmailDetailsDto;
+import com.expensetracker.smartdocumentapprovalsystem.dto.EmailDispatchStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends notification emails off the request thread. Emails go into a bounded
+ * queue served by a fixed pool of workers; a failed send is retried with
+ * exponential backoff (plus jitter) up to {@code email.dispatch.max-attempts},
+ * after which it is kept in a bounded dead-letter list that admins can inspect
+ * and re-drive.
+ */
+@Component
+public class EmailDispatchQueue {
+
+    @Value("${email.dispatch.workers:4}")
+    private int workers;
+
+    @Value("${email.dispatch.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${email.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${email.dispatch.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${email.dispatch.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    @Value("${email.dispatch.dead-letter-capacity:500}")
+    private int deadLetterCapacity;
+
+    @Value("${email.dispatch.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${spring.mail.username:noreply@documentapproval.com}")
+    private String fromEmail;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    private ThreadPoolExecutor workerPool;
+    private ScheduledExecutorService retryScheduler;
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger awaitingRetry = new AtomicInteger();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        workerPool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("email-dispatch-"));
+        workerPool.allowCoreThreadTimeOut(true);
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(namedThreads("email-retry-"));
+    }
+
+    public void enqueue(EmailDetailsDto email) {
+        submit(new Delivery(email, 1));
+    }
+
+    public EmailDispatchStats getStats() {
+        int deadLetterCount;
+        synchronized (deadLetters) {
+            deadLetterCount = deadLetters.size();
+        }
+        return new EmailDispatchStats(workerPool.getQueue().size(), inFlight.get(), awaitingRetry.get(),
+                deadLetterCount, sent.get(), retries.get(), rejected.get());
+    }
+
+    public List<EmailDeadLetter> getDeadLetters() {
+        List<EmailDeadLetter> result = new ArrayList<>();
+        synchronized (deadLetters) {
+            for (DeadLetter letter : deadLetters) {
+                result.add(new EmailDeadLetter(letter.email().getRecipient(), letter.email().getSubject(),
+                        letter.attempts(), letter.lastError(), letter.failedAt()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Moves every dead letter back onto the queue with a fresh attempt budget.
+     * Returns how many were re-queued.
+     */
+    public int retryDeadLetters() {
+        List<DeadLetter> letters;
+        synchronized (deadLetters) {
+            letters = new ArrayList<>(deadLetters);
+            deadLetters.clear();
+        }
+        letters.forEach(letter -> submit(new Delivery(letter.email(), 1)));
+        return letters.size();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Retries still waiting on their backoff are given up on; queued first attempts get to finish
+        int abandoned = retryScheduler.shutdownNow().size();
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+            abandoned += workerPool.shutdownNow().size();
+        }
+        if (abandoned > 0) {
+            System.err.println("Email dispatch stopped with " + abandoned + " emails unsent");
+        }
+    }
+
+    private void submit(Delivery delivery) {
+        try {
+            workerPool.execute(() -> attempt(delivery));
+        } catch (RejectedExecutionException ex) {
+            rejected.incrementAndGet();
+            deadLetter(delivery, "Dispatch queue full or shut down");
+        }
+    }
+
+    private void attempt(Delivery delivery) {
+        inFlight.incrementAndGet();
+        try {
+            send(delivery.email());
+            sent.incrementAndGet();
+        } catch (MailAuthenticationException | MailParseException | MailPreparationException ex) {
+            // Configuration or message problems: another attempt would fail the same way
+            deadLetter(delivery, ex.getMessage());
+        } catch (Exception ex) {
+            if (delivery.attempt() >= maxAttempts) {
+                deadLetter(delivery, ex.getMessage());
+            } else {
+                scheduleRetry(delivery);
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void send(EmailDetailsDto email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(email.getRecipient());
+        message.setSubject(email.getSubject());
+        message.setText(email.getBody());
+        mailSender.send(message);
+    }
+
+    private void scheduleRetry(Delivery delivery) {
+        retries.incrementAndGet();
+        awaitingRetry.incrementAndGet();
+        try {
+            retryScheduler.schedule(() -> {
+                awaitingRetry.decrementAndGet();
+                submit(new Delivery(delivery.email(), delivery.attempt() + 1));
+            }, backoffMillis(delivery.attempt()), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            awaitingRetry.decrementAndGet();
+            deadLetter(delivery, "Dispatch shut down before retry");
+        }
+    }
+
+    // Doubles per attempt up to the cap; the random half spreads out retries that failed together
+    long backoffMillis(int attempt) {
+        long base = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 30));
+        return base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+
+    private void deadLetter(Delivery delivery, String error) {
+        System.err.println("Failed to send email to " + delivery.email().getRecipient()
+                + " after " + delivery.attempt() + " attempt(s): " + error);
+        synchronized (deadLetters) {
+            if (deadLetters.size() >= deadLetterCapacity) {
+                deadLetters.pollFirst();
+            }
+            deadLetters.addLast(new DeadLetter(delivery.email(), delivery.attempt(), error, LocalDateTime.now()));
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Delivery(EmailDetailsDto email, int attempt) {
+    }
+
+    private record DeadLetter(EmailDetailsDto email, int attempts, String lastError, LocalDateTime failedAt) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEvent;
+import com.expensetracker.smartdocumentapprovalsystem.service.EmailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Notifies reviewers when their stage opens and uploaders when their document moves. Mails are only queued
+// in memory (EmailDispatchQueue), so they are lost if the instance dies before sending them
+@Component
+public class EmailEventSubscriber implements WorkflowEventSubscriber {
+
+    @Autowired
+    private EmailService emailService;
+
+    @Override
+    public void onEvent(WorkflowEvent event) {
+        onEvents(List.of(event));
+    }
+
+    // One transaction can move many documents (batch actions), so each person gets one email for all of them
+    @Override
+    public void onEvents(List<WorkflowEvent> events) {
+        Map<String, List<Notice>> byRecipient = new LinkedHashMap<>();
+        for (WorkflowEvent event : events) {
+            for (Notice notice : notices(event)) {
+                byRecipient.computeIfAbsent(notice.recipient(), recipient -> new ArrayList<>()).add(notice);
+            }
+        }
+        byRecipient.forEach((recipient, notices) -> {
+            if (notices.size() == 1) {
+                send(notices.get(0));
+            } else {
+                emailService.sendDigestNotification(recipient, notices.stream().map(Notice::summary).toList());
+            }
+        });
+    }
+
+    private List<Notice> notices(WorkflowEvent event) {
+        List<Notice> notices = new ArrayList<>();
+        switch (event.getType()) {
+            case STAGE_OPENED, STEP_REASSIGNED -> {
+                String uploaderName = event.getUploaderName() != null ? event.getUploaderName() : "Unknown";
+                for (String reviewerEmail : event.getRecipients()) {
+                    notices.add(new Notice(reviewerEmail, Kind.REVIEW, event.getDocumentTitle(), uploaderName));
+                }
+            }
+            case SLA_REMINDER -> {
+                for (String reviewerEmail : event.getRecipients()) {
+                    notices.add(new Notice(reviewerEmail, Kind.REMINDER, event.getDocumentTitle(), null));
+                }
+            }
+            case SLA_ESCALATED -> {
+                for (String recipient : event.getRecipients()) {
+                    notices.add(new Notice(recipient, Kind.ESCALATION, event.getDocumentTitle(), event.getActorName()));
+                }
+            }
+            case STEP_UNDER_REVIEW, STEP_APPROVED, STEP_REJECTED -> addUploaderNotice(notices, event,
+                    event.getType().name().substring("STEP_".length()));
+            case DOCUMENT_COMPLETED -> {
+                // A rejection was already reported by its STEP_REJECTED event
+                if (event.getStatus() == Status.APPROVED) {
+                    addUploaderNotice(notices, event, "APPROVED - All reviews completed successfully");
+                }
+            }
+            default -> {
+            }
+        }
+        return notices;
+    }
+
+    private static void addUploaderNotice(List<Notice> notices, WorkflowEvent event, String status) {
+        if (event.getUploaderEmail() != null) {
+            notices.add(new Notice(event.getUploaderEmail(), Kind.STATUS, event.getDocumentTitle(), status));
+        }
+    }
+
+    private void send(Notice notice) {
+        switch (notice.kind()) {
+            case REVIEW -> emailService.sendDocumentUploadNotification(notice.recipient(), notice.documentTitle(),
+                    notice.detail());
+            case STATUS -> emailService.sendDocumentApprovalNotification(notice.recipient(), notice.documentTitle(),
+                    notice.detail());
+            case REMINDER -> emailService.sendReviewReminder(notice.recipient(), notice.documentTitle());
+            case ESCALATION -> emailService.sendEscalationNotification(notice.recipient(), notice.documentTitle(),
+                    notice.detail());
+        }
+    }
+
+    private enum Kind { REVIEW, STATUS, REMINDER, ESCALATION }
+
+    // detail is the uploader's name for REVIEW, the new status for STATUS and the late reviewer for ESCALATION
+    private record Notice(String recipient, Kind kind, String documentTitle, String detail) {
+        String summary() {
+            return switch (kind) {
+                case REVIEW -> "'" + documentTitle + "' from " + detail + " is pending your review";
+                case STATUS -> "'" + documentTitle + "' has been " + detail.toLowerCase();
+                case REMINDER -> "'" + documentTitle + "' is past its review deadline";
+                case ESCALATION -> "'" + documentTitle + "' is overdue with " + detail;
+            };
+        }
+    }
+}
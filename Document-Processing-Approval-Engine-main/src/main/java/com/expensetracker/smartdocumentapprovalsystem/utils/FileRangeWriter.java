@@ -0,0 +1,193 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves a stored file with HTTP range support ({@code Range}, {@code If-Range},
+ * 206 single and multipart/byteranges responses) and conditional GETs
+ * ({@code If-None-Match}, {@code If-Modified-Since} answered with 304). Bytes are moved with
+ * {@link FileChannel#transferTo}, and single-region responses are handed to
+ * Tomcat's sendfile when the connector offers it, so file content is never
+ * buffered in the Java heap.
+ */
+@Component
+public class FileRangeWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    public void write(HttpServletRequest request, HttpServletResponse response, Path file,
+                      String contentType, String filename, String etag) throws IOException {
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Sets ETag and Last-Modified, and the 304 status when the client copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build().toString());
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            sendRegion(request, response, file, 0, length);
+            return;
+        }
+
+        List<long[]> regions = resolveRegions(rangeHeader, length);
+        if (regions == null) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (regions.size() == 1) {
+            long start = regions.get(0)[0];
+            long end = regions.get(0)[1];
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            sendRegion(request, response, file, start, end - start + 1);
+        } else {
+            writeMultipart(response, file, contentType, length, regions);
+        }
+    }
+
+    /**
+     * Copies {@code count} bytes starting at {@code position} into the target
+     * channel using {@link FileChannel#transferTo}, which lets the kernel move the
+     * data when the target supports it.
+     */
+    public void transferRange(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        long offset = position;
+        long remaining = count;
+        while (remaining > 0) {
+            long transferred = channel.transferTo(offset, remaining, target);
+            if (transferred <= 0) {
+                throw new IOException("File ended before the requested range could be sent");
+            }
+            offset += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    private void sendRegion(HttpServletRequest request, HttpServletResponse response,
+                            Path file, long start, long count) throws IOException {
+        response.setContentLengthLong(count);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat streams the file itself (sendfile) once the servlet returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            transferRange(channel, start, count, Channels.newChannel(out));
+            out.flush();
+        }
+    }
+
+    private void writeMultipart(HttpServletResponse response, Path file, String contentType,
+                                long length, List<long[]> regions) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(regions.size());
+        long contentLength = 0;
+        for (long[] region : regions) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + region[0] + "-" + region[1] + "/" + length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + (region[1] - region[0] + 1);
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            for (int i = 0; i < regions.size(); i++) {
+                long[] region = regions.get(i);
+                out.write(partHeaders.get(i));
+                transferRange(channel, region[0], region[1] - region[0] + 1, target);
+            }
+            out.write(closing);
+            out.flush();
+        }
+    }
+
+    // Returns inclusive [start, end] pairs, or null when the header cannot be satisfied
+    private List<long[]> resolveRegions(String rangeHeader, long length) {
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        List<long[]> regions = new ArrayList<>(ranges.size());
+        long total = 0;
+        for (HttpRange range : ranges) {
+            try {
+                long start = range.getRangeStart(length);
+                long end = range.getRangeEnd(length);
+                if (start > end) {
+                    return null;
+                }
+                regions.add(new long[]{start, end});
+                total += end - start + 1;
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+        }
+        // Overlapping ranges that add up to more than the file are rejected rather than amplified
+        return regions.isEmpty() || total > length ? null : regions;
+    }
+
+    private boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            // Only strong validators may be used with If-Range
+            return !value.startsWith("W/") && value.equals(etag);
+        }
+        try {
+            long since = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return lastModified / 1000 == since / 1000;
+        } catch (DateTimeParseException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+public class FileSignatureUtil {
+
+    // Enough leading bytes to recognise every signature below
+    public static final int HEADER_LENGTH = 8;
+
+    private static final Map<String, byte[]> SIGNATURES = Map.of(
+            "pdf", new byte[]{0x25, 0x50, 0x44, 0x46},                                      // %PDF
+            "docx", new byte[]{0x50, 0x4B, 0x03, 0x04},                                     // ZIP container
+            "doc", new byte[]{(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0,
+                    (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1}                            // OLE2 compound file
+    );
+
+    /**
+     * Checks the leading bytes of a file against the signature expected for its
+     * extension. Extensions without a known signature are accepted as-is.
+     */
+    public boolean matchesExtension(String filename, byte[] header, int length) {
+        String extension = extensionOf(filename);
+        if (extension.equals("txt")) {
+            // Plain text must not contain NUL bytes
+            for (int i = 0; i < length; i++) {
+                if (header[i] == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        byte[] signature = SIGNATURES.get(extension);
+        if (signature == null) {
+            return true;
+        }
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (header[i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String extensionOf(String filename) {
+        if (filename == null || !filename.contains(".")) {
+            return "";
+        }
+        return filename.substring(filename.lastIndexOf('.') + 1).toLowerCase();
+    }
+}
@@ -1,50 +1,184 @@
 package com.expensetracker.smartdocumentapprovalsystem.utils;
 
+import com.expensetracker.smartdocumentapprovalsystem.exception.InvalidFileException;
+import com.expensetracker.smartdocumentapprovalsystem.model.StoredBlob;
+import com.expensetracker.smartdocumentapprovalsystem.repository.StoredBlobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
 
+/**
+ * Content-addressed file store. Every upload is hashed with SHA-256 while it is
+ * written and kept once per digest under {@code <upload-dir>/blobs/ab/<digest>}.
+ * Documents reference the digest, and a reference count on {@link StoredBlob}
+ * decides when the blob can be removed from disk.
+ */
 @Component
 public class FileStorageUtil {
 
+    private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final int LOCK_STRIPES = 64;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     @Value("${file.upload-dir:uploads}")
     private String uploadDir;
 
+    // Same limit as the servlet multipart config, so streamed uploads are bounded identically
+    @Value("${spring.servlet.multipart.max-file-size:10MB}")
+    private DataSize maxFileSize;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private FileSignatureUtil fileSignatureUtil;
+
+    // Serializes reference count changes and file moves for the same digest within this instance
+    private final Object[] digestLocks = new Object[LOCK_STRIPES];
+
+    public FileStorageUtil() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            digestLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Stores the file and returns its SHA-256 digest, which is what
+     * {@code Document.uploadPath} keeps. Re-uploading identical content only
+     * bumps the reference count of the existing blob.
+     */
     public String storeFile(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return storeStream(in, file.getOriginalFilename());
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file. Please try again!", ex);
+        }
+    }
+
+    /**
+     * Writes the stream through a {@link FileChannel} into the blob area in a
+     * single pass: the digest, the size limit and the file signature check all
+     * run on the same buffer as the write, so nothing is spooled or re-read.
+     */
+    public String storeStream(InputStream in, String originalFilename) {
         try {
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+            Path tempFile = Files.createTempFile(createDirectories(tempDir()), "upload-", ".part");
+            try {
+                MessageDigest sha256 = newSha256();
+                long maxBytes = maxFileSize.toBytes();
+                long size = 0;
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                byte[] header = new byte[FileSignatureUtil.HEADER_LENGTH];
+                int headerLength = 0;
+                boolean signatureChecked = false;
+
+                try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        size += read;
+                        if (size > maxBytes) {
+                            throw new MaxUploadSizeExceededException(maxBytes);
+                        }
+                        if (!signatureChecked) {
+                            int count = Math.min(read, header.length - headerLength);
+                            System.arraycopy(buffer, 0, header, headerLength, count);
+                            headerLength += count;
+                            if (headerLength == header.length) {
+                                verifySignature(originalFilename, header, headerLength);
+                                signatureChecked = true;
+                            }
+                        }
+                        sha256.update(buffer, 0, read);
+                        ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                        while (chunk.hasRemaining()) {
+                            channel.write(chunk);
+                        }
+                    }
+                }
+                if (!signatureChecked) {
+                    verifySignature(originalFilename, header, headerLength);
+                }
+                return commitBlob(tempFile, HexFormat.of().formatHex(sha256.digest()), size);
+            } finally {
+                Files.deleteIfExists(tempFile);
             }
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file. Please try again!", ex);
+        }
+    }
 
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+    /**
+     * Drops one reference to the stored file. The blob is deleted from disk once
+     * no document points at it any more.
+     */
+    public void releaseFile(String filePath) {
+        if (filePath == null) {
+            return;
+        }
+        try {
+            if (!isBlobReference(filePath)) {
+                // Files stored before content addressing are unique per document
+                Files.deleteIfExists(resolveLegacyPath(filePath));
+                return;
+            }
+            synchronized (lockFor(filePath)) {
+                if (storedBlobRepository.decrementRefCount(filePath) > 0
+                        && storedBlobRepository.deleteIfUnreferenced(filePath) > 0) {
+                    Files.deleteIfExists(blobPath(filePath));
+                }
             }
-            String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
+        } catch (IOException ex) {
+            // The reference is already gone; an orphaned file only costs disk space
+            System.err.println("Failed to delete stored file " + filePath + ": " + ex.getMessage());
+        }
+    }
 
-            // Store file
-            Path targetLocation = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+    public boolean isBlobReference(String filePath) {
+        return filePath != null && DIGEST_PATTERN.matcher(filePath).matches();
+    }
 
-            return targetLocation.toString();
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not store file. Please try again!", ex);
+    /**
+     * Strong entity tag for a stored file. Content-addressed blobs use their
+     * digest; older per-upload files fall back to size and modification time.
+     */
+    public String entityTag(String filePath, Path resolvedPath) throws IOException {
+        if (isBlobReference(filePath)) {
+            return "\"" + filePath + "\"";
         }
+        return "\"" + Files.size(resolvedPath) + "-" + Files.getLastModifiedTime(resolvedPath).toMillis() + "\"";
     }
 
     public Path loadFileAsResource(String filePath) {
         try {
+            if (isBlobReference(filePath)) {
+                Path blob = blobPath(filePath);
+                if (Files.exists(blob)) {
+                    return blob;
+                }
+                throw new RuntimeException("File not found: " + filePath);
+            }
+
             // Check if the filePath is already an absolute path
             Path path = Paths.get(filePath);
             if (path.isAbsolute()) {
@@ -67,4 +201,73 @@ public class FileStorageUtil {
             throw new RuntimeException("File not found: " + filePath, ex);
         }
     }
+
+    private String commitBlob(Path tempFile, String digest, long size) throws IOException {
+        Path target = blobPath(digest);
+        synchronized (lockFor(digest)) {
+            if (storedBlobRepository.incrementRefCount(digest) > 0) {
+                // Known content: only repair the file if it went missing on disk
+                if (!Files.exists(target)) {
+                    moveIntoPlace(tempFile, target);
+                }
+                return digest;
+            }
+
+            moveIntoPlace(tempFile, target);
+            try {
+                storedBlobRepository.save(new StoredBlob(digest, size, 1, LocalDateTime.now(), null));
+            } catch (DataIntegrityViolationException ex) {
+                // Another instance registered the same digest first
+                storedBlobRepository.incrementRefCount(digest);
+            }
+            return digest;
+        }
+    }
+
+    private void verifySignature(String filename, byte[] header, int length) {
+        if (!fileSignatureUtil.matchesExtension(filename, header, length)) {
+            throw new InvalidFileException("File content does not match its extension: " + filename);
+        }
+    }
+
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path blobPath(String digest) {
+        return Paths.get(uploadDir, "blobs", digest.substring(0, 2), digest);
+    }
+
+    private Path tempDir() {
+        return Paths.get(uploadDir, "tmp");
+    }
+
+    private Path resolveLegacyPath(String filePath) {
+        Path path = Paths.get(filePath);
+        return path.isAbsolute() || Files.exists(path) ? path : Paths.get(uploadDir).resolve(filePath).normalize();
+    }
+
+    private Path createDirectories(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            Files.createDirectories(dir);
+        }
+        return dir;
+    }
+
+    private Object lockFor(String digest) {
+        return digestLocks[Math.floorMod(digest.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
 }
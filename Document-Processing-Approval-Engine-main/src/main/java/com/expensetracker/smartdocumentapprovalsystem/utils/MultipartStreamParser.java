@@ -0,0 +1,252 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Forward-only parser for {@code multipart/form-data} request bodies. Parts are
+ * handed out one at a time as streams that end at the next boundary, so a file
+ * part can be written to its destination without being buffered or spooled first.
+ * The whole body is counted as it is read and cut off with
+ * {@link MaxUploadSizeExceededException} once it passes the given limit.
+ */
+public class MultipartStreamParser {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+
+    private final InputStream in;
+    private final long maxBodyBytes;
+    private final byte[] delimiter;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private boolean eof;
+    private boolean finished;
+    private PartInputStream current;
+    private long bodyBytes;
+
+    public MultipartStreamParser(InputStream in, String contentType) {
+        this(in, contentType, Long.MAX_VALUE);
+    }
+
+    public MultipartStreamParser(InputStream in, String contentType, long maxBodyBytes) {
+        this.in = in;
+        this.maxBodyBytes = maxBodyBytes;
+        this.delimiter = ("\r\n--" + extractBoundary(contentType)).getBytes(StandardCharsets.ISO_8859_1);
+        // Pretend the body starts with CRLF so the first boundary matches the same delimiter as the others
+        buf[0] = '\r';
+        buf[1] = '\n';
+        limit = 2;
+    }
+
+    /**
+     * Advances to the next part, skipping whatever is left of the current one.
+     * Returns null once the closing boundary has been read.
+     */
+    public Part nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        // The first call skips the preamble, later calls the unread rest of the previous part
+        PartInputStream previous = current != null ? current : new PartInputStream();
+        previous.skipRemaining();
+
+        ensure(2);
+        if (buf[pos] == '-' && buf[pos + 1] == '-') {
+            finished = true;
+            return null;
+        }
+        while (buf[pos] == ' ' || buf[pos] == '\t') {
+            pos++;
+            ensure(2);
+        }
+
+        String headerBlock = readHeaderBlock();
+        String name = null;
+        String filename = null;
+        String partContentType = null;
+        for (String line : headerBlock.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String headerName = line.substring(0, colon).trim();
+            String headerValue = line.substring(colon + 1).trim();
+            if (headerName.equalsIgnoreCase("Content-Disposition")) {
+                ContentDisposition disposition = ContentDisposition.parse(headerValue);
+                name = disposition.getName();
+                filename = disposition.getFilename();
+            } else if (headerName.equalsIgnoreCase("Content-Type")) {
+                partContentType = headerValue;
+            }
+        }
+
+        current = new PartInputStream();
+        return new Part(name, filename, partContentType, current);
+    }
+
+    private String readHeaderBlock() throws IOException {
+        while (true) {
+            int idx = indexOf(HEADER_END, pos);
+            if (idx >= 0) {
+                String block = new String(buf, pos, idx - pos, StandardCharsets.UTF_8);
+                pos = idx + HEADER_END.length;
+                return block;
+            }
+            if (limit - pos > MAX_HEADER_BYTES) {
+                throw new IOException("Multipart part headers are too large");
+            }
+            if (eof) {
+                throw new IOException("Unexpected end of multipart stream while reading part headers");
+            }
+            fill();
+        }
+    }
+
+    private void ensure(int count) throws IOException {
+        while (limit - pos < count) {
+            if (eof) {
+                throw new IOException("Unexpected end of multipart stream");
+            }
+            fill();
+        }
+    }
+
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        int read = in.read(buf, limit, buf.length - limit);
+        if (read == -1) {
+            eof = true;
+        } else {
+            bodyBytes += read;
+            if (bodyBytes > maxBodyBytes) {
+                throw new MaxUploadSizeExceededException(maxBodyBytes);
+            }
+            limit += read;
+        }
+    }
+
+    private int indexOf(byte[] pattern, int from) {
+        int last = limit - pattern.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buf[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static String extractBoundary(String contentType) {
+        if (contentType == null) {
+            throw new IllegalArgumentException("Missing Content-Type for multipart upload");
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        if (!MediaType.MULTIPART_FORM_DATA.includes(mediaType)) {
+            throw new IllegalArgumentException("Expected multipart/form-data but got " + contentType);
+        }
+        String boundary = mediaType.getParameter("boundary");
+        if (!StringUtils.hasText(boundary)) {
+            throw new IllegalArgumentException("Missing multipart boundary");
+        }
+        if (boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+            boundary = boundary.substring(1, boundary.length() - 1);
+        }
+        return boundary;
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class Part {
+        private final String name;
+        private final String filename;
+        private final String contentType;
+        // Stream over the part body; ends at the next boundary
+        private final InputStream inputStream;
+
+        public boolean isFile() {
+            return filename != null;
+        }
+
+        public String readString(int maxBytes) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[1024];
+            int read;
+            while ((read = inputStream.read(chunk)) != -1) {
+                if (out.size() + read > maxBytes) {
+                    throw new IOException("Form field '" + name + "' exceeds " + maxBytes + " bytes");
+                }
+                out.write(chunk, 0, read);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private class PartInputStream extends InputStream {
+
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                int idx = indexOf(delimiter, pos);
+                if (idx == pos) {
+                    pos += delimiter.length;
+                    done = true;
+                    return -1;
+                }
+                // Without a match, hold back enough bytes to recognise a delimiter split across reads
+                int available = idx >= 0 ? idx - pos : limit - pos - (delimiter.length - 1);
+                if (available > 0) {
+                    int count = Math.min(len, available);
+                    System.arraycopy(buf, pos, b, off, count);
+                    pos += count;
+                    return count;
+                }
+                if (eof) {
+                    throw new IOException("Unexpected end of multipart stream");
+                }
+                fill();
+            }
+        }
+
+        void skipRemaining() throws IOException {
+            byte[] scratch = new byte[8 * 1024];
+            while (read(scratch, 0, scratch.length) != -1) {
+                // discard
+            }
+        }
+    }
+}
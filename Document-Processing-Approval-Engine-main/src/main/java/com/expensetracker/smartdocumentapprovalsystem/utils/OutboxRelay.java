@@ -0,0 +1,266 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.OutboxStats;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEvent;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEventType;
+import com.expensetracker.smartdocumentapprovalsystem.repository.OutboxEntryRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Read side of the outbox. One background thread claims committed outbox rows
+ * in id order, {@code outbox.relay.batch-size} at a time, hands the events of
+ * each row to every {@link WorkflowEventSubscriber} bean and deletes the
+ * delivered rows in one batch. It polls every {@code outbox.relay.poll-interval-ms} and is woken
+ * straight after commits that wrote events.
+ *
+ * Claiming locks the rows with {@code for update skip locked} and sets their
+ * available_at to a lease of {@code outbox.relay.lease-ms}, so with several
+ * instances each row goes to one relay; if that instance dies the row comes
+ * back when the lease runs out.
+ *
+ * Delivery is tracked per subscriber. When one throws, the row keeps the
+ * names of those that succeeded, its attempt count goes up, and only the
+ * others are offered the events again (at-least-once), after a backoff that
+ * doubles from {@code outbox.relay.retry-backoff-ms} up to
+ * {@code outbox.relay.max-backoff-ms}. After {@code outbox.relay.max-attempts}
+ * the row stays in the table as a dead letter.
+ *
+ * A row is deleted once every subscriber has returned, so the guarantee only
+ * reaches as far as what each subscriber has made durable by then. The audit
+ * subscriber inserts its rows before returning. The email subscriber only
+ * hands its mails to the in-memory {@link EmailDispatchQueue}: an instance that
+ * dies before sending them loses those emails.
+ * Plain JDBC keeps the constant polling out of the SQL log.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final String SELECT_SQL = "select id, payload, delivered_to, attempts from outbox_entries " +
+            "where attempts < ? and (available_at is null or available_at <= ?) order by id limit ? " +
+            "for update skip locked";
+    private static final String LEASE_SQL = "update outbox_entries set available_at = ? where id = ?";
+    private static final String DELETE_SQL = "delete from outbox_entries where id = ?";
+    private static final String FAILED_SQL = "update outbox_entries set attempts = attempts + 1, " +
+            "delivered_to = ?, available_at = ? where id = ?";
+    private static final TypeReference<List<WorkflowEvent>> EVENTS = new TypeReference<>() {
+    };
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.relay.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.relay.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${outbox.relay.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${outbox.relay.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Value("${outbox.relay.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxEntryRepository outboxEntryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private List<WorkflowEventSubscriber> subscribers;
+
+    private record Row(long id, String payload, Set<String> deliveredTo, int attempts) {
+    }
+
+    private Thread relay;
+    private volatile boolean running;
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failedDeliveries = new AtomicLong();
+    private final AtomicLong maxLagMs = new AtomicLong();
+    private final AtomicLongArray deliveredByType = new AtomicLongArray(WorkflowEventType.values().length);
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        relay = new Thread(this::runRelay, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    public void wakeUp() {
+        LockSupport.unpark(relay);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(relay);
+        relay.join(shutdownTimeoutMs);
+        // Undelivered rows stay in the table and go out on the next start
+    }
+
+    public OutboxStats getStats() {
+        Map<WorkflowEventType, Long> byType = new EnumMap<>(WorkflowEventType.class);
+        for (WorkflowEventType type : WorkflowEventType.values()) {
+            byType.put(type, deliveredByType.get(type.ordinal()));
+        }
+        return new OutboxStats(outboxEntryRepository.countByAttemptsLessThan(maxAttempts),
+                outboxEntryRepository.countByAttemptsGreaterThanEqual(maxAttempts),
+                delivered.get(), failedDeliveries.get(), maxLagMs.get(), byType);
+    }
+
+    private void runRelay() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMs);
+        while (running) {
+            try {
+                // A full batch means more are probably waiting
+                if (relayBatch() < batchSize) {
+                    LockSupport.parkNanos(this, intervalNanos);
+                }
+            } catch (RuntimeException ex) {
+                System.err.println("Outbox relay error: " + ex.getMessage());
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+        }
+    }
+
+    // Returns how many rows were claimed
+    int relayBatch() {
+        List<Row> rows = claim();
+        List<Long> deliveredIds = new ArrayList<>();
+        List<Row> failed = new ArrayList<>();
+        for (Row row : rows) {
+            if (deliver(row)) {
+                deliveredIds.add(row.id());
+            } else {
+                failed.add(row);
+            }
+        }
+        if (!deliveredIds.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, deliveredIds, deliveredIds.size(), (ps, id) -> ps.setLong(1, id));
+        }
+        if (!failed.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.batchUpdate(FAILED_SQL, failed, failed.size(), (ps, row) -> {
+                ps.setString(1, row.deliveredTo().isEmpty() ? null : String.join(",", row.deliveredTo()));
+                ps.setTimestamp(2, Timestamp.valueOf(now.plus(backoff(row.attempts() + 1), ChronoUnit.MILLIS)));
+                ps.setLong(3, row.id());
+            });
+        }
+        return rows.size();
+    }
+
+    // Locks the next rows, skipping any another relay holds, and leases them to this one
+    private List<Row> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(tx -> {
+            // getString, since the text columns come back as CLOBs from some drivers
+            List<Row> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Row(rs.getLong("id"),
+                    rs.getString("payload"), subscriberNames(rs.getString("delivered_to")), rs.getInt("attempts")),
+                    maxAttempts, Timestamp.valueOf(now), batchSize);
+            if (!rows.isEmpty()) {
+                Timestamp leasedUntil = Timestamp.valueOf(now.plus(leaseMs, ChronoUnit.MILLIS));
+                jdbcTemplate.batchUpdate(LEASE_SQL, rows, rows.size(), (ps, row) -> {
+                    ps.setTimestamp(1, leasedUntil);
+                    ps.setLong(2, row.id());
+                });
+            }
+            return rows;
+        });
+    }
+
+    // Delay before the given attempt, doubling each time
+    long backoff(int failedAttempts) {
+        int doublings = Math.min(Math.max(failedAttempts - 1, 0), 30);
+        return Math.min(retryBackoffMs << doublings, maxBackoffMs);
+    }
+
+    // Offers the events to the subscribers that do not have them yet; true once all do
+    private boolean deliver(Row row) {
+        List<WorkflowEvent> events;
+        try {
+            events = objectMapper.readValue(row.payload(), EVENTS);
+        } catch (IOException ex) {
+            System.err.println("Unreadable outbox entry " + row.id() + ": " + ex.getMessage());
+            failedDeliveries.incrementAndGet();
+            return false;
+        }
+        boolean ok = true;
+        for (WorkflowEventSubscriber subscriber : subscribers) {
+            String name = nameOf(subscriber);
+            if (row.deliveredTo().contains(name)) {
+                continue;
+            }
+            try {
+                subscriber.onEvents(events);
+                row.deliveredTo().add(name);
+            } catch (RuntimeException ex) {
+                System.err.println("Outbox subscriber " + name + " failed on outbox entry " + row.id()
+                        + ": " + ex.getMessage());
+                ok = false;
+            }
+        }
+        if (!ok) {
+            failedDeliveries.incrementAndGet();
+            return false;
+        }
+        for (WorkflowEvent event : events) {
+            delivered.incrementAndGet();
+            deliveredByType.incrementAndGet(event.getType().ordinal());
+            if (event.getOccurredAt() != null) {
+                maxLagMs.accumulateAndGet(Duration.between(event.getOccurredAt(), LocalDateTime.now()).toMillis(), Math::max);
+            }
+        }
+        return true;
+    }
+
+    private static String nameOf(WorkflowEventSubscriber subscriber) {
+        return ClassUtils.getUserClass(subscriber).getSimpleName();
+    }
+
+    private static Set<String> subscriberNames(String column) {
+        Set<String> names = new LinkedHashSet<>();
+        if (column != null && !column.isBlank()) {
+            names.addAll(Arrays.asList(column.split(",")));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,35 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position of the last row of a page: its sort timestamp (null for lists
+ * keyed on id alone) and id. Clients only ever see it as an opaque URL-safe token.
+ */
+public record PageCursor(LocalDateTime timestamp, Long id) {
+
+    // Position before the first row; pages from here run the query without a keyset predicate
+    public static final PageCursor START = new PageCursor(null, null);
+
+    public String encode() {
+        String raw = (timestamp != null ? timestamp.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String timestamp = raw.substring(0, separator);
+            return new PageCursor(timestamp.isEmpty() ? null : LocalDateTime.parse(timestamp),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Users whose reads must not come from a read replica for now: those who just
+ * committed a write, and those whose document list or inbox another user's
+ * transition just changed. Each is kept for
+ * {@code datasource.replica.sticky-window-ms}, which should cover the
+ * replication lag replicas are allowed to have, so a user never reads a
+ * replica that has not caught up with their own upload or approval, and a
+ * list is never cached under its new ETag with the old content. Lists many
+ * users share are kept by name the same way, and their reads are pinned to the
+ * primary with {@link #onPrimary}.
+ *
+ * Like the ETags, this lives in this JVM only.
+ */
+@Component
+public class ReadYourWritesWindow {
+
+    @Value("${datasource.replica.sticky-window-ms:10000}")
+    private long windowMs;
+
+    @Value("${datasource.replica.sticky-max-size:100000}")
+    private long maxSize;
+
+    private Cache<String, Boolean> recent;
+    private final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+
+    @PostConstruct
+    public void init() {
+        recent = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .build();
+    }
+
+    // Starts, or restarts, the user's window
+    public void mark(String email) {
+        recent.put(email, Boolean.TRUE);
+    }
+
+    public boolean isRecent(String email) {
+        return recent.getIfPresent(email) != null;
+    }
+
+    // Runs a read on the primary whoever the user is
+    public <T> T onPrimary(Supplier<T> read) {
+        pinned.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            pinned.remove();
+        }
+    }
+
+    public boolean isPinned() {
+        return pinned.get() != null;
+    }
+}
@@ -0,0 +1,176 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the statements of {@code @Transactional(readOnly = true)} work to a
+ * read replica and everything else to the primary. Must sit behind a
+ * LazyConnectionDataSourceProxy, so the connection is only picked once the
+ * transaction's read-only flag is known, and spring.jpa.open-in-view must be
+ * off: a session held across a request keeps its first connection, and with it
+ * the route, for every later transaction of the request.
+ *
+ * A read goes to the primary anyway when nobody is signed in (sign-in and
+ * registration read what they just wrote), when the user is inside their
+ * {@link ReadYourWritesWindow} or the read is pinned there, or when no replica is within
+ * {@code datasource.replica.max-lag-ms}. Replicas otherwise take turns.
+ *
+ * Lag comes from a heartbeat: from {@link #start()} on, every
+ * {@code datasource.replica.lag-check-interval-ms} one thread reads the
+ * replication_heartbeat row on each replica and then writes the current time
+ * to it on the primary. A replica holding the last beat written counts as
+ * caught up; one holding an older beat lags by at most the time since that
+ * beat, which is what is counted. A replica that cannot be read counts as
+ * lagging without bound.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica-";
+    private static final String READ_BEAT_SQL = "select beat_at from replication_heartbeat where id = 1";
+    private static final String UPDATE_BEAT_SQL = "update replication_heartbeat set beat_at = ? where id = 1";
+    private static final String INSERT_BEAT_SQL = "insert into replication_heartbeat (id, beat_at) values (1, ?)";
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private final long maxLagMs;
+    private final long checkIntervalMs;
+
+    private final AtomicLongArray lagMs;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private volatile long lastBeat;
+    private Thread monitor;
+    private volatile boolean running;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    ReadYourWritesWindow readYourWritesWindow, long maxLagMs, long checkIntervalMs) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.maxLagMs = maxLagMs;
+        this.checkIntervalMs = checkIntervalMs;
+        this.lagMs = new AtomicLongArray(replicas.size());
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(REPLICA + i, replicas.get(i));
+            lagMs.set(i, Long.MAX_VALUE);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    // Called once the migrations have created replication_heartbeat
+    public void start() {
+        running = true;
+        monitor = new Thread(this::runMonitor, "replica-lag-monitor");
+        monitor.setDaemon(true);
+        monitor.start();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (monitor != null) {
+            LockSupport.unpark(monitor);
+        }
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                // The window starts when the write is visible on the primary
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        readYourWritesWindow.mark(user);
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+        if (user == null || readYourWritesWindow.isPinned() || readYourWritesWindow.isRecent(user)) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int replica = (start + i) % replicas.size();
+            if (lagMs.get(replica) <= maxLagMs) {
+                return REPLICA + replica;
+            }
+        }
+        return PRIMARY;
+    }
+
+    public long getLagMs(int replica) {
+        return lagMs.get(replica);
+    }
+
+    // Measures every replica against the last beat, then writes the next one
+    public void checkLag() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < replicas.size(); i++) {
+            lagMs.set(i, measureLag(replicas.get(i), now));
+        }
+        Timestamp beat = new Timestamp(now);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(primary);
+        if (jdbcTemplate.update(UPDATE_BEAT_SQL, beat) == 0) {
+            jdbcTemplate.update(INSERT_BEAT_SQL, beat);
+        }
+        lastBeat = now;
+    }
+
+    private long measureLag(HikariDataSource replica, long now) {
+        try {
+            List<Timestamp> beats = new JdbcTemplate(replica).queryForList(READ_BEAT_SQL, Timestamp.class);
+            if (beats.isEmpty() || lastBeat == 0) {
+                return Long.MAX_VALUE;
+            }
+            long beat = beats.get(0).getTime();
+            return beat >= lastBeat ? 0 : now - beat;
+        } catch (RuntimeException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private void runMonitor() {
+        while (running) {
+            try {
+                checkLag();
+            } catch (RuntimeException ex) {
+                System.err.println("Replica lag check failed: " + ex.getMessage());
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(checkIntervalMs));
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,109 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * In-memory version counters behind the ETags of the polled list endpoints.
+ * Services bump a counter after they change what a list shows, so controllers
+ * can answer {@code If-None-Match} / {@code If-Modified-Since} with a 304
+ * without touching the database.
+ *
+ * Tags carry a random epoch, so a restart never reuses a tag for different
+ * data; clients just see one extra full response. The counters live in this
+ * JVM only, which matches the single-instance deployment.
+ *
+ * A bumped list's owner also reads from the primary for a while (see
+ * {@link ReadYourWritesWindow}), so a replica that is behind cannot hand
+ * them the old list under the new tag. The list of all documents has no
+ * single owner: for the same while after it is bumped, everyone reads it
+ * through {@link #readAllDocuments}, which goes to the primary.
+ */
+@Component
+public class ResourceVersionTracker {
+
+    private static final String MY_DOCUMENTS = "documents:";
+    private static final String PENDING_WORKFLOWS = "pending:";
+    private static final String ALL_DOCUMENTS = "documents:*";
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE);
+    // Lists that were never bumped are unchanged since startup
+    private final long startedAt = System.currentTimeMillis();
+    private final Map<String, Stamp> stamps = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ReadYourWritesWindow readYourWritesWindow;
+
+    // Uploader's own document list changed (new document, status change, deletion)
+    public void documentsChanged(String uploaderEmail) {
+        bump(MY_DOCUMENTS + uploaderEmail);
+        bump(ALL_DOCUMENTS);
+        readYourWritesWindow.mark(uploaderEmail);
+        readYourWritesWindow.mark(ALL_DOCUMENTS);
+    }
+
+    // Reviewer's pending workflow list changed
+    public void pendingWorkflowsChanged(String reviewerEmail) {
+        bump(PENDING_WORKFLOWS + reviewerEmail);
+        readYourWritesWindow.mark(reviewerEmail);
+    }
+
+    public String myDocumentsTag(String email) {
+        return tag(MY_DOCUMENTS + email);
+    }
+
+    public long myDocumentsLastModified(String email) {
+        return lastModified(MY_DOCUMENTS + email);
+    }
+
+    public String allDocumentsTag() {
+        return tag(ALL_DOCUMENTS);
+    }
+
+    public long allDocumentsLastModified() {
+        return lastModified(ALL_DOCUMENTS);
+    }
+
+    // Reads the list of all documents from the primary while its last bump may not have reached the replicas
+    public <T> T readAllDocuments(Supplier<T> read) {
+        return readYourWritesWindow.isRecent(ALL_DOCUMENTS) ? readYourWritesWindow.onPrimary(read) : read.get();
+    }
+
+    public String pendingWorkflowsTag(String email) {
+        return tag(PENDING_WORKFLOWS + email);
+    }
+
+    public long pendingWorkflowsLastModified(String email) {
+        return lastModified(PENDING_WORKFLOWS + email);
+    }
+
+    private void bump(String key) {
+        long now = System.currentTimeMillis();
+        stamps.compute(key, (k, current) -> new Stamp(current == null ? 1 : current.version() + 1, now));
+    }
+
+    private String tag(String key) {
+        Stamp stamp = stamps.get(key);
+        return "\"" + epoch + "-" + (stamp == null ? 0 : stamp.version()) + "\"";
+    }
+
+    /*
+     * Last-Modified only has whole seconds, so a bump later in the same second
+     * would carry the same date and a client sending only If-Modified-Since
+     * would get a stale 304. Until that second is over, -1 leaves the header
+     * out and only the ETag is offered.
+     */
+    private long lastModified(String key) {
+        Stamp stamp = stamps.get(key);
+        long modifiedAt = stamp == null ? startedAt : stamp.modifiedAt();
+        return modifiedAt / 1000 >= System.currentTimeMillis() / 1000 ? -1 : modifiedAt;
+    }
+
+    private record Stamp(long version, long modifiedAt) {
+    }
+}
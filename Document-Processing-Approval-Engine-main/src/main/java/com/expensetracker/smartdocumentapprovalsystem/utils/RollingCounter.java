@@ -0,0 +1,70 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Event count over the last hour, day and week, kept in two rings: 60
+ * one-minute slots and 168 one-hour slots. Each slot is one long holding the
+ * minute or hour it counts in the upper 32 bits and the count in the lower
+ * 32, so an increment is a single compare-and-set that also clears a slot
+ * left over from the previous lap. Nothing is ever locked or allocated.
+ *
+ * The hour window is exact to the minute; the day and week windows start at
+ * the beginning of an hour, so they cover up to an hour more than their name.
+ */
+public class RollingCounter {
+
+    static final int MINUTE_SLOTS = 60;
+    static final int HOUR_SLOTS = 7 * 24;
+    static final long MINUTE_MS = 60_000;
+    static final long HOUR_MS = 60 * MINUTE_MS;
+
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+    private final AtomicLongArray minutes = new AtomicLongArray(MINUTE_SLOTS);
+    private final AtomicLongArray hours = new AtomicLongArray(HOUR_SLOTS);
+
+    public void increment(long epochMillis) {
+        add(minutes, epochMillis / MINUTE_MS);
+        add(hours, epochMillis / HOUR_MS);
+    }
+
+    public long lastHour(long nowMillis) {
+        return sum(minutes, nowMillis / MINUTE_MS, MINUTE_SLOTS);
+    }
+
+    public long lastDay(long nowMillis) {
+        return sum(hours, nowMillis / HOUR_MS, 24);
+    }
+
+    public long lastWeek(long nowMillis) {
+        return sum(hours, nowMillis / HOUR_MS, HOUR_SLOTS);
+    }
+
+    private static void add(AtomicLongArray ring, long period) {
+        int slot = (int) (period % ring.length());
+        while (true) {
+            long current = ring.get(slot);
+            long slotPeriod = current >>> 32;
+            if (slotPeriod > period) {
+                // Older than the ring reaches
+                return;
+            }
+            long next = slotPeriod == period ? current + 1 : period << 32 | 1;
+            if (ring.compareAndSet(slot, current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static long sum(AtomicLongArray ring, long period, int span) {
+        long total = 0;
+        for (long p = period - span + 1; p <= period; p++) {
+            long value = ring.get((int) (p % ring.length()));
+            if (value >>> 32 == p) {
+                total += value & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,138 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.LatencySummary;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Distribution of durations over the last hour, day and week, in the same
+ * minute and hour rings as {@link RollingCounter}. Each slot is a log-linear
+ * histogram in the manner of HdrHistogram: values below 8 ms have a bucket
+ * each, and every power of two above is split into 8 buckets. A percentile is
+ * thus off by at most 1/8 of its value, with about 300 buckets covering
+ * anything up to 2^40 ms.
+ *
+ * Recording is lock-free: a slot is swapped in by compare-and-set when its
+ * minute or hour comes round, then counted into atomically. Slots are only
+ * created for periods that saw a value, so a quiet series costs little.
+ * Reading merges at most 60 or 168 slots, however many values they hold.
+ */
+public class RollingHistogram {
+
+    static final int SUB_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int MAX_EXPONENT = 39;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+    static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private static final class Slot {
+        final long period;
+        final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        final AtomicLong sum = new AtomicLong();
+        final AtomicLong max = new AtomicLong();
+
+        Slot(long period) {
+            this.period = period;
+        }
+    }
+
+    private final AtomicReferenceArray<Slot> minutes = new AtomicReferenceArray<>(RollingCounter.MINUTE_SLOTS);
+    private final AtomicReferenceArray<Slot> hours = new AtomicReferenceArray<>(RollingCounter.HOUR_SLOTS);
+
+    public void record(long valueMs, long epochMillis) {
+        long value = Math.max(0, Math.min(valueMs, MAX_VALUE));
+        int bucket = bucketOf(value);
+        add(minutes, epochMillis / RollingCounter.MINUTE_MS, bucket, value);
+        add(hours, epochMillis / RollingCounter.HOUR_MS, bucket, value);
+    }
+
+    public LatencySummary lastHour(long nowMillis) {
+        return summarize(minutes, nowMillis / RollingCounter.MINUTE_MS, RollingCounter.MINUTE_SLOTS);
+    }
+
+    public LatencySummary lastDay(long nowMillis) {
+        return summarize(hours, nowMillis / RollingCounter.HOUR_MS, 24);
+    }
+
+    public LatencySummary lastWeek(long nowMillis) {
+        return summarize(hours, nowMillis / RollingCounter.HOUR_MS, RollingCounter.HOUR_SLOTS);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) - SUB_BUCKETS;
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // Largest value that falls into the bucket
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+        return lowest + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+    private static void add(AtomicReferenceArray<Slot> ring, long period, int bucket, long value) {
+        int index = (int) (period % ring.length());
+        Slot slot = ring.get(index);
+        while (slot == null || slot.period < period) {
+            Slot fresh = new Slot(period);
+            if (ring.compareAndSet(index, slot, fresh)) {
+                slot = fresh;
+            } else {
+                slot = ring.get(index);
+            }
+        }
+        if (slot.period != period) {
+            // Older than the ring reaches
+            return;
+        }
+        slot.counts.incrementAndGet(bucket);
+        slot.sum.addAndGet(value);
+        slot.max.accumulateAndGet(value, Math::max);
+    }
+
+    private static LatencySummary summarize(AtomicReferenceArray<Slot> ring, long period, int span) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (long p = period - span + 1; p <= period; p++) {
+            Slot slot = ring.get((int) (p % ring.length()));
+            if (slot == null || slot.period != p) {
+                continue;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = slot.counts.get(i);
+                counts[i] += c;
+                count += c;
+            }
+            sum += slot.sum.get();
+            max = Math.max(max, slot.max.get());
+        }
+        if (count == 0) {
+            return new LatencySummary();
+        }
+        return new LatencySummary(count, sum / count, percentile(counts, count, 0.50, max),
+                percentile(counts, count, 0.90, max), percentile(counts, count, 0.99, max), max);
+    }
+
+    private static long percentile(long[] counts, long count, double quantile, long max) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,88 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.ExportFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes export rows one at a time as NDJSON or CSV. Nothing is kept per
+ * row: NDJSON goes through one Jackson generator, CSV through one buffered
+ * writer, and both hand their output to the stream as their buffers fill.
+ * The caller's stream is flushed by {@link #finish()}, never closed.
+ */
+public class RowExportWriter<T> {
+
+    public record Column<T>(String name, Function<T, Object> value) {
+    }
+
+    private final List<Column<T>> columns;
+    private final JsonGenerator json;
+    private final Writer csv;
+
+    public RowExportWriter(ExportFormat format, OutputStream out, ObjectMapper objectMapper,
+                           List<Column<T>> columns) throws IOException {
+        this.columns = columns;
+        if (format == ExportFormat.NDJSON) {
+            json = objectMapper.getFactory().createGenerator(out);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            csv = null;
+        } else {
+            json = null;
+            csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            for (int i = 0; i < columns.size(); i++) {
+                csv.write(i == 0 ? "" : ",");
+                csv.write(columns.get(i).name());
+            }
+            csv.write("\r\n");
+        }
+    }
+
+    public void write(T row) throws IOException {
+        if (json != null) {
+            json.writeStartObject();
+            for (Column<T> column : columns) {
+                json.writeFieldName(column.name());
+                json.writeObject(column.value().apply(row));
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+            return;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            csv.write(i == 0 ? "" : ",");
+            Object value = columns.get(i).value().apply(row);
+            if (value != null) {
+                csv.write(csvField(value.toString()));
+            }
+        }
+        csv.write("\r\n");
+    }
+
+    public void finish() throws IOException {
+        if (json != null) {
+            json.flush();
+        } else {
+            csv.flush();
+        }
+    }
+
+    // Quoted only when it has to be, with quotes doubled (RFC 4180)
+    static String csvField(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,156 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned schema changes on top of the tables Hibernate derives from the
+ * entities. ddl-auto only ever adds tables and columns; indexes for the read
+ * paths, replacing an index and partitioning audit_logs are scripts named
+ * {@code V<version>__<description>.sql}, the way Flyway names them. Scripts in
+ * {@code db/migration/common} run on every database, those in
+ * {@code db/migration/<vendor>} (postgresql, h2) only on that one.
+ *
+ * Each script runs once, in version order and in its own transaction, right
+ * after Hibernate has updated the schema, and is recorded with a checksum in
+ * schema_migrations. Editing a script that has already run stops the start.
+ */
+@Component
+public class SchemaMigrations {
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private static final String CREATE_HISTORY_SQL = "create table if not exists schema_migrations (" +
+            "version integer primary key, description varchar(200) not null, " +
+            "checksum bigint not null, applied_at timestamp not null)";
+    private static final String INSERT_HISTORY_SQL = "insert into schema_migrations " +
+            "(version, description, checksum, applied_at) values (?, ?, ?, ?)";
+
+    @Value("${schema.migrations.enabled:true}")
+    private boolean enabled;
+
+    @Value("${schema.migrations.location:classpath*:db/migration}")
+    private String location;
+
+    @Value("${spring.jpa.hibernate.ddl-auto:none}")
+    private String ddlAuto;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Only here so the scripts run after Hibernate has created or updated the tables
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String vendor;
+
+    public record Script(int version, String description, Resource resource, long checksum) {
+    }
+
+    @PostConstruct
+    public void migrate() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        vendor = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT));
+        jdbcTemplate.execute(CREATE_HISTORY_SQL);
+        if (ddlAuto.startsWith("create")) {
+            // Hibernate has just created every table afresh, so every script applies again
+            jdbcTemplate.update("delete from schema_migrations");
+        }
+        Map<Integer, Long> applied = new HashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList("select version, checksum from schema_migrations")) {
+            applied.put(((Number) row.get("version")).intValue(), ((Number) row.get("checksum")).longValue());
+        }
+
+        for (Script script : scripts()) {
+            Long checksum = applied.get(script.version());
+            if (checksum == null) {
+                apply(script);
+            } else if (checksum != script.checksum()) {
+                throw new IllegalStateException("Migration " + script.resource().getFilename()
+                        + " was changed after it was applied; add a new version instead");
+            }
+        }
+    }
+
+    public String getVendor() {
+        return vendor;
+    }
+
+    // Scripts for this database in version order; a version may only be used once
+    public List<Script> scripts() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        List<Script> scripts = new ArrayList<>();
+        for (String folder : List.of("common", vendor)) {
+            for (Resource resource : resolver.getResources(location + "/" + folder + "/*.sql")) {
+                Matcher name = SCRIPT_NAME.matcher(resource.getFilename());
+                if (!name.matches()) {
+                    throw new IllegalStateException("Not a migration name: " + resource.getFilename());
+                }
+                scripts.add(new Script(Integer.parseInt(name.group(1)), name.group(2).replace('_', ' '),
+                        resource, checksum(resource)));
+            }
+        }
+        scripts.sort(Comparator.comparingInt(Script::version));
+        for (int i = 1; i < scripts.size(); i++) {
+            if (scripts.get(i).version() == scripts.get(i - 1).version()) {
+                throw new IllegalStateException("Two migrations with version " + scripts.get(i).version());
+            }
+        }
+        return scripts;
+    }
+
+    private void apply(Script script) {
+        // The PostgreSQL driver splits a script itself and understands $$-quoted bodies
+        String separator = vendor.equals("postgresql") ? ScriptUtils.EOF_STATEMENT_SEPARATOR : ";";
+        transactionTemplate.executeWithoutResult(tx -> {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                ScriptUtils.executeSqlScript(connection, new EncodedResource(script.resource(), StandardCharsets.UTF_8),
+                        false, false, ScriptUtils.DEFAULT_COMMENT_PREFIXES, separator,
+                        ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER, ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER);
+                return null;
+            });
+            jdbcTemplate.update(INSERT_HISTORY_SQL, script.version(), script.description(), script.checksum(),
+                    Timestamp.valueOf(LocalDateTime.now()));
+        });
+        System.out.println("Applied schema migration " + script.resource().getFilename());
+    }
+
+    private static long checksum(Resource resource) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = resource.getInputStream()) {
+            crc.update(in.readAllBytes());
+        }
+        return crc.getValue();
+    }
+}
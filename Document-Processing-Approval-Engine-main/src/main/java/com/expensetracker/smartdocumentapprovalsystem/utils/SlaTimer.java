@@ -0,0 +1,132 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+/**
+ * Deadlines of all open workflow steps, held in a {@link TimerWheel} keyed by
+ * step id. One thread advances the wheel every {@code workflow.sla.tick-ms}
+ * and hands steps whose deadline passed to the handler given to
+ * {@link #start}; nothing polls the workflow table.
+ *
+ * The wheel only lives in memory. {@link #start} fills it from the open steps'
+ * due_at column in one streamed query, and deadlines already passed fire on
+ * the first tick. A timer may outlive its step (e.g. one closed while the
+ * wheel was being filled), so the handler must check the step's state. A
+ * handler that throws gets the step again {@link #CONFLICT_RETRY} later.
+ */
+@Component
+public class SlaTimer {
+
+    // A step whose handler failed is looked at again this much later
+    public static final Duration CONFLICT_RETRY = Duration.ofMinutes(1);
+
+    private static final String OPEN_STEPS_SQL = "select id, due_at from work_flow " +
+            "where status in (?, ?) and due_at is not null";
+
+    @Value("${workflow.sla.tick-ms:1000}")
+    private long tickMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TimerWheel<Integer> wheel;
+    private final Map<Integer, TimerWheel.Timeout<Integer>> timeouts = new HashMap<>();
+    private IntConsumer handler;
+    private Thread timer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        wheel = new TimerWheel<>(tickMs, System.currentTimeMillis());
+    }
+
+    // Loads the deadlines of every open step and starts the clock
+    public void start(IntConsumer handler) {
+        this.handler = handler;
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(OPEN_STEPS_SQL);
+            // Streamed rather than materialized: there can be hundreds of thousands
+            statement.setFetchSize(1000);
+            statement.setInt(1, Status.PENDING.ordinal());
+            statement.setInt(2, Status.UNDER_REVIEW.ordinal());
+            return statement;
+        }, rs -> {
+            schedule(rs.getInt("id"), rs.getTimestamp("due_at").toLocalDateTime());
+        });
+        System.out.println("SLA timers loaded for " + size() + " open workflow steps");
+
+        running = true;
+        timer = new Thread(this::runTimer, "sla-timer");
+        timer.setDaemon(true);
+        timer.start();
+    }
+
+    // Replaces any deadline the step already had
+    public synchronized void schedule(int workflowId, LocalDateTime dueAt) {
+        TimerWheel.Timeout<Integer> previous = timeouts.put(workflowId,
+                wheel.schedule(dueAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), workflowId));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+    }
+
+    public synchronized void cancel(int workflowId) {
+        TimerWheel.Timeout<Integer> timeout = timeouts.remove(workflowId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (timer != null) {
+            LockSupport.unpark(timer);
+            timer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void runTimer() {
+        while (running) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(tickMs));
+            List<Integer> expired = new ArrayList<>();
+            synchronized (this) {
+                wheel.advance(System.currentTimeMillis(), workflowId -> {
+                    timeouts.remove(workflowId);
+                    expired.add(workflowId);
+                });
+            }
+            // Outside the lock: handlers schedule the step's next deadline
+            for (Integer workflowId : expired) {
+                try {
+                    handler.accept(workflowId);
+                } catch (RuntimeException ex) {
+                    System.err.println("SLA action failed for workflow step " + workflowId + ": " + ex.getMessage());
+                    schedule(workflowId, LocalDateTime.now().plus(CONFLICT_RETRY));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: four wheels of 64 slots, each slot of a wheel
+ * spanning a whole turn of the wheel below. With one-second ticks the wheels
+ * cover about a minute, an hour, three days and six months; later deadlines
+ * wait in the outermost wheel and are placed again as it turns.
+ *
+ * Scheduling and cancelling are O(1): a timeout is linked into the slot its
+ * deadline falls in, and unlinked from it. {@link #advance} visits one slot
+ * per tick and moves the timeouts of an outer slot down once the inner wheel
+ * reaches it, so each timeout is touched at most once per wheel.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public class TimerWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMs;
+    @SuppressWarnings("unchecked")
+    private final Timeout<T>[][] slots = new Timeout[LEVELS][SLOTS];
+    private long currentTick;
+    private int size;
+
+    public TimerWheel(long tickMs, long nowMs) {
+        this.tickMs = tickMs;
+        this.currentTick = nowMs / tickMs;
+    }
+
+    public Timeout<T> schedule(long deadlineMs, T payload) {
+        // Rounded up so a timeout never fires before its deadline
+        Timeout<T> timeout = new Timeout<>(Math.floorDiv(deadlineMs + tickMs - 1, tickMs), payload);
+        // The current tick's slot has been visited already
+        place(timeout, currentTick + 1);
+        size++;
+        return timeout;
+    }
+
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout.level < 0) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    // Runs the clock forward to nowMs and hands every timeout that came due to expired, tick by tick
+    public void advance(long nowMs, Consumer<T> expired) {
+        long target = nowMs / tickMs;
+        while (currentTick < target) {
+            currentTick++;
+            int top = 0;
+            while (top + 1 < LEVELS && (currentTick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+                top++;
+            }
+            // Outermost first, so timeouts moved down reach the inner slots before those are visited
+            for (int level = top; level > 0; level--) {
+                cascade(level, (int) (currentTick >>> (SLOT_BITS * level)) & MASK);
+            }
+            int slot = (int) currentTick & MASK;
+            Timeout<T> timeout = slots[0][slot];
+            slots[0][slot] = null;
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                timeout.level = -1;
+                timeout.prev = timeout.next = null;
+                size--;
+                expired.accept(timeout.payload);
+                timeout = next;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout<T> timeout = slots[level][slot];
+        slots[level][slot] = null;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.prev = timeout.next = null;
+            place(timeout, currentTick);
+            timeout = next;
+        }
+    }
+
+    // Links the timeout into the slot of its deadline, or of earliestTick if that is later
+    private void place(Timeout<T> timeout, long earliestTick) {
+        long tick = Math.max(timeout.deadlineTick, earliestTick);
+        if (tick - currentTick >= SPAN) {
+            // Beyond the outermost wheel: parked in its last slot and placed again from there
+            tick = currentTick + SPAN - 1;
+        }
+        long delta = tick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) (tick >>> (SLOT_BITS * level)) & MASK;
+        timeout.level = level;
+        timeout.slot = slot;
+        timeout.next = slots[level][slot];
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+        slots[level][slot] = timeout;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[timeout.level][timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.level = -1;
+        timeout.prev = timeout.next = null;
+    }
+
+    public static final class Timeout<T> {
+        private final long deadlineTick;
+        private final T payload;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private int level = -1;
+        private int slot;
+
+        private Timeout(long deadlineTick, T payload) {
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        public T payload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks role changes so tokens carrying an old role claim can be caught
+ * without a database lookup on every request. Every token is stamped with
+ * {@link #currentVersion()} when it is minted; a role change records the
+ * user's new role under a higher version, and any token stamped before it is
+ * treated as stale.
+ *
+ * Versions start at the wall clock when the application starts, so tokens
+ * minted by a previous run are always older than anything recorded here.
+ * Those are re-checked once per user and the confirmed role is remembered.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final long bootVersion = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong(bootVersion);
+    private final Map<Integer, Revocation> revocations = new ConcurrentHashMap<>();
+
+    public long currentVersion() {
+        return version.get();
+    }
+
+    public void roleChanged(int userId, Role role) {
+        long changedAt = version.updateAndGet(v -> Math.max(v + 1, System.currentTimeMillis()));
+        record(userId, new Revocation(changedAt, role));
+    }
+
+    // Role read back from the database for a token minted before this run
+    public void roleConfirmed(int userId, Role role) {
+        record(userId, new Revocation(bootVersion, role));
+    }
+
+    /**
+     * Returns null when a token stamped with {@code tokenVersion} still carries
+     * the user's current role. Otherwise returns the newer revocation; its role
+     * is null when the token predates this run and the user has not been
+     * re-checked yet.
+     */
+    public Revocation check(int userId, long tokenVersion) {
+        Revocation revocation = revocations.get(userId);
+        if (revocation != null && revocation.version() > tokenVersion) {
+            return revocation;
+        }
+        if (revocation == null && tokenVersion < bootVersion) {
+            return new Revocation(bootVersion, null);
+        }
+        return null;
+    }
+
+    // Keeps whichever entry is newer, so a slow re-check cannot undo a role change
+    private void record(int userId, Revocation revocation) {
+        revocations.merge(userId, revocation,
+                (existing, incoming) -> incoming.version() >= existing.version() ? incoming : existing);
+    }
+
+    public record Revocation(long version, Role role) {
+    }
+}
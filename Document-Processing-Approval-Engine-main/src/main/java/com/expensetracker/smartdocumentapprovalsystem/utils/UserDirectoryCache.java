@@ -0,0 +1,120 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDirectoryStats;
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache in front of UserRepository for the two hot lookups:
+ * email to user, and role to the users holding it (reviewer selection).
+ * Entries are bounded by {@code user.directory.max-size} and expire after
+ * {@code user.directory.ttl-seconds}; writes to the users table invalidate
+ * them through {@link UserDirectoryListener}.
+ *
+ * Values are shared between callers and must be treated as read-only.
+ */
+@Component
+public class UserDirectoryCache {
+
+    @Value("${user.directory.max-size:10000}")
+    private long maxSize;
+
+    @Value("${user.directory.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Cache<String, UserDto> byEmail;
+    private Cache<Role, List<UserDto>> byRole;
+    // Bumped by every invalidation, so a load that raced with a write is not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        byEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        byRole = Caffeine.newBuilder()
+                .maximumSize(Role.values().length)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<UserDto> findByEmail(String email) {
+        UserDto cached = byEmail.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long seen = generation.get();
+        Optional<UserDto> loaded = userRepository.findDtoByEmail(email);
+        // Unknown emails are not cached, so a user who registers later is found straight away
+        loaded.ifPresent(user -> putIfCurrent(byEmail, email, user, seen));
+        return loaded;
+    }
+
+    // Users holding the role, lowest id first
+    public List<UserDto> findByRole(Role role) {
+        List<UserDto> cached = byRole.getIfPresent(role);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = generation.get();
+        List<UserDto> loaded = List.copyOf(userRepository.findPage(role, Limit.unlimited()));
+        putIfCurrent(byRole, role, loaded, seen);
+        return loaded;
+    }
+
+    public Optional<UserDto> findFirstByRole(Role role) {
+        return findByRole(role).stream().findFirst();
+    }
+
+    public void invalidate(String email) {
+        generation.incrementAndGet();
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+        // The previous role is not known here, and there are only a handful of lists
+        byRole.invalidateAll();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        byEmail.invalidateAll();
+        byRole.invalidateAll();
+    }
+
+    // Loads run outside the cache's own locking: the query may flush a pending user
+    // change, and the listener's invalidation must not re-enter a computing entry
+    private <K, V> void putIfCurrent(Cache<K, V> cache, K key, V value, long seen) {
+        cache.put(key, value);
+        if (generation.get() != seen) {
+            cache.invalidate(key);
+        }
+    }
+
+    public UserDirectoryStats getStats() {
+        CacheStats email = byEmail.stats();
+        CacheStats role = byRole.stats();
+        return new UserDirectoryStats(byEmail.estimatedSize(), email.hitCount(), email.missCount(),
+                email.evictionCount(), byRole.estimatedSize(), role.hitCount(), role.missCount(),
+                role.evictionCount());
+    }
+}
@@ -0,0 +1,46 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entity listener on User that keeps UserDirectoryCache in step with every
+ * write to the users table: registration, role changes and deletion.
+ *
+ * Entries are dropped right away and again once the transaction ends, so a
+ * read that ran between the write and the commit cannot leave the old row
+ * cached. Hibernate creates this through Spring, so the cache can be injected;
+ * it is looked up lazily because the listener is built with the
+ * EntityManagerFactory that the cache's repository depends on.
+ */
+public class UserDirectoryListener {
+
+    @Autowired
+    private ObjectProvider<UserDirectoryCache> userDirectoryCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        UserDirectoryCache cache = userDirectoryCache.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+        String email = user.getEmail();
+        cache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(email);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.StageMode;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowDefinitionSpec;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkflowDefinition;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkflowDefinitionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads workflow definitions and keeps each version compiled in memory.
+ * Definition rows never change, so a compiled version is cached for good;
+ * only the pointer to the active version of a name moves when a new version
+ * is published.
+ */
+@Component
+public class WorkflowDefinitionRegistry {
+
+    @Value("${workflow.definition:default}")
+    private String defaultName;
+
+    @Autowired
+    private WorkflowDefinitionRepository workflowDefinitionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<Long, CompiledWorkflow> byId = new ConcurrentHashMap<>();
+    private final Map<String, CompiledWorkflow> activeByName = new ConcurrentHashMap<>();
+
+    // Workflow new documents start on
+    public CompiledWorkflow active() {
+        return activeByName.computeIfAbsent(defaultName, name -> workflowDefinitionRepository
+                .findByNameAndActiveTrue(name)
+                .map(definition -> byId(definition.getId()))
+                .orElseThrow(() -> new RuntimeException("No active workflow definition named " + name)));
+    }
+
+    public CompiledWorkflow byId(Long definitionId) {
+        return byId.computeIfAbsent(definitionId, id -> workflowDefinitionRepository.findById(id)
+                .map(this::compile)
+                .orElseThrow(() -> new RuntimeException("Workflow definition not found: " + id)));
+    }
+
+    // First version of the default workflow: the fixed chain documents used before definitions existed
+    public CompiledWorkflow legacy() {
+        WorkflowDefinition definition = workflowDefinitionRepository.findByNameAndVersion(defaultName, 1)
+                .orElseThrow(() -> new RuntimeException("No workflow definition " + defaultName + " v1"));
+        return byId(definition.getId());
+    }
+
+    public List<WorkflowDefinition> findAll() {
+        return workflowDefinitionRepository.findAllByOrderByNameAscVersionDesc();
+    }
+
+    /**
+     * Stores the spec as the next version of its name and makes it the active
+     * one. Documents already in flight stay on the version they started with.
+     *
+     * @throws IllegalArgumentException if the spec does not compile
+     */
+    @Transactional
+    public WorkflowDefinition publish(WorkflowDefinitionSpec spec) {
+        // Validate before anything is written
+        CompiledWorkflow.compile(0, 0, spec);
+
+        int nextVersion = workflowDefinitionRepository.findTopByNameOrderByVersionDesc(spec.getName())
+                .map(latest -> latest.getVersion() + 1)
+                .orElse(1);
+        workflowDefinitionRepository.findByNameAndActiveTrue(spec.getName()).ifPresent(previous -> {
+            previous.setActive(false);
+            workflowDefinitionRepository.saveAndFlush(previous);
+        });
+
+        WorkflowDefinition definition = new WorkflowDefinition(null, spec.getName(), nextVersion, true,
+                toJson(spec), LocalDateTime.now());
+        WorkflowDefinition saved = workflowDefinitionRepository.save(definition);
+
+        // Dropped again when the transaction ends, in case a reader cached the old version meanwhile
+        String name = spec.getName();
+        activeByName.remove(name);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    activeByName.remove(name);
+                }
+            });
+        }
+        return saved;
+    }
+
+    // Seeds the OFFICER -> MANAGER -> ADMIN chain the system always used, on first start
+    @Transactional
+    public void ensureDefaultDefinition() {
+        if (workflowDefinitionRepository.findTopByNameOrderByVersionDesc(defaultName).isPresent()) {
+            return;
+        }
+        WorkflowDefinitionSpec spec = new WorkflowDefinitionSpec(defaultName, List.of(
+                new WorkflowDefinitionSpec.StageSpec("Officer review", StageMode.ALL, List.of(Role.OFFICER), null),
+                new WorkflowDefinitionSpec.StageSpec("Manager review", StageMode.ALL, List.of(Role.MANAGER), null),
+                new WorkflowDefinitionSpec.StageSpec("Admin review", StageMode.ALL, List.of(Role.ADMIN), null)));
+        publish(spec);
+    }
+
+    private CompiledWorkflow compile(WorkflowDefinition definition) {
+        try {
+            WorkflowDefinitionSpec spec = objectMapper.readValue(definition.getSpec(), WorkflowDefinitionSpec.class);
+            return CompiledWorkflow.compile(definition.getId(), definition.getVersion(), spec);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Stored workflow definition " + definition.getId() + " is not valid JSON", ex);
+        }
+    }
+
+    private String toJson(WorkflowDefinitionSpec spec) {
+        try {
+            return objectMapper.writeValueAsString(spec);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Workflow definition cannot be serialized", ex);
+        }
+    }
+}
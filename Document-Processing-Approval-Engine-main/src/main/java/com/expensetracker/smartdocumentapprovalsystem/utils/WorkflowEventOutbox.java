@@ -0,0 +1,48 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEvent;
+import com.expensetracker.smartdocumentapprovalsystem.model.OutboxEntry;
+import com.expensetracker.smartdocumentapprovalsystem.repository.OutboxEntryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Write side of the outbox. Services record the events of a state change in
+ * the transaction that makes the change; {@link OutboxRelay} delivers them to
+ * subscribers once it commits. A rolled-back change leaves no events behind.
+ */
+@Component
+public class WorkflowEventOutbox {
+
+    @Autowired
+    private OutboxEntryRepository outboxEntryRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // All events of the call go into one row, so a transition costs a single insert
+    public void record(List<WorkflowEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        outboxEntryRepository.save(new OutboxEntry(null, toJson(events), LocalDateTime.now(), 0, null, null));
+        // Saves the relay a poll interval when the commit happens
+        TransactionCallbacks.afterCommit(outboxRelay::wakeUp);
+    }
+
+    private String toJson(List<WorkflowEvent> events) {
+        try {
+            return objectMapper.writeValueAsString(events);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Workflow events cannot be serialized", ex);
+        }
+    }
+}
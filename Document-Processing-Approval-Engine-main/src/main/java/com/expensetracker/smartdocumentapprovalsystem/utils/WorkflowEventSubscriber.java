@@ -0,0 +1,21 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEvent;
+
+import java.util.List;
+
+/**
+ * Receives every workflow event from {@link OutboxRelay}, on the relay thread,
+ * after the transaction that produced it committed. Delivery is at least once:
+ * a subscriber that throws is offered the events again later, and a relay that
+ * dies mid-batch leaves them to be delivered again, so handlers should tolerate
+ * repeats and return quickly.
+ */
+public interface WorkflowEventSubscriber {
+    void onEvent(WorkflowEvent event);
+
+    // The events one transaction produced, in order; override to handle them together
+    default void onEvents(List<WorkflowEvent> events) {
+        events.forEach(this::onEvent);
+    }
+}
@@ -0,0 +1,14 @@
+-- Indexes for the repository queries the entity annotations do not cover. Each
+-- starts with the columns its query compares for equality and ends with the
+-- query's sort order, so matching rows come back already sorted.
+
+-- A user's documents, newest first; also serves the plain lookup by uploader,
+-- so the single-column index it replaces goes
+create index if not exists idx_documents_uploaded_by_created_at_id on documents (uploaded_by, created_at, id);
+drop index if exists idx_documents_uploaded_by;
+
+-- Audit trail of a user, of one entity and of one action, newest first. The
+-- time range queries use idx_audit_logs_timestamp_id from the entity.
+create index if not exists idx_audit_logs_user_email_timestamp on audit_logs (user_email, timestamp);
+create index if not exists idx_audit_logs_entity_type_entity_id_timestamp on audit_logs (entity_type, entity_id, timestamp);
+create index if not exists idx_audit_logs_action_timestamp on audit_logs (action, timestamp);
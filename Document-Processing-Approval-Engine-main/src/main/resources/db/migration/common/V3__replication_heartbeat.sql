@@ -0,0 +1,6 @@
+-- One row the primary rewrites every datasource.replica.lag-check-interval-ms;
+-- how old it is on a replica tells how far that replica is behind
+create table if not exists replication_heartbeat (
+    id integer primary key,
+    beat_at timestamp not null
+);
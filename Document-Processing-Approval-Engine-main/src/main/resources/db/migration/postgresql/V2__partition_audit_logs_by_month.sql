@@ -0,0 +1,57 @@
+-- audit_logs becomes a table range-partitioned by month on timestamp, so old
+-- months can be dropped or archived as a whole and time-bounded queries only
+-- read the partitions they cover. Existing rows keep their ids.
+--
+-- Partitions exist from the oldest row's month to three months ahead;
+-- AuditLogPartitions adds the following ones. Rows outside every monthly
+-- partition land in audit_logs_default.
+--
+-- The primary key has to include the partition key. The identity column
+-- becomes a sequence default because PostgreSQL before 17 does not allow
+-- identity columns on partitioned tables; inserts do not name the id either way.
+
+alter table audit_logs rename to audit_logs_unpartitioned;
+
+create sequence audit_logs_row_id_seq;
+select setval('audit_logs_row_id_seq', coalesce((select max(id) from audit_logs_unpartitioned), 0) + 1, false);
+
+create table audit_logs (
+    id bigint not null default nextval('audit_logs_row_id_seq'),
+    action varchar(255) not null,
+    entity_type varchar(255) not null,
+    entity_id bigint not null,
+    user_email varchar(255) not null,
+    user_name varchar(255) not null,
+    details varchar(1000),
+    timestamp timestamp(6) not null,
+    ip_address varchar(255),
+    constraint pk_audit_logs primary key (id, timestamp)
+) partition by range (timestamp);
+
+alter sequence audit_logs_row_id_seq owned by audit_logs.id;
+
+create table audit_logs_default partition of audit_logs default;
+
+do $$
+declare
+    month_start date := date_trunc('month', coalesce((select min(timestamp) from audit_logs_unpartitioned), now()));
+    last_month date := date_trunc('month', now()) + interval '3 months';
+begin
+    while month_start <= last_month loop
+        execute format('create table %I partition of audit_logs for values from (%L) to (%L)',
+                'audit_logs_' || to_char(month_start, 'YYYY_MM'), month_start, month_start + interval '1 month');
+        month_start := month_start + interval '1 month';
+    end loop;
+end $$;
+
+insert into audit_logs (id, action, entity_type, entity_id, user_email, user_name, details, timestamp, ip_address)
+select id, action, entity_type, entity_id, user_email, user_name, details, timestamp, ip_address
+from audit_logs_unpartitioned;
+
+drop table audit_logs_unpartitioned;
+
+-- Indexes on the parent are created on every partition, present and future
+create index idx_audit_logs_timestamp_id on audit_logs (timestamp, id);
+create index idx_audit_logs_user_email_timestamp on audit_logs (user_email, timestamp);
+create index idx_audit_logs_entity_type_entity_id_timestamp on audit_logs (entity_type, entity_id, timestamp);
+create index idx_audit_logs_action_timestamp on audit_logs (action, timestamp);
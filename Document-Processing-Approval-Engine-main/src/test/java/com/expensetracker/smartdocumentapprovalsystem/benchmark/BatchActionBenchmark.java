@@ -0,0 +1,130 @@
+package com.expensetracker.smartdocumentapprovalsystem.benchmark;
+
+import com.expensetracker.smartdocumentapprovalsystem.SmartDocumentApprovalSystemApplication;
+import com.expensetracker.smartdocumentapprovalsystem.dto.ApprovalActionRequest;
+import com.expensetracker.smartdocumentapprovalsystem.dto.BatchActionRequest;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.DocumentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * An officer approving 500 documents: one POST /api/workflows/action per
+ * document against a single POST /api/workflows/actions/batch. Both go through
+ * the full application (security filters, JSON, transactions, outbox) on the
+ * H2 test profile; every invocation starts from 500 freshly uploaded
+ * documents, created outside the measured time.
+ *
+ * Run with:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *       com.expensetracker.smartdocumentapprovalsystem.benchmark.BatchActionBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BatchActionBenchmark {
+
+    private static final int DOCUMENTS = 500;
+    private static final String OFFICER = "officer@documentapproval.com";
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+    private DocumentService documentService;
+    private WorkFlowRepository workFlowRepository;
+    private int uploaderId;
+    private List<Long> officerSteps;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(SmartDocumentApprovalSystemApplication.class)
+                .profiles("test")
+                .properties("server.port=0")
+                .run();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+        objectMapper = context.getBean(ObjectMapper.class);
+        documentService = context.getBean(DocumentService.class);
+        workFlowRepository = context.getBean(WorkFlowRepository.class);
+        uploaderId = context.getBean(UserRepository.class).findByEmail("alice@documentapproval.com").orElseThrow().getId();
+    }
+
+    @Setup(Level.Invocation)
+    public void uploadDocuments() {
+        officerSteps = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            Document document = new Document();
+            document.setTitle("benchmark-" + i + ".pdf");
+            document.setUploadPath("benchmark-" + i + ".pdf");
+            Document saved = documentService.createDocument(document, uploaderId);
+            officerSteps.add((long) workFlowRepository.findByDocumentId(saved.getId()).stream()
+                    .filter(step -> step.getStage() == 0)
+                    .findFirst()
+                    .orElseThrow()
+                    .getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public void singleCalls() throws Exception {
+        for (Long step : officerSteps) {
+            mockMvc.perform(post("/api/workflows/action")
+                            .with(officer())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new ApprovalActionRequest(step, Status.APPROVED, null))))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Benchmark
+    public void batchCall() throws Exception {
+        mockMvc.perform(post("/api/workflows/actions/batch")
+                        .with(officer())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchActionRequest(officerSteps, Status.APPROVED, null))))
+                .andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor officer() {
+        return user(OFFICER).roles("OFFICER");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(BatchActionBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,136 @@
+package com.expensetracker.smartdocumentapprovalsystem.benchmark;
+
+import com.expensetracker.smartdocumentapprovalsystem.utils.FileRangeWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old download path (UrlResource copied through an InputStream, as
+ * ResourceHttpMessageConverter does) with FileRangeWriter's transferTo path,
+ * for a whole 10 MB document and for a 1 MB range out of its middle. Both write
+ * into a loopback socket drained by a background thread, which is what the
+ * servlet container's connection looks like to the kernel.
+ *
+ * Run with:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *       com.expensetracker.smartdocumentapprovalsystem.benchmark.DocumentDownloadBenchmark
+ *
+ * The GC profiler reports gc.alloc.rate.norm, i.e. heap bytes allocated per download.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentDownloadBenchmark {
+
+    private static final int FILE_SIZE = 10 * 1024 * 1024;
+    private static final long RANGE_START = 4L * 1024 * 1024;
+    private static final long RANGE_LENGTH = 1024 * 1024;
+
+    private final FileRangeWriter fileRangeWriter = new FileRangeWriter();
+    private Path file;
+    private ServerSocketChannel server;
+    private SocketChannel client;
+    private Thread drain;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("download-benchmark", ".pdf");
+        byte[] content = new byte[FILE_SIZE];
+        new Random(42).nextBytes(content);
+        Files.write(file, content);
+
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = SocketChannel.open(server.getLocalAddress());
+        SocketChannel peer = server.accept();
+        drain = new Thread(() -> {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+            try {
+                while (peer.read(buffer) >= 0) {
+                    buffer.clear();
+                }
+            } catch (IOException ignored) {
+                // socket closed in tearDown
+            }
+        }, "benchmark-drain");
+        drain.setDaemon(true);
+        drain.start();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close();
+        server.close();
+        drain.join(1000);
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void urlResourceFullFile() throws IOException {
+        Resource resource = new UrlResource(file.toUri());
+        try (InputStream in = resource.getInputStream()) {
+            StreamUtils.copy(in, socketOutputStream());
+        }
+    }
+
+    @Benchmark
+    public void transferToFullFile() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            fileRangeWriter.transferRange(channel, 0, channel.size(), client);
+        }
+    }
+
+    @Benchmark
+    public void urlResourceRange() throws IOException {
+        Resource resource = new UrlResource(file.toUri());
+        try (InputStream in = resource.getInputStream()) {
+            // What ResourceRegionHttpMessageConverter does for a single region
+            StreamUtils.copyRange(in, socketOutputStream(), RANGE_START, RANGE_START + RANGE_LENGTH - 1);
+        }
+    }
+
+    @Benchmark
+    public void transferToRange() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            fileRangeWriter.transferRange(channel, RANGE_START, RANGE_LENGTH, client);
+        }
+    }
+
+    // Not closed per invocation: closing would close the shared socket
+    private OutputStream socketOutputStream() {
+        return Channels.newOutputStream(client);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(DocumentDownloadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
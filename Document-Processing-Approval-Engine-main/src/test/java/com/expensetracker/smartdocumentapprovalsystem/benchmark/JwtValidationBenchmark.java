@@ -0,0 +1,100 @@
+package com.expensetracker.smartdocumentapprovalsystem.benchmark;
+
+import com.expensetracker.smartdocumentapprovalsystem.config.JwtService;
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import com.expensetracker.smartdocumentapprovalsystem.utils.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the token work JwtFilter does per request. {@code legacy} reproduces
+ * the old path: the key and parser rebuilt on every call and the token verified
+ * three times (extractUsername, then isTokenValid's extractUsername and
+ * isTokenExpired). {@code singleParse} verifies once with the precomputed
+ * parser and {@code cached} is the steady state where the token was already
+ * verified on an earlier request.
+ *
+ * Run with:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *       com.expensetracker.smartdocumentapprovalsystem.benchmark.JwtValidationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKey123456789012345678901234567890";
+
+    private JwtService cachingService;
+    private JwtService uncachedService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachingService = newService(10_000);
+        // A zero-sized cache never stores anything, so every call verifies the signature
+        uncachedService = newService(0);
+        token = cachingService.generateToken(new UserDto(1, "Benchmark User", "benchmark@example.com", Role.USER));
+        cachingService.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String username = legacyClaims(token).getSubject();
+        return legacyClaims(token).getSubject().equals(username)
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return uncachedService.validateToken(token).getSubject();
+    }
+
+    @Benchmark
+    public String cached() {
+        return cachingService.validateToken(token).getSubject();
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static JwtService newService(int cacheMaxSize) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "SECRET_KEY", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(service, "cacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.setField(service, "tokenRevocationList", new TokenRevocationList());
+        service.init();
+        return service;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(JwtValidationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,112 @@
+package com.expensetracker.smartdocumentapprovalsystem.benchmark;
+
+import com.expensetracker.smartdocumentapprovalsystem.SmartDocumentApprovalSystemApplication;
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.DocumentService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The officer's inbox with 5000 documents waiting: the first page of
+ * GET /api/workflows/pending against loading every pending step and reading
+ * its document, uploader and reviewer the way the list used to (one lazy load
+ * each per step). H2 test profile; the documents are uploaded once, outside
+ * the measured time.
+ *
+ * Run with:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *       com.expensetracker.smartdocumentapprovalsystem.benchmark.ReviewerInboxBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReviewerInboxBenchmark {
+
+    private static final int DOCUMENTS = 5000;
+    private static final String OFFICER = "officer@documentapproval.com";
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private DocumentService documentService;
+    private TransactionTemplate transactionTemplate;
+    private long officerId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(SmartDocumentApprovalSystemApplication.class)
+                .profiles("test")
+                .properties("server.port=0")
+                .run();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+        documentService = context.getBean(DocumentService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        UserRepository users = context.getBean(UserRepository.class);
+        officerId = users.findByEmail(OFFICER).orElseThrow().getId();
+        int uploaderId = users.findByEmail("alice@documentapproval.com").orElseThrow().getId();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            Document document = new Document();
+            document.setTitle("inbox-" + i + ".pdf");
+            document.setUploadPath("inbox-" + i + ".pdf");
+            documentService.createDocument(document, uploaderId);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public void lazyLoadedList(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            List<WorkFlow> pending = documentService.getPendingWorkflowsForReviewer(officerId);
+            for (WorkFlow step : pending) {
+                blackhole.consume(step.getDocument().getTitle());
+                blackhole.consume(step.getDocument().getUploadedBy().getName());
+                blackhole.consume(step.getReviewer().getEmail());
+            }
+        });
+    }
+
+    @Benchmark
+    public String inboxFirstPage() throws Exception {
+        return mockMvc.perform(get("/api/workflows/pending").with(user(OFFICER).roles("OFFICER")))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(CursorPage.TOTAL_COUNT_HEADER);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(ReviewerInboxBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
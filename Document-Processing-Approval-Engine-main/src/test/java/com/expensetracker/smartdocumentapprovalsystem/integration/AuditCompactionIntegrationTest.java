@@ -0,0 +1,122 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.AuditCompactionResult;
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
+import com.expensetracker.smartdocumentapprovalsystem.utils.AuditLogCompactor;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "audit.retention.chunk-size=2")
+public class AuditCompactionIntegrationTest extends BaseIntegrationTest {
+
+    private static final String EMAIL = "compaction@example.com";
+
+    @Autowired
+    private AuditLogCompactor auditLogCompactor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void seed() {
+        now = LocalDateTime.now().withNano(0);
+        // Logins on two days a month ago, uploads from four months ago, and one recent entry of each
+        insert("USER_LOGIN", now.minusDays(30).withHour(8), now.minusDays(30).withHour(9), now.minusDays(30).withHour(17),
+                now.minusDays(29).withHour(8), now.minusDays(29).withHour(12), now.minusHours(1));
+        insert("DOCUMENT_UPLOAD", now.minusDays(120), now.minusDays(119), now.minusDays(118), now.minusHours(2));
+    }
+
+    @Test
+    public void testOldEntriesAreRolledUpAndArchivedInChunks() {
+        AuditCompactionResult result = auditLogCompactor.compact(now);
+
+        assertEquals(5, result.getRolledUp());
+        assertEquals(8, result.getArchived());
+        // 2 + 2 + 1 logins, then 2 + 1 uploads
+        assertEquals(5, result.getChunks());
+        assertEquals(List.of(now.minusHours(2), now.minusHours(1)), jdbcTemplate.queryForList(
+                "select timestamp from audit_logs where user_email = ? order by timestamp", LocalDateTime.class, EMAIL));
+        assertEquals(List.of(3L, 2L), jdbcTemplate.queryForList(
+                "select event_count from audit_log_rollups where user_email = ? order by rollup_day", Long.class, EMAIL));
+
+        List<String> archived = new ArrayList<>();
+        jdbcTemplate.queryForList("select data from audit_log_archives order by id", byte[].class)
+                .forEach(data -> archived.addAll(gunzip(data).lines().toList()));
+        assertEquals(8, archived.size());
+        assertTrue(archived.get(0).contains("\"action\":\"USER_LOGIN\""));
+        assertTrue(archived.get(7).contains("\"details\":\"entry " + now.minusDays(118) + "\""));
+
+        // Nothing left to do
+        assertEquals(0, auditLogCompactor.compact(now).getArchived());
+    }
+
+    @Test
+    public void testQueriesMergeRollupsWithRecentEntries() throws Exception {
+        auditLogCompactor.compact(now);
+        String token = getAuthToken(testAdmin.getEmail(), "password");
+
+        String body = mockMvc.perform(get("/api/audit/user/" + EMAIL).header("Authorization", token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode logs = objectMapper.readTree(body);
+        assertEquals(4, logs.size());
+        assertEquals("DOCUMENT_UPLOAD", logs.get(1).get("action").asText());
+        assertTrue(logs.get(2).get("id").asLong() < 0);
+        assertEquals("2 x USER_LOGIN on " + now.minusDays(29).toLocalDate() + " (rolled up)",
+                logs.get(2).get("details").asText());
+        assertEquals(now.minusDays(29).withHour(12), LocalDateTime.parse(logs.get(2).get("timestamp").asText()));
+
+        // Paging one at a time walks the same four entries
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            MvcResult page = mockMvc.perform(get("/api/audit/all").header("Authorization", token)
+                            .param("userEmail", EMAIL).param("limit", "1")
+                            .param("cursor", cursor != null ? cursor : ""))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            objectMapper.readTree(page.getResponse().getContentAsString()).forEach(log -> ids.add(log.get("id").asLong()));
+            cursor = page.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        List<Long> expected = new ArrayList<>();
+        logs.forEach(log -> expected.add(log.get("id").asLong()));
+        assertEquals(expected, ids);
+        assertEquals(4, new HashSet<>(ids).size());
+    }
+
+    private void insert(String action, LocalDateTime... timestamps) {
+        for (LocalDateTime timestamp : timestamps) {
+            jdbcTemplate.update("insert into audit_logs (action, entity_type, entity_id, user_email, user_name, details, timestamp) " +
+                    "values (?, 'Document', 1, ?, 'Compaction User', ?, ?)", action, EMAIL, "entry " + timestamp, timestamp);
+        }
+    }
+
+    private static String gunzip(byte[] data) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
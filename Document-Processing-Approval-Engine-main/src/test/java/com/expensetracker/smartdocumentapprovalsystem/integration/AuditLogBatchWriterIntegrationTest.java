@@ -0,0 +1,67 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.SmartDocumentApprovalSystemApplication;
+import com.expensetracker.smartdocumentapprovalsystem.repository.AuditLogRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.AuditService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = SmartDocumentApprovalSystemApplication.class)
+@ActiveProfiles("test")
+public class AuditLogBatchWriterIntegrationTest {
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Test
+    public void testQueuedEntriesAreWrittenInBackground() throws Exception {
+        long before = auditLogRepository.count();
+        int entries = 1000;
+        for (int i = 0; i < entries; i++) {
+            auditService.logDocumentUpload((long) i, "batch@example.com", "Batch User", "doc-" + i + ".pdf");
+            if (i == entries / 2) {
+                // entity_id is NOT NULL: this row fails, the rest of its batch must still be written
+                auditService.logAction("BROKEN", "Document", null, "batch@example.com", "Batch User", null);
+            }
+        }
+
+        assertEquals(before + entries, awaitCount(before + entries));
+        assertEquals(entries, auditLogRepository.findByUserEmailOrderByTimestampDesc("batch@example.com").size());
+    }
+
+    @Test
+    public void testSynchronousEntriesAreStoredBeforeReturning() {
+        auditService.logSynchronously(() -> {
+            auditService.logDocumentUpload(1L, "sync@example.com", "Sync User", "a.pdf");
+            auditService.logDocumentUpload(2L, "sync@example.com", "Sync User", "b.pdf");
+        });
+        assertEquals(2, auditLogRepository.findByUserEmailOrderByTimestampDesc("sync@example.com").size());
+
+        // A failed insert reaches the caller and stores none of its entries
+        assertThrows(RuntimeException.class, () -> auditService.logSynchronously(() -> {
+            auditService.logDocumentUpload(3L, "sync@example.com", "Sync User", "c.pdf");
+            auditService.logAction("BROKEN", "Document", null, "sync@example.com", "Sync User", null);
+        }));
+        assertEquals(2, auditLogRepository.findByUserEmailOrderByTimestampDesc("sync@example.com").size());
+    }
+
+    private long awaitCount(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        long count = auditLogRepository.count();
+        while (count < expected && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            count = auditLogRepository.count();
+        }
+        return count;
+    }
+}
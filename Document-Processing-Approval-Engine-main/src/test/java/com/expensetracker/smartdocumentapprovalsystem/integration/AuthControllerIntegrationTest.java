@@ -1,15 +1,26 @@
 package com.expensetracker.smartdocumentapprovalsystem.integration;
 
+import com.expensetracker.smartdocumentapprovalsystem.config.JwtService;
 import com.expensetracker.smartdocumentapprovalsystem.dto.LoginRequest;
 import com.expensetracker.smartdocumentapprovalsystem.dto.RegisterRequest;
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
 import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 public class AuthControllerIntegrationTest extends BaseIntegrationTest {
 
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ModelMapper modelMapper;
+
     @Test
     public void testUserRegistration_Success() throws Exception {
         RegisterRequest registerRequest = new RegisterRequest();
@@ -89,4 +100,47 @@ public class AuthControllerIntegrationTest extends BaseIntegrationTest {
                         .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isUnauthorized());
     }
+
+    @Test
+    public void testBearerToken_AcceptedOnRepeatRequests() throws Exception {
+        String token = jwtService.generateToken(modelMapper.map(testUser, UserDto.class));
+
+        // The second request is answered from the verified-token cache
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/my")
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    public void testBearerToken_TamperedIsRejected() throws Exception {
+        String token = jwtService.generateToken(modelMapper.map(testUser, UserDto.class));
+        jwtService.validateToken(token);
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/my")
+                        .header("Authorization", "Bearer " + tampered))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void testBearerToken_RoleChangeAppliesToExistingToken() throws Exception {
+        String token = getAuthToken("test@example.com", "password");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/all")
+                        .header("Authorization", token))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/users/" + testUser.getId() + "/role")
+                        .param("role", "MANAGER")
+                        .with(user(testAdmin.getEmail()).roles("ADMIN")))
+                .andExpect(status().isOk());
+
+        // Same token, still carrying the USER claim, now gets the new role
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/all")
+                        .header("Authorization", token))
+                .andExpect(status().isOk());
+    }
 }
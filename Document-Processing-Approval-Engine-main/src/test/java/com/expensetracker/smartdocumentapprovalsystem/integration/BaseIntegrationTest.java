@@ -1,21 +1,25 @@
 package com.expensetracker.smartdocumentapprovalsystem.integration;
 
 import com.expensetracker.smartdocumentapprovalsystem.SmartDocumentApprovalSystemApplication;
+import com.expensetracker.smartdocumentapprovalsystem.dto.LoginRequest;
 import com.expensetracker.smartdocumentapprovalsystem.model.Role;
 import com.expensetracker.smartdocumentapprovalsystem.model.User;
 import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest(classes = SmartDocumentApprovalSystemApplication.class)
-@AutoConfigureWebMvc
+@AutoConfigureMockMvc
 @ActiveProfiles("test")
 @Transactional
 public abstract class BaseIntegrationTest {
@@ -81,8 +85,15 @@ public abstract class BaseIntegrationTest {
     }
 
     protected String getAuthToken(String email, String password) throws Exception {
-        // This method would need to be implemented to get JWT token for testing
-        // For now, returning a placeholder
-        return "Bearer test-token";
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(email);
+        loginRequest.setPassword(password);
+        String body = mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return "Bearer " + JsonPath.read(body, "$.token");
     }
 }
@@ -0,0 +1,228 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import com.expensetracker.smartdocumentapprovalsystem.repository.DocumentRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
+import com.expensetracker.smartdocumentapprovalsystem.utils.DocumentProgress;
+import com.expensetracker.smartdocumentapprovalsystem.utils.ResourceVersionTracker;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class DocumentControllerIntegrationTest extends BaseIntegrationTest {
+
+    private static final int DOCUMENT_COUNT = 12;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private WorkFlowRepository workFlowRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ResourceVersionTracker resourceVersionTracker;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void createDocuments() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < DOCUMENT_COUNT; i++) {
+            Document document = new Document();
+            document.setTitle("report-" + i + ".pdf");
+            document.setUploadPath("report-" + i + ".pdf");
+            document.setUploadedBy(testUser);
+            // Document 0 is the newest, so it comes first in the list
+            document.setCreatedAt(now.minusMinutes(i));
+            document.setStatus(i == DOCUMENT_COUNT - 1 ? Status.REJECTED : Status.PENDING);
+            document = documentRepository.save(document);
+
+            // First document has its officer step approved
+            Status officerStatus = i == 0 ? Status.APPROVED : Status.PENDING;
+            List<WorkFlow> steps = workFlowRepository.saveAll(List.of(
+                    new WorkFlow(0, document, testOfficer, officerStatus, null, null, 0),
+                    new WorkFlow(0, document, testManager, Status.PENDING, null, null, 1),
+                    new WorkFlow(0, document, testAdmin, Status.PENDING, null, null, 2)));
+            // Progress columns as the transitions would have left them
+            DocumentProgress.recount(document, steps);
+        }
+
+        // Write everything out and start the request with an empty persistence context
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testGetAllDocuments_SingleStatement() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/all")
+                        .with(user(testAdmin.getEmail()).roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(DOCUMENT_COUNT))
+                .andExpect(jsonPath("$[0].uploadedBy").value("Test User"))
+                .andExpect(jsonPath("$[0].completedWorkflows").value(1))
+                .andExpect(jsonPath("$[0].totalWorkflows").value(3))
+                .andExpect(jsonPath("$[1].completedWorkflows").value(0));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetMyDocuments_UserLookupPlusSingleStatement() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/my")
+                        .with(user(testUser.getEmail()).roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(DOCUMENT_COUNT))
+                .andExpect(jsonPath("$[0].progressPercentage").value(33))
+                .andExpect(jsonPath("$[1].progressPercentage").value(0));
+
+        // One statement to resolve the caller, one for the list
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetMyDocuments_BearerTokenNeedsNoUserLookup() throws Exception {
+        String token = getAuthToken(testUser.getEmail(), "password");
+        statistics.clear();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/my")
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(DOCUMENT_COUNT));
+
+        // The caller comes from the token's claims, so only the list query runs
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetAllDocuments_KeysetPages() throws Exception {
+        List<String> titles = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get("/api/documents/all")
+                    .param("limit", "5")
+                    .with(user(testAdmin.getEmail()).roles("ADMIN"));
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult result = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn();
+            List<String> page = JsonPath.read(result.getResponse().getContentAsString(), "$[*].title");
+            titles.addAll(page);
+            cursor = result.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(DOCUMENT_COUNT, titles.size());
+        for (int i = 0; i < DOCUMENT_COUNT; i++) {
+            assertEquals("report-" + i + ".pdf", titles.get(i));
+        }
+        // Every page is still a single statement
+        assertEquals(pages, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetAllDocuments_FilteredByStatus() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/all")
+                        .param("status", "REJECTED")
+                        .with(user(testAdmin.getEmail()).roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("report-" + (DOCUMENT_COUNT - 1) + ".pdf"));
+    }
+
+    @Test
+    public void testGetAllDocuments_InvalidCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/all")
+                        .param("cursor", "not-a-cursor")
+                        .with(user(testAdmin.getEmail()).roles("ADMIN")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetMyDocuments_IfNoneMatch() throws Exception {
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/my")
+                        .with(user(testUser.getEmail()).roles("USER")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        statistics.clear();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/my")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .with(user(testUser.getEmail()).roles("USER")))
+                .andExpect(status().isNotModified());
+        // Answered from the tag alone
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        resourceVersionTracker.documentsChanged(testUser.getEmail());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/my")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .with(user(testUser.getEmail()).roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    public void testGetAllDocuments_IfModifiedSince() throws Exception {
+        long changedAt = System.currentTimeMillis();
+        resourceVersionTracker.documentsChanged(testUser.getEmail());
+        MvcResult sameSecond = mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/all")
+                        .with(user(testAdmin.getEmail()).roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn();
+        if (changedAt / 1000 == System.currentTimeMillis() / 1000) {
+            // Another change this second would get the same date, so none is given yet
+            assertNull(sameSecond.getResponse().getHeader(HttpHeaders.LAST_MODIFIED));
+        }
+
+        Thread.sleep(1010 - System.currentTimeMillis() % 1000);
+        String lastModified = mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/all")
+                        .with(user(testAdmin.getEmail()).roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(lastModified);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/all")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, lastModified)
+                        .with(user(testAdmin.getEmail()).roles("ADMIN")))
+                .andExpect(status().isNotModified());
+
+        resourceVersionTracker.documentsChanged(testUser.getEmail());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/all")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, lastModified)
+                        .with(user(testAdmin.getEmail()).roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(DOCUMENT_COUNT));
+    }
+}
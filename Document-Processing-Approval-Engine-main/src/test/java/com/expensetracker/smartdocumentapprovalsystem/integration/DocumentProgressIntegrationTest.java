@@ -0,0 +1,141 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.DocumentProgressReport;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import com.expensetracker.smartdocumentapprovalsystem.repository.DocumentRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.DocumentService;
+import com.expensetracker.smartdocumentapprovalsystem.service.WorkFlowService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.DocumentProgressReconciler;
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryCache;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class DocumentProgressIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private WorkFlowService workFlowService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private WorkFlowRepository workFlowRepository;
+
+    @Autowired
+    private DocumentProgressReconciler documentProgressReconciler;
+
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void freshDirectory() {
+        userDirectoryCache.invalidateAll();
+    }
+
+    @Test
+    public void testTransitionsKeepProgressColumns() {
+        Document document = upload("progress.pdf");
+        List<WorkFlow> steps = steps(document);
+        assertProgress(document, 0, 3, 0, testOfficer.getId());
+
+        workFlowService.updateWorkflowStatus((long) steps.get(0).getId(), Status.UNDER_REVIEW, null);
+        assertProgress(document, 0, 3, 0, testOfficer.getId());
+
+        workFlowService.updateWorkflowStatus((long) steps.get(0).getId(), Status.APPROVED, null);
+        assertProgress(document, 1, 3, 1, testManager.getId());
+
+        // The open admin step is skipped along with the rejection
+        workFlowService.updateWorkflowStatus((long) steps.get(1).getId(), Status.REJECTED, "No budget");
+        assertProgress(document, 3, 3, 1, null);
+    }
+
+    @Test
+    public void testReconcileRepairsDriftedRows() throws Exception {
+        Document document = upload("drift.pdf");
+        workFlowService.updateWorkflowStatus((long) steps(document).get(0).getId(), Status.APPROVED, null);
+        entityManager.flush();
+        jdbcTemplate.update("update documents set completed_steps = 0, current_reviewer_id = ? where id = ?",
+                testAdmin.getId(), document.getId());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/progress/check")
+                        .with(user(testAdmin.getEmail()).roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mismatched").value(1))
+                .andExpect(jsonPath("$.repaired").value(0))
+                .andExpect(jsonPath("$.mismatchedIds[0]").value(document.getId()));
+
+        DocumentProgressReport report = documentProgressReconciler.reconcile();
+        assertEquals(1, report.getRepaired());
+        assertEquals(0, documentProgressReconciler.check().getMismatched());
+        entityManager.clear();
+        assertProgress(document, 1, 3, 1, testManager.getId());
+    }
+
+    @Test
+    public void testBackfillFillsRowsFromBeforeTheColumns() {
+        Document document = new Document();
+        document.setTitle("old.pdf");
+        document.setUploadPath("old.pdf");
+        document.setUploadedBy(testUser);
+        document.setCreatedAt(LocalDateTime.now());
+        document.setStatus(Status.PENDING);
+        document.setCurrentStage(1);
+        document = documentRepository.save(document);
+        workFlowRepository.saveAll(List.of(
+                new WorkFlow(0, document, testOfficer, Status.APPROVED, null, null, 0),
+                new WorkFlow(0, document, testManager, Status.PENDING, null, null, 1),
+                new WorkFlow(0, document, testAdmin, Status.WAITING, null, null, 2)));
+        entityManager.flush();
+        entityManager.clear();
+
+        documentProgressReconciler.backfill();
+
+        assertProgress(document, 1, 3, 1, testManager.getId());
+    }
+
+    private void assertProgress(Document document, int completed, int total, Integer stage, Integer reviewerId) {
+        Document current = documentRepository.findById(Math.toIntExact(document.getId())).orElseThrow();
+        assertEquals(completed, current.getCompletedSteps());
+        assertEquals(total, current.getTotalSteps());
+        assertEquals(stage, current.getCurrentStage());
+        assertEquals(reviewerId, current.getCurrentReviewerId());
+    }
+
+    private Document upload(String title) {
+        Document document = new Document();
+        document.setTitle(title);
+        document.setUploadPath(title);
+        return documentService.createDocument(document, testUser.getId());
+    }
+
+    private List<WorkFlow> steps(Document document) {
+        return workFlowRepository.findByDocumentId(document.getId()).stream()
+                .sorted(Comparator.comparing(WorkFlow::getStage))
+                .toList();
+    }
+}
@@ -0,0 +1,98 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.SmartDocumentApprovalSystemApplication;
+import com.expensetracker.smartdocumentapprovalsystem.dto.EmailDeadLetter;
+import com.expensetracker.smartdocumentapprovalsystem.service.EmailService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.EmailDispatchQueue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = SmartDocumentApprovalSystemApplication.class)
+@ActiveProfiles("test")
+public class EmailDispatchIntegrationTest {
+
+    private static final FakeSmtpServer smtpServer = FakeSmtpServer.start();
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", smtpServer::getPort);
+        registry.add("spring.mail.username", () -> "noreply@test.local");
+        registry.add("spring.mail.properties.mail.smtp.auth", () -> "false");
+        registry.add("spring.mail.properties.mail.smtp.starttls.enable", () -> "false");
+        registry.add("email.dispatch.max-attempts", () -> "3");
+        registry.add("email.dispatch.initial-backoff-ms", () -> "20");
+        registry.add("email.dispatch.max-backoff-ms", () -> "100");
+    }
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailDispatchQueue emailDispatchQueue;
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        smtpServer.close();
+    }
+
+    @Test
+    public void testSendReturnsBeforeSlowServerAnswers() throws Exception {
+        smtpServer.delayRecipient("slow@example.com", 1000);
+
+        long start = System.nanoTime();
+        emailService.sendDocumentUploadNotification("slow@example.com", "report.pdf", "Test User");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < 500, "enqueue took " + elapsedMillis + " ms");
+        assertTrue(await(() -> smtpServer.getDeliveredTo().contains("slow@example.com")));
+    }
+
+    @Test
+    public void testTransientFailureIsRetried() throws Exception {
+        smtpServer.failRecipient("flaky@example.com", 2, "451 Try again later");
+        long retriesBefore = emailDispatchQueue.getStats().getRetries();
+
+        emailService.sendDocumentApprovalNotification("flaky@example.com", "report.pdf", "APPROVED");
+
+        assertTrue(await(() -> smtpServer.getDeliveredTo().contains("flaky@example.com")));
+        assertEquals(2, emailDispatchQueue.getStats().getRetries() - retriesBefore);
+    }
+
+    @Test
+    public void testPermanentFailureEndsInDeadLetters() throws Exception {
+        smtpServer.failRecipient("broken@example.com", Integer.MAX_VALUE, "550 No such user");
+
+        emailService.sendDocumentApprovalNotification("broken@example.com", "report.pdf", "REJECTED");
+
+        assertTrue(await(() -> emailDispatchQueue.getDeadLetters().stream()
+                .anyMatch(letter -> letter.getRecipient().equals("broken@example.com"))));
+        EmailDeadLetter letter = emailDispatchQueue.getDeadLetters().stream()
+                .filter(l -> l.getRecipient().equals("broken@example.com"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3, letter.getAttempts());
+        assertFalse(smtpServer.getDeliveredTo().contains("broken@example.com"));
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.SmartDocumentApprovalSystemApplication;
+import com.expensetracker.smartdocumentapprovalsystem.dto.LoginRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Exports run on the async executor in a transaction of their own, so the
+ * rows they read are committed here and removed again afterwards.
+ */
+@SpringBootTest(classes = SmartDocumentApprovalSystemApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ExportIntegrationTest {
+
+    private static final String ACTION = "EXPORT_TEST";
+    private static final int ROWS = 2500;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String adminToken;
+
+    @BeforeEach
+    void seed() throws Exception {
+        // More rows than one fetch; the higher x, the older the row
+        jdbcTemplate.update("insert into audit_logs (action, entity_type, entity_id, user_email, user_name, details, timestamp) " +
+                "select ?, 'Document', x, 'export@example.com', 'Export User', " +
+                "case when x = 1 then 'said \"hi\", then' || char(10) || 'left' else 'row ' || x end, " +
+                "dateadd('SECOND', -x, timestamp '2001-06-01 12:00:00') from system_range(1, ?)", ACTION, ROWS);
+        jdbcTemplate.update("insert into documents (title, upload_path, uploaded_by, created_at, status, version) " +
+                "select 'export-' || x, 'export/' || x, (select id from users where email = 'bob@documentapproval.com'), " +
+                "dateadd('DAY', x, timestamp '2001-01-01 00:00:00'), 'PENDING', 0 from system_range(1, 3)");
+        adminToken = login("admin@documentapproval.com", "admin123");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from audit_logs where action = ?", ACTION);
+        jdbcTemplate.update("delete from documents where upload_path like 'export/%'");
+    }
+
+    @Test
+    public void testAuditExportStreamsNdjsonOldestFirst() throws Exception {
+        MvcResult result = export("/api/audit/export?action=" + ACTION, adminToken);
+
+        assertEquals("application/x-ndjson;charset=UTF-8", result.getResponse().getContentType());
+        assertTrue(result.getResponse().getHeader("Content-Disposition").contains("audit-logs.ndjson"));
+        List<String> lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(ROWS, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        JsonNode last = objectMapper.readTree(lines.get(ROWS - 1));
+        assertEquals(ROWS, first.get("entityId").asLong());
+        assertEquals("said \"hi\", then\nleft", last.get("details").asText());
+        assertEquals("2001-06-01T11:59:59", last.get("timestamp").asText());
+    }
+
+    @Test
+    public void testAuditExportAsGzippedCsv() throws Exception {
+        MvcResult result = export("/api/audit/export?action=" + ACTION + "&format=CSV&gzip=true", adminToken);
+
+        assertEquals("application/gzip", result.getResponse().getContentType());
+        assertTrue(result.getResponse().getHeader("Content-Disposition").contains("audit-logs.csv.gz"));
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(csv.startsWith("id,timestamp,action,entityType,entityId,userEmail,userName,details\r\n"));
+        assertTrue(csv.endsWith(",EXPORT_TEST,Document,1,export@example.com,Export User,\"said \"\"hi\"\", then\nleft\"\r\n"));
+        // Header, then one record per row; only the last one spans two lines
+        assertEquals(ROWS + 2, csv.split("\r?\n").length);
+    }
+
+    @Test
+    public void testDocumentExportAppliesFilters() throws Exception {
+        MvcResult result = export("/api/documents/export?format=CSV&from=2001-01-02T00:00:00&to=2002-01-01T00:00:00",
+                adminToken);
+
+        List<String> lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(1).contains(",export-1,PENDING,Bob Johnson,2001-01-02T00:00,"));
+        assertTrue(lines.get(3).contains(",export-3,"));
+    }
+
+    @Test
+    public void testDocumentExportRequiresManagerOrAdmin() throws Exception {
+        String userToken = login("alice@documentapproval.com", "user123");
+        mockMvc.perform(get("/api/documents/export").header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private MvcResult export(String url, String token) throws Exception {
+        MvcResult started = mockMvc.perform(get(url).header("Authorization", token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private String login(String email, String password) throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(email);
+        loginRequest.setPassword(password);
+        String body = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return "Bearer " + JsonPath.read(body, "$.token");
+    }
+}
@@ -0,0 +1,154 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal local SMTP stand-in for tests. Accepts every message except for
+ * recipients that were told to fail, and records what it delivered.
+ */
+public class FakeSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+    private final Map<String, Long> delays = new ConcurrentHashMap<>();
+    private final List<String> deliveredTo = new CopyOnWriteArrayList<>();
+    private final AtomicInteger rcptAttempts = new AtomicInteger();
+    private volatile boolean running = true;
+
+    private FakeSmtpServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public static FakeSmtpServer start() {
+        try {
+            return new FakeSmtpServer();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not start fake SMTP server", ex);
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    // Rejects the next {@code times} deliveries to the recipient with the given reply
+    public void failRecipient(String recipient, int times, String reply) {
+        failures.put(recipient.toLowerCase(), new Failure(new AtomicInteger(times), reply));
+    }
+
+    // Holds the RCPT reply for this recipient, like a slow relay
+    public void delayRecipient(String recipient, long millis) {
+        delays.put(recipient.toLowerCase(), millis);
+    }
+
+    public List<String> getDeliveredTo() {
+        return new ArrayList<>(deliveredTo);
+    }
+
+    public int getRcptAttempts() {
+        return rcptAttempts.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread session = new Thread(() -> handle(socket), "fake-smtp-session");
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException ex) {
+                // closed
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 localhost fake ESMTP");
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("EHLO")) {
+                    reply(out, "250-localhost\r\n250 8BITMIME");
+                } else if (command.startsWith("HELO") || command.startsWith("NOOP")) {
+                    reply(out, "250 OK");
+                } else if (command.startsWith("MAIL FROM")) {
+                    recipients.clear();
+                    reply(out, "250 OK");
+                } else if (command.startsWith("RCPT TO")) {
+                    reply(out, rcpt(line, recipients));
+                } else if (command.startsWith("RSET")) {
+                    recipients.clear();
+                    reply(out, "250 OK");
+                } else if (command.startsWith("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        // message body is not inspected
+                    }
+                    deliveredTo.addAll(recipients);
+                    recipients.clear();
+                    reply(out, "250 OK queued");
+                } else if (command.startsWith("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException ex) {
+            // client went away
+        }
+    }
+
+    private String rcpt(String line, List<String> recipients) {
+        rcptAttempts.incrementAndGet();
+        String address = line.substring(line.indexOf('<') + 1, line.lastIndexOf('>')).toLowerCase();
+        Long delay = delays.get(address);
+        if (delay != null) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Failure failure = failures.get(address);
+        if (failure != null && failure.remaining().getAndDecrement() > 0) {
+            return failure.reply();
+        }
+        recipients.add(address);
+        return "250 OK";
+    }
+
+    private static void reply(OutputStream out, String reply) throws IOException {
+        out.write((reply + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private record Failure(AtomicInteger remaining, String reply) {
+    }
+}
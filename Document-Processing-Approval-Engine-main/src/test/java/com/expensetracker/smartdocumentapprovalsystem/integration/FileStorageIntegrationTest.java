@@ -0,0 +1,126 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.SmartDocumentApprovalSystemApplication;
+import com.expensetracker.smartdocumentapprovalsystem.model.StoredBlob;
+import com.expensetracker.smartdocumentapprovalsystem.repository.StoredBlobRepository;
+import com.expensetracker.smartdocumentapprovalsystem.utils.FileStorageUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: the reference counts are changed in their own transactions
+@SpringBootTest(classes = SmartDocumentApprovalSystemApplication.class)
+@ActiveProfiles("test")
+public class FileStorageIntegrationTest {
+
+    @Autowired
+    private FileStorageUtil fileStorageUtil;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Test
+    public void testIdenticalUploadsShareOneBlob() throws Exception {
+        byte[] content = uniqueContent();
+
+        String first = fileStorageUtil.storeFile(new MockMultipartFile("file", "first.txt", "text/plain", content));
+        String second = fileStorageUtil.storeStream(new ByteArrayInputStream(content), "second.txt");
+
+        assertEquals(sha256(content), first);
+        assertEquals(first, second);
+        assertEquals(2, refCount(first));
+        Path blob = fileStorageUtil.loadFileAsResource(first);
+        assertArrayEquals(content, Files.readAllBytes(blob));
+
+        fileStorageUtil.releaseFile(first);
+        fileStorageUtil.releaseFile(second);
+    }
+
+    @Test
+    public void testBlobIsRemovedOnlyWhenLastReferenceIsReleased() throws Exception {
+        byte[] content = uniqueContent();
+        String digest = fileStorageUtil.storeStream(new ByteArrayInputStream(content), "a.txt");
+        fileStorageUtil.storeStream(new ByteArrayInputStream(content), "b.txt");
+        Path blob = fileStorageUtil.loadFileAsResource(digest);
+
+        fileStorageUtil.releaseFile(digest);
+        assertEquals(1, refCount(digest));
+        assertTrue(Files.exists(blob));
+
+        fileStorageUtil.releaseFile(digest);
+        assertFalse(storedBlobRepository.existsById(digest));
+        assertFalse(Files.exists(blob));
+        assertThrows(RuntimeException.class, () -> fileStorageUtil.loadFileAsResource(digest));
+
+        // A release too many leaves nothing behind and does not go negative
+        fileStorageUtil.releaseFile(digest);
+        assertFalse(storedBlobRepository.existsById(digest));
+    }
+
+    @Test
+    public void testConcurrentIdenticalUploadsCountEveryReference() throws Exception {
+        int threads = 8;
+        byte[] content = uniqueContent();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                String name = "concurrent-" + i + ".txt";
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return fileStorageUtil.storeStream(new ByteArrayInputStream(content), name);
+                }));
+            }
+            start.countDown();
+            List<String> digests = new ArrayList<>();
+            for (Future<String> future : futures) {
+                digests.add(future.get());
+            }
+
+            String digest = sha256(content);
+            assertTrue(digests.stream().allMatch(digest::equals));
+            assertEquals(threads, refCount(digest));
+            Path blob = fileStorageUtil.loadFileAsResource(digest);
+            assertArrayEquals(content, Files.readAllBytes(blob));
+
+            for (String reference : digests) {
+                fileStorageUtil.releaseFile(reference);
+            }
+            assertFalse(storedBlobRepository.existsById(digest));
+            assertFalse(Files.exists(blob));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long refCount(String digest) {
+        return storedBlobRepository.findById(digest).map(StoredBlob::getRefCount).orElse(0L);
+    }
+
+    private static byte[] uniqueContent() {
+        return ("Quarterly report " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -0,0 +1,194 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.repository.AuditLogRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.AuditLogRollupRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.DocumentRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
+import com.expensetracker.smartdocumentapprovalsystem.utils.DocumentProgress;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every query of WorkFlowRepository, DocumentRepository,
+ * AuditLogRepository and AuditLogRollupRepository that the application calls against a few thousand seeded
+ * rows and fails on any whose H2 plan reads one of those tables in full
+ * instead of through an index. The SQL is the statement Hibernate actually
+ * sends, recorded on its way out.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.expensetracker.smartdocumentapprovalsystem.integration.QueryPlanIntegrationTest$RecordingInspector")
+public class QueryPlanIntegrationTest extends BaseIntegrationTest {
+
+    private static final int DOCUMENTS = 2000;
+    private static final int AUDIT_LOGS = 5000;
+    private static final int AUDIT_LOG_ROLLUPS = 2000;
+    private static final Set<String> INDEXED_TABLES = Set.of("DOCUMENTS", "WORK_FLOW", "AUDIT_LOGS", "AUDIT_LOG_ROLLUPS");
+    private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.(\\w+)\\.tableScan");
+
+    private static final List<String> RECORDED = new CopyOnWriteArrayList<>();
+
+    public static class RecordingInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            RECORDED.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private WorkFlowRepository workFlowRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private AuditLogRollupRepository auditLogRollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        entityManager.flush();
+        jdbcTemplate.update("insert into documents (title, upload_path, uploaded_by, created_at, status, version) " +
+                        "select 'seed-' || x, 'seed-' || x, " +
+                        "case mod(x, 4) when 0 then ? when 1 then ? when 2 then ? else ? end, " +
+                        "dateadd('MINUTE', -x, current_timestamp), 'PENDING', 0 from system_range(1, ?)",
+                testUser.getId(), testAdmin.getId(), testManager.getId(), testOfficer.getId(), DOCUMENTS);
+        jdbcTemplate.update("insert into work_flow (document_id, reviewer_id, status, stage, due_at, escalations) " +
+                        "select d.id, case s.x when 0 then ? when 1 then ? else ? end, mod(d.id + s.x, 6), s.x, " +
+                        "dateadd('HOUR', mod(d.id, 48) - 24, current_timestamp), 0 " +
+                        "from documents d cross join system_range(0, 2) s",
+                testOfficer.getId(), testManager.getId(), testAdmin.getId());
+        jdbcTemplate.update("insert into audit_logs (action, entity_type, entity_id, user_email, user_name, timestamp) " +
+                        "select 'ACTION_' || mod(x, 12), case mod(x, 2) when 0 then 'DOCUMENT' else 'WORKFLOW' end, " +
+                        "mod(x, 1000), 'user' || mod(x, 50) || '@example.com', 'User ' || mod(x, 50), " +
+                        "dateadd('MINUTE', -x, current_timestamp) from system_range(1, ?)", AUDIT_LOGS);
+        jdbcTemplate.update("insert into audit_log_rollups (rollup_day, action, entity_type, user_email, user_name, " +
+                        "event_count, first_timestamp, last_timestamp) " +
+                        "select dateadd('DAY', -x, current_date), 'USER_LOGIN', 'User', 'user' || mod(x, 50) || '@example.com', " +
+                        "'User ' || mod(x, 50), 3, dateadd('DAY', -x, current_timestamp), dateadd('DAY', -x, current_timestamp) " +
+                        "from system_range(1, ?)", AUDIT_LOG_ROLLUPS);
+        RECORDED.clear();
+    }
+
+    @Test
+    public void testRepositoryQueriesReadThroughIndexes() {
+        LocalDateTime now = LocalDateTime.now();
+        Long userId = (long) testUser.getId();
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("WorkFlowRepository.findByReviewerIdAndStatus",
+                () -> workFlowRepository.findByReviewerIdAndStatus((long) testOfficer.getId(), Status.PENDING));
+        queries.put("WorkFlowRepository.findByDocumentId", () -> workFlowRepository.findByDocumentId(1L));
+        queries.put("WorkFlowRepository.findById", () -> workFlowRepository.findById(1L));
+        queries.put("WorkFlowRepository.findStepsByDocumentId", () -> workFlowRepository.findStepsByDocumentId(1L));
+        queries.put("WorkFlowRepository.findDocumentStepsByStepId", () -> workFlowRepository.findDocumentStepsByStepId(1));
+        queries.put("WorkFlowRepository.findDocumentStepsByStepIds",
+                () -> workFlowRepository.findDocumentStepsByStepIds(List.of(1, 2, 3)));
+        queries.put("WorkFlowRepository.findDueBefore",
+                () -> workFlowRepository.findDueBefore(DocumentProgress.REVIEWABLE_STEP_STATUSES, now));
+        queries.put("WorkFlowRepository.countByReviewerInStatus",
+                () -> workFlowRepository.countByReviewerInStatus(DocumentProgress.REVIEWABLE_STEP_STATUSES));
+        queries.put("WorkFlowRepository.findInboxByAge", () -> workFlowRepository.findInboxByAge(
+                testOfficer.getId(), DocumentProgress.REVIEWABLE_STEP_STATUSES, Limit.of(20)));
+        queries.put("WorkFlowRepository.findInboxByAgeAfter", () -> workFlowRepository.findInboxByAgeAfter(
+                testOfficer.getId(), DocumentProgress.REVIEWABLE_STEP_STATUSES, 10, Limit.of(20)));
+        queries.put("WorkFlowRepository.findInboxByPriority", () -> workFlowRepository.findInboxByPriority(
+                testOfficer.getId(), DocumentProgress.REVIEWABLE_STEP_STATUSES, Limit.of(20)));
+        queries.put("WorkFlowRepository.findInboxByPriorityAfter", () -> workFlowRepository.findInboxByPriorityAfter(
+                testOfficer.getId(), DocumentProgress.REVIEWABLE_STEP_STATUSES, now, 10, Limit.of(20)));
+        queries.put("WorkFlowRepository.findInboxByPriorityAfterUndated",
+                () -> workFlowRepository.findInboxByPriorityAfterUndated(
+                        testOfficer.getId(), DocumentProgress.REVIEWABLE_STEP_STATUSES, 10, Limit.of(20)));
+        queries.put("WorkFlowRepository.countInbox",
+                () -> workFlowRepository.countInbox(testOfficer.getId(), DocumentProgress.REVIEWABLE_STEP_STATUSES));
+        queries.put("DocumentRepository.findById", () -> documentRepository.findById(1));
+        queries.put("DocumentRepository.findWithUploaderById", () -> documentRepository.findWithUploaderById(1));
+        queries.put("DocumentRepository.findByUploadedById", () -> documentRepository.findByUploadedById(userId));
+        queries.put("DocumentRepository.findSummariesByUploadedById",
+                () -> documentRepository.findSummariesByUploadedById(userId));
+        queries.put("DocumentRepository.findSummaryPage", () -> documentRepository.findSummaryPage(
+                null, null, null, null, Limit.of(20)));
+        queries.put("DocumentRepository.findSummaryPageAfter", () -> documentRepository.findSummaryPageAfter(
+                null, null, null, null, now, 100L, Limit.of(20)));
+        queries.put("AuditLogRepository.findByUserEmailOrderByTimestampDesc",
+                () -> auditLogRepository.findByUserEmailOrderByTimestampDesc("user1@example.com"));
+        queries.put("AuditLogRepository.findByEntityTypeAndEntityIdOrderByTimestampDesc",
+                () -> auditLogRepository.findByEntityTypeAndEntityIdOrderByTimestampDesc("DOCUMENT", 10L));
+        queries.put("AuditLogRepository.findByTimestampBetweenOrderByTimestampDesc",
+                () -> auditLogRepository.findByTimestampBetweenOrderByTimestampDesc(now.minusHours(1), now));
+        queries.put("AuditLogRepository.findByActionOrderByTimestampDesc",
+                () -> auditLogRepository.findByActionOrderByTimestampDesc("ACTION_1"));
+        queries.put("AuditLogRepository.findPage", () -> auditLogRepository.findPage(
+                null, null, null, null, null, Limit.of(20)));
+        queries.put("AuditLogRepository.findPageAfter", () -> auditLogRepository.findPageAfter(
+                null, null, null, null, null, now, 100L, Limit.of(20)));
+        queries.put("AuditLogRollupRepository.findByUserEmailOrderByLastTimestampDesc",
+                () -> auditLogRollupRepository.findByUserEmailOrderByLastTimestampDesc("user1@example.com"));
+        queries.put("AuditLogRollupRepository.findByLastTimestampBetweenOrderByLastTimestampDesc",
+                () -> auditLogRollupRepository.findByLastTimestampBetweenOrderByLastTimestampDesc(now.minusDays(7), now));
+        queries.put("AuditLogRollupRepository.findPage", () -> auditLogRollupRepository.findPage(
+                null, null, null, null, null, Limit.of(20)));
+        queries.put("AuditLogRollupRepository.findPageAfter", () -> auditLogRollupRepository.findPageAfter(
+                null, null, null, null, null, now, 100L, Limit.of(20)));
+
+        List<String> scans = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            RECORDED.clear();
+            query.run();
+            for (String sql : RECORDED) {
+                String plan = explain(sql);
+                Matcher scan = TABLE_SCAN.matcher(plan);
+                while (scan.find()) {
+                    if (INDEXED_TABLES.contains(scan.group(1))) {
+                        scans.add(name + " reads " + scan.group(1).toLowerCase() + " in full:\n" + plan);
+                    }
+                }
+            }
+        });
+        assertTrue(scans.isEmpty(), String.join("\n\n", scans));
+    }
+
+    // The plan H2 picks for the statement; plans do not depend on the parameter values
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,210 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.SmartDocumentApprovalSystemApplication;
+import com.expensetracker.smartdocumentapprovalsystem.config.UserPrincipal;
+import com.expensetracker.smartdocumentapprovalsystem.dto.DocumentResponseDTO;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.User;
+import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.DocumentService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.ReplicaRoutingDataSource;
+import com.expensetracker.smartdocumentapprovalsystem.utils.ResourceVersionTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two in-memory databases stand in for the primary and its replica.
+ * "Replication" copies the primary into the replica on demand, so each test
+ * controls exactly what the replica has seen.
+ */
+@SpringBootTest(classes = SmartDocumentApprovalSystemApplication.class, properties = {
+        "spring.datasource.url=" + ReplicaRoutingIntegrationTest.PRIMARY_URL,
+        "datasource.replica.urls=" + ReplicaRoutingIntegrationTest.REPLICA_URL,
+        "datasource.replica.max-lag-ms=5000",
+        "datasource.replica.sticky-window-ms=1000",
+        // Lag is only checked when a test asks for it
+        "datasource.replica.lag-check-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ReplicaRoutingIntegrationTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    private static final Path SNAPSHOT = Path.of("target", "replica-snapshot.sql");
+
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ResourceVersionTracker resourceVersionTracker;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private User alice;
+
+    @BeforeEach
+    void syncReplica() throws Exception {
+        alice = userRepository.findByEmail("alice@documentapproval.com").orElseThrow();
+        replicate();
+    }
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        SecurityContextHolder.clearContext();
+        Files.deleteIfExists(SNAPSHOT);
+    }
+
+    @Test
+    public void testReadOnlyTransactionReadsFromReplica() throws Exception {
+        Document document = upload("routed.pdf");
+        replicate();
+        replica.update("update documents set title = 'replica copy' where id = ?", document.getId());
+
+        List<DocumentResponseDTO> seenByBob = as("bob@documentapproval.com",
+                () -> documentService.getDocumentSummariesByUser((long) alice.getId()));
+
+        assertTrue(titles(seenByBob).contains("replica copy"));
+        assertFalse(titles(seenByBob).contains("routed.pdf"));
+    }
+
+    @Test
+    public void testWriterReadsOwnUploadFromPrimary() {
+        as("alice@documentapproval.com", () -> upload("fresh.pdf"));
+
+        List<DocumentResponseDTO> seenByAlice = as("alice@documentapproval.com",
+                () -> documentService.getDocumentSummariesByUser((long) alice.getId()));
+        List<DocumentResponseDTO> seenByBob = as("bob@documentapproval.com",
+                () -> documentService.getDocumentSummariesByUser((long) alice.getId()));
+
+        assertTrue(titles(seenByAlice).contains("fresh.pdf"));
+        // Nothing has been replicated since the upload
+        assertFalse(titles(seenByBob).contains("fresh.pdf"));
+    }
+
+    @Test
+    public void testAllDocumentsReadFromPrimaryRightAfterChange() {
+        as("alice@documentapproval.com", () -> upload("listed.pdf"));
+
+        // Nothing replicated yet; the new tag of the list must not be served with the replica's old page
+        List<DocumentResponseDTO> seenByBob = as("bob@documentapproval.com", () -> resourceVersionTracker.readAllDocuments(
+                () -> documentService.getDocumentSummaryPage(null, null, null, null, null, 500)).getItems());
+        List<DocumentResponseDTO> unpinned = as("bob@documentapproval.com",
+                () -> documentService.getDocumentSummaryPage(null, null, null, null, null, 500).getItems());
+
+        assertTrue(titles(seenByBob).contains("listed.pdf"));
+        assertFalse(titles(unpinned).contains("listed.pdf"));
+    }
+
+    @Test
+    public void testWriteAfterReadInOneRequestGoesToPrimary() throws Exception {
+        Document document = upload("deleted.pdf");
+        replicate();
+        // Her list changed with the upload; once that is a window ago, her reads go to the replica
+        Thread.sleep(1100);
+
+        // Signed in as the JWT filter does, so the request's first statement is the read-only load of the
+        // document; the delete that follows must not reuse its connection
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/documents/" + document.getId())
+                        .with(user(new UserPrincipal(alice))))
+                .andExpect(status().isOk());
+
+        assertEquals(0, primary.queryForObject("select count(*) from documents where id = ?",
+                Integer.class, document.getId()));
+    }
+
+    @Test
+    public void testResponsesNeedNoSessionAfterTheTransaction() throws Exception {
+        Document document = upload("detached.pdf");
+        replicate();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/documents/" + document.getId())
+                        .with(user(new UserPrincipal(alice))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.uploadedBy.email").value(alice.getEmail()));
+        User admin = userRepository.findByEmail("admin@documentapproval.com").orElseThrow();
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/workflows/document/" + document.getId())
+                        .with(user(new UserPrincipal(admin))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].uploaderName").value(alice.getName()))
+                .andExpect(jsonPath("$[0].reviewerEmail").isNotEmpty());
+    }
+
+    @Test
+    public void testLaggingReplicaFallsBackToPrimary() throws Exception {
+        Document document = upload("lagging.pdf");
+        replicate();
+        replica.update("update documents set title = 'replica copy' where id = ?", document.getId());
+        replica.update("update replication_heartbeat set beat_at = dateadd('HOUR', -1, current_timestamp)");
+        replicaRoutingDataSource.checkLag();
+
+        List<DocumentResponseDTO> seenByBob = as("bob@documentapproval.com",
+                () -> documentService.getDocumentSummariesByUser((long) alice.getId()));
+
+        assertTrue(replicaRoutingDataSource.getLagMs(0) > 5000);
+        assertTrue(titles(seenByBob).contains("lagging.pdf"));
+    }
+
+    private Document upload(String title) {
+        Document document = new Document();
+        document.setTitle(title);
+        document.setUploadPath("routing/" + title);
+        return documentService.createDocument(document, alice.getId());
+    }
+
+    // Copies the primary as it is now into the replica, which is then caught up
+    private void replicate() throws Exception {
+        Files.createDirectories(SNAPSHOT.getParent());
+        replicaRoutingDataSource.checkLag();
+        primary.execute("script to '" + SNAPSHOT + "'");
+        replica.execute("drop all objects");
+        replica.execute("runscript from '" + SNAPSHOT + "'");
+        replicaRoutingDataSource.checkLag();
+        assertEquals(0, replicaRoutingDataSource.getLagMs(0));
+    }
+
+    private static <T> T as(String email, Supplier<T> work) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+        try {
+            return work.get();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static List<String> titles(List<DocumentResponseDTO> documents) {
+        return documents.stream().map(DocumentResponseDTO::getTitle).toList();
+    }
+}
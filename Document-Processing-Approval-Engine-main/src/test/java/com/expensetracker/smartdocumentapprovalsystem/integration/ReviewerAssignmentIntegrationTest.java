@@ -0,0 +1,177 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.AssignmentStrategy;
+import com.expensetracker.smartdocumentapprovalsystem.dto.ReviewerLoad;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import com.expensetracker.smartdocumentapprovalsystem.model.User;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.DocumentService;
+import com.expensetracker.smartdocumentapprovalsystem.service.ReviewerAssignmentService;
+import com.expensetracker.smartdocumentapprovalsystem.service.WorkFlowService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReviewerAssignmentIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private WorkFlowService workFlowService;
+
+    @Autowired
+    private WorkFlowRepository workFlowRepository;
+
+    @Autowired
+    private ReviewerAssignmentService reviewerAssignmentService;
+
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User secondOfficer;
+
+    @BeforeEach
+    void addSecondOfficer() {
+        secondOfficer = new User();
+        secondOfficer.setName("Second Officer");
+        secondOfficer.setEmail("officer2@example.com");
+        secondOfficer.setPassword(passwordEncoder.encode("password"));
+        secondOfficer.setRole(Role.OFFICER);
+        secondOfficer = userRepository.save(secondOfficer);
+        entityManager.flush();
+        userDirectoryCache.invalidateAll();
+    }
+
+    @AfterEach
+    void restoreStrategy() {
+        ReflectionTestUtils.setField(reviewerAssignmentService, "strategy", AssignmentStrategy.LEAST_LOADED);
+    }
+
+    @Test
+    public void testLeastLoadedSpreadsDocumentsOverOfficers() {
+        List<Integer> officers = List.of(
+                officerOf(upload("a.pdf", testUser)),
+                officerOf(upload("b.pdf", testUser)),
+                officerOf(upload("c.pdf", testUser)),
+                officerOf(upload("d.pdf", testUser)));
+
+        assertEquals(List.of(testOfficer.getId(), secondOfficer.getId(), testOfficer.getId(), secondOfficer.getId()),
+                officers);
+        assertEquals(2, loadOf(testOfficer));
+        assertEquals(2, loadOf(secondOfficer));
+    }
+
+    @Test
+    public void testClosedStepsFreeTheReviewer() {
+        Document first = upload("a.pdf", testUser);
+        upload("b.pdf", testUser);
+        assertEquals(testOfficer.getId(), officerOf(first));
+
+        // The first officer's step is done, so they are the least loaded again
+        workFlowService.updateWorkflowStatus((long) officerStep(first).getId(), Status.APPROVED, null);
+        assertEquals(0, loadOf(testOfficer));
+
+        assertEquals(testOfficer.getId(), officerOf(upload("c.pdf", testUser)));
+    }
+
+    @Test
+    public void testWeightedRoundRobinFollowsWeights() {
+        ReflectionTestUtils.setField(reviewerAssignmentService, "strategy", AssignmentStrategy.WEIGHTED_ROUND_ROBIN);
+        @SuppressWarnings("unchecked")
+        Map<String, Integer> weights = (Map<String, Integer>) ReflectionTestUtils.getField(reviewerAssignmentService, "weights");
+        weights.put(testOfficer.getEmail(), 3);
+        try {
+            long toFirst = 0;
+            for (int i = 0; i < 8; i++) {
+                if (officerOf(upload("doc-" + i + ".pdf", testUser)) == testOfficer.getId()) {
+                    toFirst++;
+                }
+            }
+            assertEquals(6, toFirst);
+        } finally {
+            weights.remove(testOfficer.getEmail());
+        }
+    }
+
+    @Test
+    public void testStickyKeepsUploaderWithTheirReviewer() {
+        ReflectionTestUtils.setField(reviewerAssignmentService, "strategy", AssignmentStrategy.STICKY);
+
+        int first = officerOf(upload("a.pdf", testUser));
+        // Another uploader lands on the less loaded officer
+        int other = officerOf(upload("b.pdf", testManager));
+        assertNotEquals(first, other);
+
+        // Even though both officers are equally loaded now, testUser stays with theirs
+        assertEquals(first, officerOf(upload("c.pdf", testUser)));
+        assertEquals(first, officerOf(upload("d.pdf", testUser)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRolledBackAssignmentsLeaveNoState() {
+        Map<Integer, Integer> currentWeights = (Map<Integer, Integer>) ReflectionTestUtils.getField(
+                reviewerAssignmentService, "currentWeights");
+        Cache<String, Integer> stickyReviewers = (Cache<String, Integer>) ReflectionTestUtils.getField(
+                reviewerAssignmentService, "stickyReviewers");
+        Map<Integer, Integer> weightsBefore = new HashMap<>(currentWeights);
+
+        ReflectionTestUtils.setField(reviewerAssignmentService, "strategy", AssignmentStrategy.WEIGHTED_ROUND_ROBIN);
+        upload("a.pdf", testUser);
+        ReflectionTestUtils.setField(reviewerAssignmentService, "strategy", AssignmentStrategy.STICKY);
+        upload("b.pdf", testUser);
+        assertNotNull(stickyReviewers.getIfPresent(testUser.getId() + ":" + Role.OFFICER));
+
+        TestTransaction.end();
+        // The test's users are gone with it
+        userDirectoryCache.invalidateAll();
+
+        assertEquals(weightsBefore, currentWeights);
+        assertNull(stickyReviewers.getIfPresent(testUser.getId() + ":" + Role.OFFICER));
+    }
+
+    private Document upload(String title, User uploader) {
+        Document document = new Document();
+        document.setTitle(title);
+        document.setUploadPath(title);
+        return documentService.createDocument(document, uploader.getId());
+    }
+
+    private WorkFlow officerStep(Document document) {
+        return workFlowRepository.findByDocumentId(document.getId()).stream()
+                .filter(step -> step.getStage() == 0)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private int officerOf(Document document) {
+        return officerStep(document).getReviewer().getId();
+    }
+
+    private int loadOf(User reviewer) {
+        return reviewerAssignmentService.getReviewerLoads().stream()
+                .filter(load -> load.getReviewerId() == reviewer.getId())
+                .mapToInt(ReviewerLoad::getOpenSteps)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,139 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.CursorPage;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.DocumentService;
+import com.expensetracker.smartdocumentapprovalsystem.service.WorkFlowService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryCache;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class ReviewerInboxIntegrationTest extends BaseIntegrationTest {
+
+    private static final int DOCUMENT_COUNT = 5;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private WorkFlowService workFlowService;
+
+    @Autowired
+    private WorkFlowRepository workFlowRepository;
+
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // The officer's step of each document, in upload order
+    private final List<WorkFlow> officerSteps = new ArrayList<>();
+
+    @BeforeEach
+    void uploadDocuments() {
+        userDirectoryCache.invalidateAll();
+        for (int i = 0; i < DOCUMENT_COUNT; i++) {
+            Document document = new Document();
+            document.setTitle("inbox-" + i + ".pdf");
+            document.setUploadPath("inbox-" + i + ".pdf");
+            document = documentService.createDocument(document, testUser.getId());
+            officerSteps.add(workFlowRepository.findByDocumentId(document.getId()).stream()
+                    .filter(step -> step.getStage() == 0)
+                    .findFirst()
+                    .orElseThrow());
+        }
+    }
+
+    @Test
+    public void testInboxPagesOldestFirstInOneStatementPerPage() throws Exception {
+        // Still the reviewer's to settle
+        workFlowService.updateWorkflowStatus((long) officerSteps.get(1).getId(), Status.UNDER_REVIEW, null);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        MvcResult first = mockMvc.perform(MockMvcRequestBuilders.get("/api/workflows/pending")
+                        .param("limit", "2")
+                        .with(user(testOfficer.getEmail()).roles("OFFICER")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorPage.TOTAL_COUNT_HEADER, String.valueOf(DOCUMENT_COUNT)))
+                .andExpect(jsonPath("$[0].documentTitle").value("inbox-0.pdf"))
+                .andExpect(jsonPath("$[0].uploaderName").value("Test User"))
+                .andExpect(jsonPath("$[0].reviewerEmail").value(testOfficer.getEmail()))
+                .andExpect(jsonPath("$[0].document.uploadPath").value("inbox-0.pdf"))
+                .andExpect(jsonPath("$[1].status").value("UNDER_REVIEW"))
+                .andReturn();
+        // Resolving the caller, the page and the count; nothing is loaded lazily per row
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        List<Integer> ids = new ArrayList<>(ids(first));
+        String cursor = first.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+        while (cursor != null) {
+            MvcResult next = page("AGE", cursor);
+            ids.addAll(ids(next));
+            cursor = next.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+        }
+        assertEquals(officerSteps.stream().map(WorkFlow::getId).toList(), ids);
+    }
+
+    @Test
+    public void testPriorityPutsEarliestDeadlineFirstAndUndatedLast() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        officerSteps.get(0).setDueAt(now.plusHours(5));
+        officerSteps.get(1).setDueAt(null);
+        officerSteps.get(2).setDueAt(now.minusHours(1));
+        officerSteps.get(3).setDueAt(now.plusHours(5));
+        officerSteps.get(4).setDueAt(now.plusHours(2));
+        entityManager.flush();
+
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            MvcResult next = page("PRIORITY", cursor);
+            ids.addAll(ids(next));
+            cursor = next.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        assertEquals(List.of(officerSteps.get(2).getId(), officerSteps.get(4).getId(), officerSteps.get(0).getId(),
+                officerSteps.get(3).getId(), officerSteps.get(1).getId()), ids);
+    }
+
+    private MvcResult page(String sort, String cursor) throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get("/api/workflows/pending")
+                .param("sort", sort)
+                .param("limit", "2")
+                .with(user(testOfficer.getEmail()).roles("OFFICER"));
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private static List<Integer> ids(MvcResult result) throws Exception {
+        List<Number> ids = JsonPath.read(result.getResponse().getContentAsString(), "$[*].id");
+        return ids.stream().map(Number::intValue).toList();
+    }
+}
@@ -0,0 +1,95 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class StreamingUploadIntegrationTest extends BaseIntegrationTest {
+
+    private static final String BOUNDARY = "----stream-boundary-3f9a";
+
+    @Test
+    public void testUploadUnderContextPath() throws Exception {
+        byte[] body = body(part("title", null, "Scanned invoice"), part("file", "invoice.pdf", pdf()));
+
+        // The body must reach the controller unread, whatever path the app is deployed under
+        mockMvc.perform(MockMvcRequestBuilders.post("/app/api/documents/upload/stream")
+                        .contextPath("/app")
+                        .with(user(testUser.getEmail()).roles("USER"))
+                        .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Scanned invoice"));
+    }
+
+    @Test
+    public void testMissingFilePart() throws Exception {
+        upload(body(part("title", null, "No file"))).andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("both 'file' and 'title' parts are required")));
+    }
+
+    @Test
+    public void testBadMagicNumber() throws Exception {
+        byte[] notPdf = "GIF89a pretending to be a PDF".getBytes(StandardCharsets.US_ASCII);
+        upload(body(part("title", null, "Fake"), part("file", "fake.pdf", notPdf)))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    public void testOversizedUpload() throws Exception {
+        // Over the test profile's 1MB request and file limits
+        byte[] large = Arrays.copyOf(pdf(), 1536 * 1024);
+        upload(body(part("title", null, "Large"), part("file", "large.pdf", large)))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    public void testTruncatedBody() throws Exception {
+        byte[] body = body(part("title", null, "Cut off"), part("file", "cut.pdf", Arrays.copyOf(pdf(), 4096)));
+        upload(Arrays.copyOf(body, body.length - 64)).andExpect(status().isBadRequest());
+    }
+
+    private ResultActions upload(byte[] body) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.post("/api/documents/upload/stream")
+                .with(user(testUser.getEmail()).roles("USER"))
+                .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                .content(body));
+    }
+
+    // Unique content each time, so uploads never share a blob with another test
+    private static byte[] pdf() {
+        return ("%PDF-1.4\n" + UUID.randomUUID() + "\n%%EOF").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] part(String name, String filename, String value) {
+        return part(name, filename, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] part(String name, String filename, byte[] value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String disposition = "Content-Disposition: form-data; name=\"" + name + "\""
+                + (filename != null ? "; filename=\"" + filename + "\"" : "");
+        out.writeBytes(("--" + BOUNDARY + "\r\n" + disposition + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(value);
+        out.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+        return out.toByteArray();
+    }
+
+    private static byte[] body(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        out.writeBytes(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return out.toByteArray();
+    }
+}
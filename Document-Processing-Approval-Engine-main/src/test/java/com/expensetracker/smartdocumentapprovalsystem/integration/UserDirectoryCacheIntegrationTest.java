@@ -0,0 +1,90 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.UserDto;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryCache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class UserDirectoryCacheIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void startClean() {
+        entityManager.flush();
+        userDirectoryCache.invalidateAll();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testRepeatLookupsSkipTheDatabase() {
+        long hitsBefore = userDirectoryCache.getStats().getEmailHits();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(testOfficer.getId(), userDirectoryCache.findFirstByRole(Role.OFFICER).orElseThrow().getId());
+            assertEquals(testUser.getId(), userDirectoryCache.findByEmail(testUser.getEmail()).orElseThrow().getId());
+        }
+
+        // One query per lookup kind; the other eight were served from memory
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(4, userDirectoryCache.getStats().getEmailHits() - hitsBefore);
+    }
+
+    @Test
+    public void testUnknownEmailIsNotCached() throws Exception {
+        assertTrue(userDirectoryCache.findByEmail("later@example.com").isEmpty());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/register")
+                        .contentType("application/json")
+                        .content("{\"name\":\"Later User\",\"email\":\"later@example.com\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk());
+
+        assertTrue(userDirectoryCache.findByEmail("later@example.com").isPresent());
+    }
+
+    @Test
+    public void testRoleUpdateInvalidatesReviewerLists() throws Exception {
+        assertEquals(1, userDirectoryCache.findByRole(Role.MANAGER).size());
+        assertEquals(Role.USER, userDirectoryCache.findByEmail(testUser.getEmail()).orElseThrow().getRole());
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/users/" + testUser.getId() + "/role")
+                        .param("role", "MANAGER")
+                        .with(user(testAdmin.getEmail()).roles("ADMIN")))
+                .andExpect(status().isOk());
+        // Outside this test's transaction the save would have been written already
+        entityManager.flush();
+
+        assertTrue(userDirectoryCache.findByRole(Role.MANAGER).stream()
+                .map(UserDto::getId)
+                .anyMatch(id -> id == testUser.getId()));
+        assertEquals(Role.MANAGER, userDirectoryCache.findByEmail(testUser.getEmail()).orElseThrow().getRole());
+    }
+
+    @Test
+    public void testDeletedUserIsDropped() {
+        assertTrue(userDirectoryCache.findByEmail(testOfficer.getEmail()).isPresent());
+
+        userRepository.delete(testOfficer);
+        entityManager.flush();
+
+        assertTrue(userDirectoryCache.findByEmail(testOfficer.getEmail()).isEmpty());
+        assertTrue(userDirectoryCache.findFirstByRole(Role.OFFICER).isEmpty());
+    }
+}
@@ -0,0 +1,156 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.SmartDocumentApprovalSystemApplication;
+import com.expensetracker.smartdocumentapprovalsystem.dto.StageMode;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowDefinitionSpec;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import com.expensetracker.smartdocumentapprovalsystem.model.User;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkflowDefinition;
+import com.expensetracker.smartdocumentapprovalsystem.repository.DocumentRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.WorkFlowService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: every transition has to commit on its own for the threads to collide
+@SpringBootTest(classes = SmartDocumentApprovalSystemApplication.class)
+@ActiveProfiles("test")
+public class WorkflowConcurrencyIntegrationTest {
+
+    private static final int REVIEWERS = 5;
+    private static final int THREADS_PER_STEP = 3;
+
+    @Autowired
+    private WorkFlowService workFlowService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private WorkFlowRepository workFlowRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<User> users = new ArrayList<>();
+    private Document document;
+    private List<WorkFlow> steps;
+
+    @BeforeEach
+    void createDocument() {
+        // One stage that needs every one of the reviewers
+        WorkflowDefinition definition = workFlowService.publishWorkflowDefinition(new WorkflowDefinitionSpec(
+                "concurrency-test", List.of(new WorkflowDefinitionSpec.StageSpec("Everyone", StageMode.ALL,
+                        Collections.nCopies(REVIEWERS, Role.OFFICER), null))));
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            User uploader = userRepository.save(user("concurrent-uploader@example.com", Role.USER));
+            users.add(uploader);
+
+            Document doc = new Document();
+            doc.setTitle("contested.pdf");
+            doc.setUploadPath("contested.pdf");
+            doc.setUploadedBy(uploader);
+            doc.setCreatedAt(LocalDateTime.now());
+            doc.setStatus(Status.PENDING);
+            doc.setWorkflowDefinitionId(definition.getId());
+            doc.setStagePlan(1L);
+            doc.setCurrentStage(0);
+            doc.setStageApprovals(0);
+            document = documentRepository.save(doc);
+
+            List<WorkFlow> created = new ArrayList<>();
+            for (int i = 0; i < REVIEWERS; i++) {
+                User reviewer = userRepository.save(user("concurrent-officer-" + i + "@example.com", Role.OFFICER));
+                users.add(reviewer);
+                created.add(new WorkFlow(0, document, reviewer, Status.PENDING, null, null, 0));
+            }
+            steps = workFlowRepository.saveAll(created);
+        });
+    }
+
+    @AfterEach
+    void deleteDocument() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            workFlowRepository.deleteAll(workFlowRepository.findByDocumentId(document.getId()));
+            documentRepository.deleteById(Math.toIntExact(document.getId()));
+            userRepository.deleteAll(users);
+        });
+    }
+
+    @Test
+    public void testConcurrentApprovalsAreNotLost() throws Exception {
+        // Every step is approved by several threads at once, as by a reviewer clicking repeatedly
+        ExecutorService executor = Executors.newFixedThreadPool(REVIEWERS * THREADS_PER_STEP);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger alreadyDecided = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (WorkFlow step : steps) {
+                for (int t = 0; t < THREADS_PER_STEP; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            workFlowService.updateWorkflowStatus((long) step.getId(), Status.APPROVED, null);
+                            approved.incrementAndGet();
+                        } catch (IllegalStateException ex) {
+                            alreadyDecided.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(REVIEWERS, approved.get());
+        assertEquals(REVIEWERS * (THREADS_PER_STEP - 1), alreadyDecided.get());
+
+        Document reloaded = documentRepository.findById(Math.toIntExact(document.getId())).orElseThrow();
+        assertEquals(Status.APPROVED, reloaded.getStatus());
+        // One version per committed transition
+        assertEquals(REVIEWERS, reloaded.getVersion());
+        assertTrue(workFlowRepository.findByDocumentId(document.getId()).stream()
+                .allMatch(step -> step.getStatus() == Status.APPROVED));
+    }
+
+    private static User user(String email, Role role) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPassword("unused");
+        user.setRole(role);
+        return user;
+    }
+}
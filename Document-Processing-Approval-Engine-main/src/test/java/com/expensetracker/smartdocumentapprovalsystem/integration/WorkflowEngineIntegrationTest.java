@@ -0,0 +1,277 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.BatchActionRequest;
+import com.expensetracker.smartdocumentapprovalsystem.dto.BatchActionResult;
+import com.expensetracker.smartdocumentapprovalsystem.dto.DocumentProgressReport;
+import com.expensetracker.smartdocumentapprovalsystem.dto.StageMode;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowDefinitionSpec;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowDefinitionSpec.ConditionSpec;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowDefinitionSpec.StageSpec;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import com.expensetracker.smartdocumentapprovalsystem.repository.DocumentRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.DocumentService;
+import com.expensetracker.smartdocumentapprovalsystem.service.WorkFlowService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.DocumentProgressReconciler;
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryCache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class WorkflowEngineIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private WorkFlowService workFlowService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private WorkFlowRepository workFlowRepository;
+
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DocumentProgressReconciler documentProgressReconciler;
+
+    @BeforeEach
+    void freshDirectory() {
+        // Reviewer lists cached by an earlier test class may name users that were deleted since
+        userDirectoryCache.invalidateAll();
+    }
+
+    @AfterEach
+    void progressMatchesSteps() {
+        // Whatever the test did, the progress columns it left must agree with the steps
+        entityManager.flush();
+        DocumentProgressReport report = documentProgressReconciler.check();
+        assertEquals(0, report.getMismatched(), "inconsistent documents " + report.getMismatchedIds());
+    }
+
+    @Test
+    public void testDefaultWorkflowRunsStageByStage() {
+        Document document = upload("contract.pdf");
+        List<WorkFlow> steps = steps(document);
+
+        assertEquals(List.of(Status.PENDING, Status.WAITING, Status.WAITING), statuses(steps));
+        assertEquals(testOfficer.getId(), steps.get(0).getReviewer().getId());
+        assertTrue(documentService.getPendingWorkflowsForReviewer((long) testManager.getId()).isEmpty());
+
+        // The manager cannot act before the officer
+        assertThrows(IllegalStateException.class, () -> approve(steps.get(1)));
+
+        approve(steps.get(0));
+        assertEquals(List.of(Status.APPROVED, Status.PENDING, Status.WAITING), statuses(steps(document)));
+        assertEquals(1, documentService.getPendingWorkflowsForReviewer((long) testManager.getId()).size());
+
+        approve(steps.get(1));
+        approve(steps.get(2));
+        assertEquals(Status.APPROVED, document.getStatus());
+    }
+
+    @Test
+    public void testAnyOfStageAndConditionalStage() {
+        publish(new StageSpec("Management", StageMode.ANY, List.of(Role.MANAGER, Role.ADMIN), null),
+                new StageSpec("Officer check", StageMode.ALL, List.of(Role.OFFICER),
+                        new ConditionSpec("extension", "EQUALS", "pdf")));
+
+        // The officer stage does not apply to text files
+        Document notes = upload("notes.txt");
+        List<WorkFlow> noteSteps = steps(notes);
+        assertEquals(List.of(Status.PENDING, Status.PENDING), statuses(noteSteps));
+
+        approve(noteSteps.get(0));
+        assertEquals(List.of(Status.APPROVED, Status.SKIPPED), statuses(steps(notes)));
+        assertEquals(Status.APPROVED, notes.getStatus());
+
+        Document report = upload("report.PDF");
+        List<WorkFlow> reportSteps = steps(report);
+        assertEquals(List.of(Status.PENDING, Status.PENDING, Status.WAITING), statuses(reportSteps));
+
+        approve(reportSteps.get(1));
+        assertEquals(List.of(Status.SKIPPED, Status.APPROVED, Status.PENDING), statuses(steps(report)));
+        assertEquals(Status.PENDING, report.getStatus());
+    }
+
+    @Test
+    public void testInFlightDocumentKeepsItsVersion() {
+        Document before = upload("before.pdf");
+        publish(new StageSpec("Admin only", StageMode.ALL, List.of(Role.ADMIN), null));
+        Document after = upload("after.pdf");
+
+        assertNotEquals(before.getWorkflowDefinitionId(), after.getWorkflowDefinitionId());
+        assertEquals(1, steps(after).size());
+
+        List<WorkFlow> steps = steps(before);
+        approve(steps.get(0));
+        assertEquals(Status.PENDING, steps(before).get(1).getStatus());
+        assertEquals(Status.PENDING, before.getStatus());
+    }
+
+    @Test
+    public void testRejectionClosesOpenSteps() {
+        Document document = upload("invoice.pdf");
+        List<WorkFlow> steps = steps(document);
+
+        workFlowService.updateWorkflowStatus((long) steps.get(0).getId(), Status.REJECTED, "Wrong amount");
+
+        assertEquals(List.of(Status.REJECTED, Status.SKIPPED, Status.SKIPPED), statuses(steps(document)));
+        assertEquals(Status.REJECTED, document.getStatus());
+        assertEquals("Wrong amount", document.getComment());
+    }
+
+    @Test
+    public void testLegacyDocumentIsAdoptedByFirstVersion() {
+        // Steps as they were created before workflow definitions existed: all pending, no stage
+        Document document = new Document();
+        document.setTitle("legacy.pdf");
+        document.setUploadPath("legacy.pdf");
+        document.setUploadedBy(testUser);
+        document.setCreatedAt(LocalDateTime.now());
+        document.setStatus(Status.PENDING);
+        document = documentRepository.save(document);
+        List<WorkFlow> steps = workFlowRepository.saveAll(List.of(
+                new WorkFlow(0, document, testOfficer, Status.APPROVED, null, null, null),
+                new WorkFlow(0, document, testManager, Status.PENDING, null, null, null),
+                new WorkFlow(0, document, testAdmin, Status.PENDING, null, null, null)));
+
+        approve(steps.get(1));
+
+        assertNotNull(document.getWorkflowDefinitionId());
+        assertEquals(List.of(Status.APPROVED, Status.APPROVED, Status.PENDING), statuses(steps(document)));
+        assertEquals(2, steps.get(2).getStage().intValue());
+    }
+
+    @Test
+    public void testApprovalLoadsOnceAndWritesOnce() {
+        Document document = upload("memo.pdf");
+        int officerStep = steps(document).get(0).getId();
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        workFlowService.updateWorkflowStatus((long) officerStep, Status.APPROVED, null);
+        entityManager.flush();
+
+        // Document with all its steps, the outbox entry, one batch for the two steps, the versioned document update
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testBatchActionReportsEachStep() {
+        Document first = upload("first.pdf");
+        Document second = upload("second.pdf");
+        long officerStep = steps(first).get(0).getId();
+        // Assigned to the manager, not the officer acting here
+        long managerStep = steps(first).get(1).getId();
+
+        List<BatchActionResult> results = workFlowService.updateWorkflowStatuses(testOfficer.getId(), List.of(
+                officerStep, managerStep, (long) steps(second).get(0).getId(), -1L, officerStep),
+                Status.APPROVED, null);
+
+        assertEquals(List.of(true, false, true, false, false), results.stream().map(BatchActionResult::isSuccess).toList());
+        assertEquals("Not your step", results.get(1).getError());
+        assertEquals("Workflow not found", results.get(3).getError());
+        assertEquals("Workflow step is APPROVED, not awaiting review", results.get(4).getError());
+        assertEquals(List.of(Status.APPROVED, Status.PENDING, Status.WAITING), statuses(steps(first)));
+        assertEquals(List.of(Status.APPROVED, Status.PENDING, Status.WAITING), statuses(steps(second)));
+    }
+
+    @Test
+    public void testBatchActionLoadsOnceAndWritesInBatches() {
+        List<Long> officerSteps = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            officerSteps.add((long) steps(upload("batch-" + i + ".pdf")).get(0).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        workFlowService.updateWorkflowStatuses(testOfficer.getId(), officerSteps, Status.APPROVED, null);
+        entityManager.flush();
+
+        // As for a single approval: the documents with their steps, one outbox entry,
+        // one batch for the twenty steps, one batch for the ten versioned documents
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testBatchEndpointReturnsPerItemResults() throws Exception {
+        Document document = upload("endpoint.pdf");
+        String body = objectMapper.writeValueAsString(new BatchActionRequest(
+                List.of((long) steps(document).get(0).getId(), -1L), Status.REJECTED, "Duplicate"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/workflows/actions/batch")
+                        .with(user(testOfficer.getEmail()).roles("OFFICER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[1].error").value("Workflow not found"));
+        assertEquals(Status.REJECTED, document.getStatus());
+    }
+
+    @Test
+    public void testInvalidDefinitionIsRejected() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/workflows/definitions")
+                        .with(user(testAdmin.getEmail()).roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"default\",\"stages\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Document upload(String title) {
+        Document document = new Document();
+        document.setTitle(title);
+        document.setUploadPath(title);
+        return documentService.createDocument(document, testUser.getId());
+    }
+
+    private void publish(StageSpec... stages) {
+        workFlowService.publishWorkflowDefinition(new WorkflowDefinitionSpec("default", List.of(stages)));
+    }
+
+    private void approve(WorkFlow step) {
+        workFlowService.updateWorkflowStatus((long) step.getId(), Status.APPROVED, null);
+    }
+
+    // In stage order, reviewers of a stage in the order they were assigned
+    private List<WorkFlow> steps(Document document) {
+        return workFlowRepository.findByDocumentId(document.getId()).stream()
+                .sorted(Comparator.comparing(WorkFlow::getStage).thenComparing(WorkFlow::getId))
+                .toList();
+    }
+
+    private static List<Status> statuses(List<WorkFlow> steps) {
+        return steps.stream().map(WorkFlow::getStatus).toList();
+    }
+}
@@ -0,0 +1,253 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.SmartDocumentApprovalSystemApplication;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEvent;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEventType;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.OutboxEntry;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import com.expensetracker.smartdocumentapprovalsystem.model.User;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import com.expensetracker.smartdocumentapprovalsystem.repository.OutboxEntryRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.DocumentService;
+import com.expensetracker.smartdocumentapprovalsystem.service.WorkFlowService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryCache;
+import com.expensetracker.smartdocumentapprovalsystem.utils.WorkflowEventSubscriber;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: the relay only sees committed outbox rows. A database of its own, since the relays of
+// other cached contexts lack FlakySubscriber and would finish its entries for it
+@SpringBootTest(classes = SmartDocumentApprovalSystemApplication.class)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-test;DB_CLOSE_DELAY=-1",
+        "outbox.relay.retry-backoff-ms=50"
+})
+@Import(WorkflowOutboxIntegrationTest.RecordingSubscriberConfig.class)
+public class WorkflowOutboxIntegrationTest {
+
+    @TestConfiguration
+    static class RecordingSubscriberConfig {
+        @Bean
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+
+        @Bean
+        FlakySubscriber flakySubscriber() {
+            return new FlakySubscriber();
+        }
+    }
+
+    static class RecordingSubscriber implements WorkflowEventSubscriber {
+        final List<WorkflowEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onEvent(WorkflowEvent event) {
+            events.add(event);
+        }
+    }
+
+    // Throws on its next failures calls, then records like RecordingSubscriber
+    static class FlakySubscriber implements WorkflowEventSubscriber {
+        final AtomicInteger failures = new AtomicInteger();
+        final List<WorkflowEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onEvents(List<WorkflowEvent> batch) {
+            if (failures.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+                throw new IllegalStateException("Subscriber down");
+            }
+            events.addAll(batch);
+        }
+
+        @Override
+        public void onEvent(WorkflowEvent event) {
+            events.add(event);
+        }
+    }
+
+    @Autowired
+    private RecordingSubscriber subscriber;
+
+    @Autowired
+    private FlakySubscriber flakySubscriber;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private WorkFlowService workFlowService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkFlowRepository workFlowRepository;
+
+    @Autowired
+    private OutboxEntryRepository outboxEntryRepository;
+
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<User> users = new ArrayList<>();
+    private User uploader;
+    private Document document;
+
+    @BeforeEach
+    void createUsers() {
+        uploader = userRepository.save(user("outbox-uploader@example.com", Role.USER));
+        users.add(uploader);
+        for (Role role : List.of(Role.OFFICER, Role.MANAGER, Role.ADMIN)) {
+            users.add(userRepository.save(user("outbox-" + role.name().toLowerCase() + "@example.com", role)));
+        }
+        userDirectoryCache.invalidateAll();
+        subscriber.events.clear();
+        flakySubscriber.events.clear();
+        flakySubscriber.failures.set(0);
+    }
+
+    @AfterEach
+    void deleteAll() {
+        if (document != null) {
+            transactionTemplate.executeWithoutResult(tx -> documentService.deleteDocument(document.getId()));
+        }
+        userRepository.deleteAll(users);
+        userDirectoryCache.invalidateAll();
+    }
+
+    @Test
+    public void testCommittedTransitionsReachSubscribers() throws Exception {
+        document = upload("outbox.pdf");
+        awaitEvents(2);
+        assertEquals(List.of(WorkflowEventType.DOCUMENT_UPLOADED, WorkflowEventType.STAGE_OPENED), types());
+        assertEquals(uploader.getEmail(), subscriber.events.get(0).getActorEmail());
+        assertEquals(1, subscriber.events.get(1).getRecipients().size());
+
+        subscriber.events.clear();
+        workFlowService.updateWorkflowStatus((long) steps().get(0).getId(), Status.REJECTED, "Unreadable scan");
+        awaitEvents(2);
+        assertEquals(List.of(WorkflowEventType.STEP_REJECTED, WorkflowEventType.DOCUMENT_COMPLETED), types());
+        assertEquals("Unreadable scan", subscriber.events.get(0).getComment());
+        assertEquals(Status.REJECTED, subscriber.events.get(1).getStatus());
+        assertEquals(0, outboxEntryRepository.count());
+    }
+
+    @Test
+    public void testRolledBackTransitionLeavesNoEvents() throws Exception {
+        document = upload("rollback.pdf");
+        awaitEvents(2);
+        subscriber.events.clear();
+
+        // The manager's stage has not opened yet, so the transition fails and rolls back
+        long managerStep = steps().get(1).getId();
+        assertThrows(IllegalStateException.class,
+                () -> workFlowService.updateWorkflowStatus(managerStep, Status.APPROVED, null));
+        assertThrows(RuntimeException.class, () -> transactionTemplate.executeWithoutResult(tx -> {
+            workFlowService.updateWorkflowStatus((long) steps().get(0).getId(), Status.APPROVED, null);
+            throw new RuntimeException("Abort");
+        }));
+
+        Thread.sleep(200);
+        assertEquals(0, outboxEntryRepository.count());
+        assertTrue(subscriber.events.isEmpty());
+    }
+
+    @Test
+    public void testFailedSubscriberIsRetriedAlone() throws Exception {
+        flakySubscriber.failures.set(2);
+        document = upload("flaky.pdf");
+        awaitEvents(2);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((flakySubscriber.events.size() < 2 || outboxEntryRepository.count() > 0)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, flakySubscriber.events.size());
+        assertEquals(0, outboxEntryRepository.count());
+        // The subscriber that succeeded the first time was not offered the entry again
+        assertEquals(2, subscriber.events.size());
+    }
+
+    @Test
+    public void testLeasedEntryIsLeftAlone() throws Exception {
+        WorkflowEvent event = new WorkflowEvent();
+        event.setType(WorkflowEventType.DOCUMENT_UPLOADED);
+        event.setDocumentId(-1L);
+        // As if another instance had claimed it a moment ago
+        OutboxEntry entry = outboxEntryRepository.save(new OutboxEntry(null, objectMapper.writeValueAsString(List.of(event)),
+                LocalDateTime.now(), 0, null, LocalDateTime.now().plusHours(1)));
+        try {
+            Thread.sleep(1000);
+            assertTrue(subscriber.events.isEmpty());
+            assertTrue(outboxEntryRepository.existsById(entry.getId()));
+        } finally {
+            outboxEntryRepository.deleteById(entry.getId());
+        }
+    }
+
+    private Document upload(String title) {
+        Document doc = new Document();
+        doc.setTitle(title);
+        doc.setUploadPath(title);
+        return documentService.createDocument(doc, uploader.getId());
+    }
+
+    private List<WorkFlow> steps() {
+        return workFlowRepository.findByDocumentId(document.getId()).stream()
+                .sorted(Comparator.comparing(WorkFlow::getStage))
+                .toList();
+    }
+
+    private List<WorkflowEventType> types() {
+        return subscriber.events.stream().map(WorkflowEvent::getType).toList();
+    }
+
+    private void awaitEvents(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (subscriber.events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(count, subscriber.events.size());
+    }
+
+    private static User user(String email, Role role) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPassword("unused");
+        user.setRole(role);
+        return user;
+    }
+}
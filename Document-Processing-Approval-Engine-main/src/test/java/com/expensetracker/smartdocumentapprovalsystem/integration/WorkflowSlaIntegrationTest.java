@@ -0,0 +1,221 @@
+package com.expensetracker.smartdocumentapprovalsystem.integration;
+
+import com.expensetracker.smartdocumentapprovalsystem.SmartDocumentApprovalSystemApplication;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.model.Document;
+import com.expensetracker.smartdocumentapprovalsystem.model.Role;
+import com.expensetracker.smartdocumentapprovalsystem.model.User;
+import com.expensetracker.smartdocumentapprovalsystem.model.WorkFlow;
+import com.expensetracker.smartdocumentapprovalsystem.repository.DocumentRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.UserRepository;
+import com.expensetracker.smartdocumentapprovalsystem.repository.WorkFlowRepository;
+import com.expensetracker.smartdocumentapprovalsystem.service.DocumentService;
+import com.expensetracker.smartdocumentapprovalsystem.service.SlaService;
+import com.expensetracker.smartdocumentapprovalsystem.service.WorkFlowService;
+import com.expensetracker.smartdocumentapprovalsystem.utils.ResourceVersionTracker;
+import com.expensetracker.smartdocumentapprovalsystem.utils.SlaTimer;
+import com.expensetracker.smartdocumentapprovalsystem.utils.UserDirectoryCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: timers are only set once a step has committed
+@SpringBootTest(classes = SmartDocumentApprovalSystemApplication.class, properties = {
+        "workflow.sla.due-after=1s",
+        "workflow.sla.repeat-after=1s",
+        "workflow.sla.tick-ms=50"
+})
+@ActiveProfiles("test")
+public class WorkflowSlaIntegrationTest {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private WorkFlowService workFlowService;
+
+    @Autowired
+    private SlaService slaService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkFlowRepository workFlowRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
+
+    @Autowired
+    private ResourceVersionTracker resourceVersionTracker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Document> documents = new ArrayList<>();
+    private User uploader;
+
+    @BeforeEach
+    void createUsers() {
+        uploader = userRepository.save(user("sla-uploader@example.com", Role.USER));
+        users.add(uploader);
+        users.add(userRepository.save(user("sla-officer-1@example.com", Role.OFFICER)));
+        users.add(userRepository.save(user("sla-officer-2@example.com", Role.OFFICER)));
+        users.add(userRepository.save(user("sla-manager@example.com", Role.MANAGER)));
+        users.add(userRepository.save(user("sla-admin@example.com", Role.ADMIN)));
+        userDirectoryCache.invalidateAll();
+    }
+
+    @AfterEach
+    void deleteAll() {
+        for (Document document : documents) {
+            transactionTemplate.executeWithoutResult(tx -> documentService.deleteDocument(document.getId()));
+        }
+        userRepository.deleteAll(users);
+        userDirectoryCache.invalidateAll();
+    }
+
+    @Test
+    public void testOverdueStepIsRemindedEscalatedAndReassigned() throws Exception {
+        Document document = upload("late.pdf");
+        WorkFlow step = steps(document).get(0);
+        int firstReviewer = step.getReviewer().getId();
+        assertNotNull(step.getDueAt());
+        assertNull(steps(document).get(1).getDueAt());
+        String reviewerEmail = reload(step).getReviewer().getEmail();
+        String tag = resourceVersionTracker.pendingWorkflowsTag(reviewerEmail);
+
+        // REMIND and ESCALATE a second apart, then REASSIGN after another second
+        long deadline = System.currentTimeMillis() + 10_000;
+        // The reminder moves the step's deadline, so the reviewer's cached list goes stale
+        while (resourceVersionTracker.pendingWorkflowsTag(reviewerEmail).equals(tag)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, reload(step).getEscalations());
+        assertEquals(firstReviewer, reload(step).getReviewer().getId());
+        while (reload(step).getReviewer().getId() == firstReviewer && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        WorkFlow reassigned = reload(step);
+        assertNotEquals(firstReviewer, reassigned.getReviewer().getId());
+        assertEquals(Role.OFFICER, reassigned.getReviewer().getRole());
+        assertEquals(Status.PENDING, reassigned.getStatus());
+        assertTrue(reassigned.getDueAt().isAfter(LocalDateTime.now().minusSeconds(1)));
+        assertEquals(reassigned.getReviewer().getId(), documentRepository.findById(Math.toIntExact(document.getId()))
+                .orElseThrow().getCurrentReviewerId());
+
+        // Closing the step clears its deadline, and the next stage's step gets one
+        workFlowService.updateWorkflowStatus((long) step.getId(), Status.APPROVED, null);
+        assertNull(reload(step).getDueAt());
+        assertNotNull(steps(document).get(1).getDueAt());
+    }
+
+    @Test
+    public void testTimersAreRebuiltFromOpenSteps() throws Exception {
+        Document document = upload("restart.pdf");
+        WorkFlow step = steps(document).get(0);
+        // Already overdue when the application comes back
+        jdbcTemplate.update("update work_flow set due_at = ? where id = ?",
+                LocalDateTime.now().minusHours(1), step.getId());
+        assertTrue(slaService.getOverdueSteps().stream().anyMatch(overdue -> overdue.getId() == step.getId()));
+
+        // A second timer standing in for the one of a restarted application
+        SlaTimer restarted = new SlaTimer();
+        ReflectionTestUtils.setField(restarted, "tickMs", 50L);
+        ReflectionTestUtils.setField(restarted, "jdbcTemplate", jdbcTemplate);
+        restarted.init();
+        List<Integer> fired = new CopyOnWriteArrayList<>();
+        restarted.start(fired::add);
+        try {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!fired.contains(step.getId()) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(fired.contains(step.getId()));
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    public void testFailedActionIsRescheduled() throws Exception {
+        SlaTimer timer = new SlaTimer();
+        ReflectionTestUtils.setField(timer, "tickMs", 50L);
+        ReflectionTestUtils.setField(timer, "jdbcTemplate", jdbcTemplate);
+        timer.init();
+        List<Integer> fired = new CopyOnWriteArrayList<>();
+        timer.start(workflowId -> {
+            fired.add(workflowId);
+            throw new IllegalStateException("reviewer directory unavailable");
+        });
+        int loaded = timer.size();
+        try {
+            // Not a step of any document, so only this timer knows about it
+            timer.schedule(-1, LocalDateTime.now());
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!fired.contains(-1) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(fired.contains(-1));
+            Thread.sleep(100);
+            assertEquals(loaded + 1, timer.size());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    private Document upload(String title) {
+        Document doc = new Document();
+        doc.setTitle(title);
+        doc.setUploadPath(title);
+        Document saved = documentService.createDocument(doc, uploader.getId());
+        documents.add(saved);
+        return saved;
+    }
+
+    private List<WorkFlow> steps(Document document) {
+        return workFlowRepository.findByDocumentId(document.getId()).stream()
+                .sorted(Comparator.comparing(WorkFlow::getStage))
+                .toList();
+    }
+
+    private WorkFlow reload(WorkFlow step) {
+        return transactionTemplate.execute(tx -> {
+            WorkFlow fresh = workFlowRepository.findById(step.getId()).orElseThrow();
+            // Loaded while the session is open
+            fresh.getReviewer().getRole();
+            return fresh;
+        });
+    }
+
+    private static User user(String email, Role role) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPassword("unused");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,174 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.AuditChainReport;
+import com.expensetracker.smartdocumentapprovalsystem.model.AuditLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditSegmentStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    private AuditSegmentStore store;
+
+    @AfterEach
+    void closeStore() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    public void testQueriesAcrossSegments() throws IOException {
+        store = open();
+        appendSample(500);
+
+        assertTrue(AuditSegmentStore.segmentFiles(dir).size() > 3);
+        List<AuditLog> byUser = store.find(filter(null, "user3@example.com", null, null, null), Integer.MAX_VALUE);
+        assertEquals(100, byUser.size());
+        assertEquals(498, byUser.get(0).getId());
+        assertTrue(byUser.stream().allMatch(log -> log.getUserEmail().equals("user3@example.com")));
+
+        List<AuditLog> byEntity = store.find(filter(null, null, "Document", 7L, null), Integer.MAX_VALUE);
+        assertEquals(List.of(458L, 408L, 358L, 308L, 258L, 208L, 158L, 108L, 58L, 8L),
+                byEntity.stream().map(AuditLog::getId).toList());
+
+        List<AuditLog> inRange = store.find(new AuditSegmentStore.Filter(null, null, null, null,
+                START.plusMinutes(100), START.plusMinutes(110), null), Integer.MAX_VALUE);
+        assertEquals(10, inRange.size());
+        assertEquals(START.plusMinutes(109), inRange.get(0).getTimestamp());
+        assertEquals(START.plusMinutes(100), inRange.get(9).getTimestamp());
+    }
+
+    @Test
+    public void testKeysetPagesFollowIds() throws IOException {
+        store = open();
+        appendSample(300);
+
+        List<Long> seen = new ArrayList<>();
+        Long before = null;
+        while (true) {
+            List<AuditLog> page = store.find(filter("DOCUMENT_UPLOAD", null, null, null, before), 25);
+            if (page.isEmpty()) {
+                break;
+            }
+            page.forEach(log -> seen.add(log.getId()));
+            before = page.get(page.size() - 1).getId();
+        }
+        assertEquals(150, seen.size());
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i) < seen.get(i - 1));
+        }
+    }
+
+    @Test
+    public void testReopenKeepsRecordsAndContinuesChain() throws IOException {
+        store = open();
+        appendSample(200);
+        AuditLog older = entry(1, START.minusDays(1));
+        store.append(older);
+        // Stamped no earlier than the record before it
+        assertEquals(START.plusMinutes(199), older.getTimestamp());
+        store.close();
+
+        store = open();
+        assertEquals(201, store.find(AuditSegmentStore.Filter.all(), Integer.MAX_VALUE).size());
+        AuditLog next = store.append(entry(2, START.plusDays(1)));
+        assertEquals(202, next.getId());
+        AuditLog read = store.find(filter(null, null, null, null, null), 1).get(0);
+        assertEquals(next.getId(), read.getId());
+        assertEquals("details 2 – naïve", read.getDetails());
+        assertNull(read.getIpAddress());
+
+        AuditChainReport report = store.verify();
+        assertTrue(report.isValid(), report.getProblem());
+        assertEquals(202, report.getRecords());
+        assertEquals(AuditChainVerifier.verify(dir).getHeadHash(), report.getHeadHash());
+    }
+
+    @Test
+    public void testChangedRecordBreaksChain() throws IOException {
+        store = open();
+        appendSample(200);
+        store.close();
+        store = null;
+
+        Path second = AuditSegmentStore.segmentFiles(dir).get(1);
+        byte[] bytes = Files.readAllBytes(second);
+        int at = indexOf(bytes, "details 70".getBytes(StandardCharsets.UTF_8));
+        try (RandomAccessFile file = new RandomAccessFile(second.toFile(), "rw")) {
+            file.seek(at + "details ".length());
+            file.write('9');
+        }
+
+        AuditChainReport report = AuditChainVerifier.verify(dir);
+        assertFalse(report.isValid());
+        assertTrue(report.getProblem().startsWith(second.getFileName() + ": hash mismatch at sequence 70"),
+                report.getProblem());
+
+        // Reopening leaves the damaged file alone and keeps writing after it
+        store = open();
+        assertEquals(201, store.append(entry(1, START.plusDays(1))).getId());
+        assertFalse(store.verify().isValid());
+    }
+
+    private AuditSegmentStore open() throws IOException {
+        AuditSegmentStore opened = new AuditSegmentStore();
+        ReflectionTestUtils.setField(opened, "dir", dir.toString());
+        ReflectionTestUtils.setField(opened, "segmentSize", DataSize.ofKilobytes(8));
+        ReflectionTestUtils.setField(opened, "indexInterval", 8);
+        opened.open();
+        return opened;
+    }
+
+    // Record i (from 1): user i % 5, document (i - 1) % 50, one minute apart, alternating actions
+    private void appendSample(int count) {
+        for (int i = 1; i <= count; i++) {
+            AuditLog log = new AuditLog(i % 2 == 0 ? "DOCUMENT_REVIEW" : "DOCUMENT_UPLOAD", "Document",
+                    (long) (i - 1) % 50, "user" + (i % 5) + "@example.com", "User " + (i % 5), "details " + i);
+            log.setTimestamp(START.plusMinutes(i - 1));
+            store.append(log);
+        }
+    }
+
+    private static AuditLog entry(int n, LocalDateTime timestamp) {
+        AuditLog log = new AuditLog("USER_LOGIN", "User", null, "login@example.com", "Login", "details " + n + " – naïve");
+        log.setTimestamp(timestamp);
+        return log;
+    }
+
+    private static AuditSegmentStore.Filter filter(String action, String userEmail, String entityType, Long entityId,
+                                                   Long beforeId) {
+        return new AuditSegmentStore.Filter(action, userEmail, entityType, entityId, null, null, beforeId);
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = 0; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new AssertionError("not found");
+    }
+}
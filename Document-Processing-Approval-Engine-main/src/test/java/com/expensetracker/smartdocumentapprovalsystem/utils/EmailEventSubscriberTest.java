@@ -0,0 +1,76 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEvent;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEventType;
+import com.expensetracker.smartdocumentapprovalsystem.service.EmailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class EmailEventSubscriberTest {
+
+    private final EmailService emailService = mock(EmailService.class);
+    private final EmailEventSubscriber subscriber = new EmailEventSubscriber();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(subscriber, "emailService", emailService);
+    }
+
+    @Test
+    public void testSingleEventSendsTheUsualEmail() {
+        subscriber.onEvents(List.of(stageOpened("a.pdf", "officer@example.com")));
+
+        verify(emailService).sendDocumentUploadNotification("officer@example.com", "a.pdf", "Uploader");
+        verifyNoMoreInteractions(emailService);
+    }
+
+    @Test
+    public void testEventsOfOneTransactionAreCoalescedPerRecipient() {
+        // What a batch approval of two documents produces
+        subscriber.onEvents(List.of(
+                event(WorkflowEventType.STEP_APPROVED, "a.pdf"),
+                stageOpened("a.pdf", "manager@example.com"),
+                event(WorkflowEventType.STEP_APPROVED, "b.pdf"),
+                stageOpened("b.pdf", "manager@example.com"),
+                stageOpened("c.pdf", "admin@example.com")));
+
+        verify(emailService).sendDigestNotification("uploader@example.com",
+                List.of("'a.pdf' has been approved", "'b.pdf' has been approved"));
+        verify(emailService).sendDigestNotification("manager@example.com",
+                List.of("'a.pdf' from Uploader is pending your review", "'b.pdf' from Uploader is pending your review"));
+        verify(emailService).sendDocumentUploadNotification("admin@example.com", "c.pdf", "Uploader");
+        verifyNoMoreInteractions(emailService);
+    }
+
+    @Test
+    public void testRejectionCompletionIsNotReportedTwice() {
+        WorkflowEvent completed = event(WorkflowEventType.DOCUMENT_COMPLETED, "a.pdf");
+        completed.setStatus(Status.REJECTED);
+
+        subscriber.onEvents(List.of(event(WorkflowEventType.STEP_REJECTED, "a.pdf"), completed));
+
+        verify(emailService).sendDocumentApprovalNotification("uploader@example.com", "a.pdf", "REJECTED");
+        verifyNoMoreInteractions(emailService);
+    }
+
+    private static WorkflowEvent event(WorkflowEventType type, String title) {
+        WorkflowEvent event = new WorkflowEvent();
+        event.setType(type);
+        event.setDocumentTitle(title);
+        event.setUploaderEmail("uploader@example.com");
+        event.setUploaderName("Uploader");
+        return event;
+    }
+
+    private static WorkflowEvent stageOpened(String title, String reviewerEmail) {
+        WorkflowEvent event = event(WorkflowEventType.STAGE_OPENED, title);
+        event.getRecipients().add(reviewerEmail);
+        return event;
+    }
+}
@@ -0,0 +1,166 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileRangeWriterTest {
+
+    private static final String ETAG = "\"3f2a\"";
+    private static final Instant MODIFIED = Instant.parse("2024-03-01T10:15:30Z");
+
+    private final FileRangeWriter writer = new FileRangeWriter();
+    private final byte[] content = new byte[100];
+    private Path file;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void createFile() throws Exception {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('A' + i % 26);
+        }
+        file = Files.write(dir.resolve("report.pdf"), content);
+        Files.setLastModifiedTime(file, FileTime.from(MODIFIED));
+    }
+
+    @Test
+    public void testNoRangeSendsWholeFile() throws Exception {
+        MockHttpServletResponse response = download(request());
+
+        assertEquals(200, response.getStatus());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testSingleRange() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-19");
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals("application/pdf", response.getContentType());
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 20), response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testSuffixRange() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-5");
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 95-99/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 95, 100), response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testUnsatisfiableRange() throws Exception {
+        for (String range : new String[]{"bytes=200-300", "bytes=50-10", "bytes=0-99,0-99", "lines=1-2"}) {
+            MockHttpServletRequest request = request();
+            request.addHeader(HttpHeaders.RANGE, range);
+            MockHttpServletResponse response = download(request);
+
+            assertEquals(416, response.getStatus(), range);
+            assertEquals("bytes */100", response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+            assertEquals(0, response.getContentAsByteArray().length, range);
+        }
+    }
+
+    @Test
+    public void testMultipleRangesAsMultipartByteranges() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-4,90-99");
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(206, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        String contentType = response.getContentType();
+        assertTrue(contentType.startsWith("multipart/byteranges; boundary="), contentType);
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+
+        String body = response.getContentAsString(StandardCharsets.US_ASCII);
+        String expected = "\r\n--" + boundary + "\r\n"
+                + "Content-Type: application/pdf\r\n"
+                + "Content-Range: bytes 0-4/100\r\n\r\n"
+                + new String(content, 0, 5, StandardCharsets.US_ASCII)
+                + "\r\n--" + boundary + "\r\n"
+                + "Content-Type: application/pdf\r\n"
+                + "Content-Range: bytes 90-99/100\r\n\r\n"
+                + new String(content, 90, 10, StandardCharsets.US_ASCII)
+                + "\r\n--" + boundary + "--\r\n";
+        assertEquals(expected, body);
+        assertEquals(body.length(), response.getContentLengthLong());
+    }
+
+    @Test
+    public void testIfRangeWithMatchingValidatorSendsRange() throws Exception {
+        for (String validator : new String[]{ETAG, httpDate(MODIFIED)}) {
+            MockHttpServletRequest request = request();
+            request.addHeader(HttpHeaders.RANGE, "bytes=10-19");
+            request.addHeader(HttpHeaders.IF_RANGE, validator);
+            MockHttpServletResponse response = download(request);
+
+            assertEquals(206, response.getStatus(), validator);
+            assertEquals(10, response.getContentAsByteArray().length, validator);
+        }
+    }
+
+    @Test
+    public void testIfRangeWithStaleValidatorSendsWholeFile() throws Exception {
+        for (String validator : new String[]{"\"old\"", "W/" + ETAG, httpDate(MODIFIED.minusSeconds(60)), "not a date"}) {
+            MockHttpServletRequest request = request();
+            request.addHeader(HttpHeaders.RANGE, "bytes=10-19");
+            request.addHeader(HttpHeaders.IF_RANGE, validator);
+            MockHttpServletResponse response = download(request);
+
+            assertEquals(200, response.getStatus(), validator);
+            assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE), validator);
+            assertArrayEquals(content, response.getContentAsByteArray(), validator);
+        }
+    }
+
+    @Test
+    public void testCurrentCopyGets304() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-19");
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    private MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/documents/1/download");
+    }
+
+    private MockHttpServletResponse download(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(request, response, file, "application/pdf", "report.pdf", ETAG);
+        return response;
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atZone(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,151 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultipartStreamParserTest {
+
+    private static final String BOUNDARY = "----form-boundary-7MA4YWxk";
+    private static final String CONTENT_TYPE = "multipart/form-data; boundary=" + BOUNDARY;
+
+    @Test
+    public void testPartsSplitAcrossReads() throws IOException {
+        byte[] file = randomBytes(200_000);
+        byte[] body = body("Quarterly report", "report.pdf", file);
+
+        // Every boundary lands across several reads, and the file spans many buffer refills
+        for (int chunk : new int[]{1, 7, 4093}) {
+            MultipartStreamParser parser = new MultipartStreamParser(new TricklingInputStream(body, chunk), CONTENT_TYPE);
+
+            MultipartStreamParser.Part title = parser.nextPart();
+            assertEquals("title", title.getName());
+            assertFalse(title.isFile());
+            assertEquals("Quarterly report", title.readString(1024));
+
+            MultipartStreamParser.Part part = parser.nextPart();
+            assertEquals("file", part.getName());
+            assertEquals("report.pdf", part.getFilename());
+            assertEquals("application/pdf", part.getContentType());
+            assertArrayEquals(file, part.getInputStream().readAllBytes());
+
+            assertNull(parser.nextPart());
+        }
+    }
+
+    @Test
+    public void testUnreadPartIsSkipped() throws IOException {
+        MultipartStreamParser parser = new MultipartStreamParser(
+                new ByteArrayInputStream(body("Memo", "memo.txt", randomBytes(100_000))), CONTENT_TYPE);
+
+        assertEquals("title", parser.nextPart().getName());
+        assertEquals("file", parser.nextPart().getName());
+        assertNull(parser.nextPart());
+    }
+
+    @Test
+    public void testTruncatedStreamFails() throws IOException {
+        byte[] body = body("Memo", "memo.pdf", randomBytes(10_000));
+        MultipartStreamParser parser = new MultipartStreamParser(
+                new ByteArrayInputStream(Arrays.copyOf(body, body.length - 100)), CONTENT_TYPE);
+
+        assertEquals("Memo", parser.nextPart().readString(1024));
+        InputStream file = parser.nextPart().getInputStream();
+        IOException ex = assertThrows(IOException.class, file::readAllBytes);
+        assertEquals("Unexpected end of multipart stream", ex.getMessage());
+    }
+
+    @Test
+    public void testTruncatedHeadersFail() {
+        byte[] body = ("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"title\"").getBytes(StandardCharsets.ISO_8859_1);
+        MultipartStreamParser parser = new MultipartStreamParser(new ByteArrayInputStream(body), CONTENT_TYPE);
+
+        assertThrows(IOException.class, parser::nextPart);
+    }
+
+    @Test
+    public void testBodyOverLimitIsCutOff() throws IOException {
+        byte[] body = body("Memo", "memo.pdf", randomBytes(200_000));
+        MultipartStreamParser parser = new MultipartStreamParser(new ByteArrayInputStream(body), CONTENT_TYPE, 100_000);
+
+        assertEquals("Memo", parser.nextPart().readString(1024));
+        InputStream file = parser.nextPart().getInputStream();
+        assertThrows(MaxUploadSizeExceededException.class, file::readAllBytes);
+    }
+
+    @Test
+    public void testOversizedFieldIsRejected() throws IOException {
+        MultipartStreamParser parser = new MultipartStreamParser(
+                new ByteArrayInputStream(body("x".repeat(5000), "memo.pdf", randomBytes(10))), CONTENT_TYPE);
+
+        IOException ex = assertThrows(IOException.class, () -> parser.nextPart().readString(1024));
+        assertEquals("Form field 'title' exceeds 1024 bytes", ex.getMessage());
+    }
+
+    @Test
+    public void testContentTypeNeedsBoundary() {
+        InputStream empty = new ByteArrayInputStream(new byte[0]);
+        assertThrows(IllegalArgumentException.class, () -> new MultipartStreamParser(empty, "multipart/form-data"));
+        assertThrows(IllegalArgumentException.class, () -> new MultipartStreamParser(empty, "application/json"));
+        assertThrows(IllegalArgumentException.class, () -> new MultipartStreamParser(empty, null));
+    }
+
+    static byte[] body(String title, String filename, byte[] file) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(("preamble\r\n--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"title\"\r\n\r\n"
+                + title + "\r\n--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        out.write(file);
+        out.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        return out.toByteArray();
+    }
+
+    // Content that cannot contain the boundary, which is plain ASCII
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        for (int i = 0; i < length; i++) {
+            bytes[i] |= (byte) 0x80;
+        }
+        return bytes;
+    }
+
+    // Hands out at most chunk bytes per read, as a slow network would
+    private static class TricklingInputStream extends InputStream {
+        private final byte[] data;
+        private final int chunk;
+        private int pos;
+
+        TricklingInputStream(byte[] data, int chunk) {
+            this.data = data;
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read() {
+            return pos < data.length ? data[pos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos >= data.length) {
+                return -1;
+            }
+            int count = Math.min(Math.min(len, chunk), data.length - pos);
+            System.arraycopy(data, pos, b, off, count);
+            pos += count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import com.expensetracker.smartdocumentapprovalsystem.dto.AuditStats;
+import com.expensetracker.smartdocumentapprovalsystem.dto.LatencySummary;
+import com.expensetracker.smartdocumentapprovalsystem.dto.Status;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEvent;
+import com.expensetracker.smartdocumentapprovalsystem.dto.WorkflowEventType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollingHistogramTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    @Test
+    public void testCounterWindowsExpireOldPeriods() {
+        RollingCounter counter = new RollingCounter();
+        counter.increment(NOW);
+        counter.increment(NOW - 30 * MINUTE);
+        counter.increment(NOW - 3 * HOUR);
+        counter.increment(NOW - 3 * 24 * HOUR);
+        counter.increment(NOW - 8 * 24 * HOUR);
+
+        assertEquals(2, counter.lastHour(NOW));
+        assertEquals(3, counter.lastDay(NOW));
+        assertEquals(4, counter.lastWeek(NOW));
+
+        // An hour later the minute ring has moved past everything
+        assertEquals(0, counter.lastHour(NOW + 2 * HOUR));
+        // Slots reused by a newer period forget what they held
+        counter.increment(NOW + 7 * 24 * HOUR);
+        assertEquals(1, counter.lastHour(NOW + 7 * 24 * HOUR));
+    }
+
+    @Test
+    public void testCounterIsExactUnderConcurrentIncrements() throws Exception {
+        RollingCounter counter = new RollingCounter();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 25_000; i++) {
+                    counter.increment(NOW - (i % 50) * MINUTE);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertEquals(100_000, counter.lastHour(NOW));
+    }
+
+    @Test
+    public void testBucketsCoverEveryValueWithinOneEighth() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 100, 1_000, 65_535, 86_400_000L, RollingHistogram.MAX_VALUE}) {
+            int bucket = RollingHistogram.bucketOf(value);
+            assertTrue(bucket < RollingHistogram.BUCKETS);
+            long highest = RollingHistogram.highestValueOf(bucket);
+            assertTrue(highest >= value, "bucket of " + value + " ends at " + highest);
+            assertTrue(highest - value <= value / 8, "bucket of " + value + " is too wide");
+        }
+    }
+
+    @Test
+    public void testPercentilesOfUniformValues() {
+        RollingHistogram histogram = new RollingHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i, NOW);
+        }
+
+        LatencySummary summary = histogram.lastHour(NOW);
+        assertEquals(1000, summary.getCount());
+        assertEquals(500, summary.getMeanMs());
+        assertEquals(1000, summary.getMaxMs());
+        assertEquals(500, summary.getP50Ms(), 500 / 8);
+        assertEquals(900, summary.getP90Ms(), 900 / 8);
+        assertEquals(990, summary.getP99Ms(), 990 / 8);
+        assertTrue(summary.getP99Ms() <= summary.getMaxMs());
+
+        histogram.record(5, NOW - 2 * HOUR);
+        assertEquals(1000, histogram.lastHour(NOW).getCount());
+        assertEquals(1001, histogram.lastDay(NOW).getCount());
+        assertEquals(0, histogram.lastWeek(NOW + 8 * 24 * HOUR).getCount());
+    }
+
+    @Test
+    public void testAuditMetricsGroupsStepsByRoleAndReviewer() {
+        AuditMetrics metrics = new AuditMetrics();
+        LocalDateTime now = LocalDateTime.now();
+        metrics.onEvent(step(WorkflowEventType.STEP_UNDER_REVIEW, "MANAGER", "manager@test.com", now.minusHours(2), now));
+        metrics.onEvent(step(WorkflowEventType.STEP_APPROVED, "MANAGER", "manager@test.com", now.minusHours(2), now));
+        metrics.onEvent(step(WorkflowEventType.STEP_REJECTED, "OFFICER", "officer@test.com", now.minusMinutes(10), now));
+
+        WorkflowEvent completed = step(WorkflowEventType.DOCUMENT_COMPLETED, null, null, now.minusHours(2), now);
+        completed.setStatus(Status.APPROVED);
+        metrics.onEvent(completed);
+        metrics.actionLogged("DOCUMENT_REVIEW");
+
+        AuditStats stats = metrics.getStats();
+        assertEquals(1L, stats.getActions().get("DOCUMENT_REVIEW").getLastHour());
+        assertEquals(1L, stats.getStepsByRole().get("MANAGER").get("UNDER_REVIEW").getLastHour());
+        assertEquals(1L, stats.getStepsByRole().get("MANAGER").get("APPROVED").getLastWeek());
+        assertEquals(1L, stats.getStepsByReviewer().get("officer@test.com").get("REJECTED").getLastDay());
+
+        // Under review is not a decision, so only the approval is timed
+        LatencySummary manager = stats.getUploadToDecisionByRole().get("MANAGER").getLastHour();
+        assertEquals(1, manager.getCount());
+        assertEquals(2 * HOUR, manager.getMaxMs());
+        assertEquals(10 * MINUTE, stats.getUploadToDecisionByReviewer().get("officer@test.com").getLastHour().getMaxMs());
+        assertEquals(1, stats.getUploadToCompletion().get("APPROVED").getLastDay().getCount());
+    }
+
+    private static WorkflowEvent step(WorkflowEventType type, String role, String email,
+                                      LocalDateTime uploadedAt, LocalDateTime occurredAt) {
+        WorkflowEvent event = new WorkflowEvent();
+        event.setType(type);
+        event.setActorRole(role);
+        event.setActorEmail(email);
+        event.setUploadedAt(uploadedAt);
+        event.setOccurredAt(occurredAt);
+        return event;
+    }
+}
@@ -0,0 +1,104 @@
+package com.expensetracker.smartdocumentapprovalsystem.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimerWheelTest {
+
+    @Test
+    public void testTimeoutFiresOnItsTickAndNotBefore() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 0);
+        wheel.schedule(5_500, "a");
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(5_999, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(6_000, fired::add);
+        assertEquals(List.of("a"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testPastDeadlineFiresOnNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 100_000);
+        wheel.schedule(1_000, "overdue");
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(101_000, fired::add);
+        assertEquals(List.of("overdue"), fired);
+    }
+
+    @Test
+    public void testCancelledTimeoutNeverFires() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 0);
+        TimerWheel.Timeout<String> keep = wheel.schedule(10_000, "keep");
+        TimerWheel.Timeout<String> drop = wheel.schedule(10_000, "drop");
+
+        assertTrue(wheel.cancel(drop));
+        assertFalse(wheel.cancel(drop));
+        List<String> fired = new ArrayList<>();
+        wheel.advance(20_000, fired::add);
+        assertEquals(List.of("keep"), fired);
+        assertFalse(wheel.cancel(keep));
+    }
+
+    @Test
+    public void testMatchesSortedDeadlinesAcrossAllWheels() {
+        long tick = 1000;
+        long start = 1_700_000_123_000L;
+        TimerWheel<Integer> wheel = new TimerWheel<>(tick, start);
+        Random random = new Random(7);
+        Map<Integer, Long> due = new HashMap<>();
+        List<TimerWheel.Timeout<Integer>> timeouts = new ArrayList<>();
+        // Deadlines from seconds up to beyond the outermost wheel (about 194 days)
+        long[] ranges = {60_000L, 3_600_000L, 86_400_000L * 3, 86_400_000L * 300};
+        for (int i = 0; i < 20_000; i++) {
+            long deadline = start + (long) (random.nextDouble() * ranges[i % ranges.length]);
+            due.put(i, (deadline + tick - 1) / tick);
+            timeouts.add(wheel.schedule(deadline, i));
+        }
+        for (int i = 0; i < timeouts.size(); i += 10) {
+            wheel.cancel(timeouts.get(i));
+            due.remove(i);
+        }
+
+        Map<Integer, Long> firedAt = new HashMap<>();
+        long end = start + 86_400_000L * 301;
+        // Uneven steps, as a timer thread that is sometimes late would take
+        for (long now = start; now < end; now += 1000 + random.nextInt(3_600_000)) {
+            long nowTick = now / tick;
+            wheel.advance(now, id -> firedAt.put(id, nowTick));
+        }
+        wheel.advance(end, id -> firedAt.put(id, end / tick));
+
+        assertEquals(due.keySet(), firedAt.keySet());
+        for (Map.Entry<Integer, Long> entry : due.entrySet()) {
+            long fired = firedAt.get(entry.getKey());
+            // On the first advance that reached the deadline: never early
+            assertTrue(fired >= entry.getValue(), "timeout " + entry.getKey() + " fired early");
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testFiresOnExactTickWhenAdvancedEveryTick() {
+        TimerWheel<Long> wheel = new TimerWheel<>(1, 0);
+        Random random = new Random(11);
+        for (int i = 0; i < 5_000; i++) {
+            long deadline = 1 + random.nextInt(300_000);
+            wheel.schedule(deadline, deadline);
+        }
+        for (long now = 1; now <= 300_000; now++) {
+            long expected = now;
+            wheel.advance(now, deadline -> assertEquals(expected, deadline.longValue()));
+        }
+        assertEquals(0, wheel.size());
+    }
+}